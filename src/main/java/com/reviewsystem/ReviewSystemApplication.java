@@ -1,33 +1,94 @@
 package com.reviewsystem;
 
+import com.reviewsystem.service.BackfillService;
+import com.reviewsystem.service.DryRunService;
+import com.reviewsystem.service.RatingRollupService;
 import com.reviewsystem.service.ReviewImportService;
+import com.reviewsystem.service.ReviewTextMigrationService;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.MapPropertySource;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @SpringBootApplication
 @EnableConfigurationProperties
-@EnableScheduling
 public class ReviewSystemApplication {
     private static final Logger logger = LogManager.getLogger(ReviewSystemApplication.class);
 
     public static void main(String[] args) {
-        SpringApplication.run(ReviewSystemApplication.class, args);
+        SpringApplication application = new SpringApplication(ReviewSystemApplication.class);
+        boolean dryRun = option(args, "--dry-run=").isPresent();
+        if (dryRun) {
+            // Validation only: no HTTP server, folder watcher, scheduled imports or S3 claims
+            application.setWebApplicationType(WebApplicationType.NONE);
+            application.addInitializers(context -> context.getEnvironment().getPropertySources().addFirst(
+                    new MapPropertySource("dryRun", Map.of(
+                            "jlimport.watch.enabled", false,
+                            "jlimport.schedule-enabled", false,
+                            "jlimport.scheduled-tasks-enabled", false))));
+        }
+        ConfigurableApplicationContext context = application.run(args);
+        if (dryRun) {
+            // The reports are logged by the runner inside run()
+            System.exit(SpringApplication.exit(context));
+        }
     }
 
     @Bean
-    public CommandLineRunner importJLFileRunner(ReviewImportService reviewImportService) {
+    public CommandLineRunner importJLFileRunner(ReviewImportService reviewImportService,
+                                                ReviewTextMigrationService reviewTextMigrationService,
+                                                DryRunService dryRunService,
+                                                RatingRollupService ratingRollupService,
+                                                BackfillService backfillService) {
         return args -> {
-            if (args.length > 0) {
+            Optional<String> dryRun = option(args, "--dry-run=");
+            Optional<String> backfill = option(args, "--backfill=");
+            if (dryRun.isPresent()) {
+                // --dry-run=<file or folder>[,<file or folder>...]: validate only, nothing is written
+                List<Path> paths = Arrays.stream(dryRun.get().split(","))
+                        .filter(p -> !p.isBlank()).map(Path::of).toList();
+                dryRunService.validateFiles(paths);
+            } else if (backfill.isPresent()) {
+                // --backfill=<file, folder or s3://bucket/prefix>[,...] [--backfill-targets=grades,obp,rollups] [--backfill-run=<id>]
+                List<String> sources = Arrays.stream(backfill.get().split(",")).filter(s -> !s.isBlank()).toList();
+                Set<BackfillService.Target> targets = EnumSet.noneOf(BackfillService.Target.class);
+                for (String target : option(args, "--backfill-targets=").orElse("grades,obp,rollups").split(",")) {
+                    if (!target.isBlank()) targets.add(BackfillService.Target.valueOf(target.trim().toUpperCase(Locale.ROOT)));
+                }
+                // Claims are scoped to the run id; the default only resumes runs of the same targets on the same day
+                String defaultRunId = "backfill-" + targets.stream().map(t -> t.name().toLowerCase(Locale.ROOT))
+                        .collect(Collectors.joining("-")) + "-" + LocalDate.now();
+                String runId = option(args, "--backfill-run=").orElse(defaultRunId);
+                backfillService.backfill(sources, targets, runId);
+            } else if (Arrays.asList(args).contains("--migrate-review-text")) {
+                reviewTextMigrationService.migrate();
+            } else if (Arrays.asList(args).contains("--rebuild-rating-rollups")) {
+                ratingRollupService.rebuild();
+            } else if (args.length > 0) {
                 reviewImportService.importJLFiles();
             }
         };
     }
+
+    private static Optional<String> option(String[] args, String prefix) {
+        return Arrays.stream(args).filter(a -> a.startsWith(prefix)).map(a -> a.substring(prefix.length())).findFirst();
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.reviewsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "datasource-routing")
+public class DataSourceRoutingConfig {
+    // Read replicas for API reads; empty means everything uses spring.datasource
+    private List<Replica> replicas = new ArrayList<>();
+    // A replica further behind the primary than this is taken out of rotation
+    private long maxLagSeconds = 30;
+    private long healthCheckMillis = 5000;
+
+    @Data
+    public static class Replica {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
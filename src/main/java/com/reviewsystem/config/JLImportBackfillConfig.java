@@ -0,0 +1,23 @@
+package com.reviewsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "jlimport.backfill")
+public class JLImportBackfillConfig {
+    // Backfill threads; 0 uses one per available processor
+    private int threads = 0;
+    // Processed files are replayed as byte ranges of this size, each claimed separately
+    private long rangeBytes = 16L * 1024 * 1024;
+    // Reviews whose derived rows are replaced in one transaction
+    private int chunkReviews = 500;
+    // Upper bound over all backfill threads; 0 = unthrottled
+    private long maxReviewsPerSecond = 2000;
+
+    public int effectiveThreads() {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+}
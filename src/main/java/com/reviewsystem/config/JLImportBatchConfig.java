@@ -0,0 +1,18 @@
+package com.reviewsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "jlimport.adaptive-batch")
+public class JLImportBatchConfig {
+    private boolean enabled = true;
+    private int minSize = 1;
+    private int maxSize = 1000;
+    private long targetFlushMillis = 500;
+    private long targetPayloadBytes = 4 * 1024 * 1024;
+    // Consecutive failed batches before dropping straight to per-row mode (minSize)
+    private int failuresBeforePerRow = 3;
+}
@@ -0,0 +1,20 @@
+package com.reviewsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "jlimport.bulkhead")
+public class JLImportBulkheadConfig {
+    // Connections reserved for /api/reviews/* requests, never used by imports
+    private int apiPoolSize = 10;
+    // Import pool = concurrent-threads + ingest.max-concurrent-requests + backfill threads
+    // + spring.task.scheduling.pool.size + this (text migration, rollup rebuild)
+    private int importPoolReserve = 2;
+    // Import tasks waiting for a worker; further tasks are shed and left for the next scan
+    private int importQueueCapacity = 100;
+    // Longest wait for a pooled connection before the caller fails
+    private long connectionTimeoutMillis = 30000;
+}
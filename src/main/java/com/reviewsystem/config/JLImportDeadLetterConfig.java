@@ -0,0 +1,14 @@
+package com.reviewsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "jlimport.dead-letter")
+public class JLImportDeadLetterConfig {
+    private boolean enabled = true;
+    private int queueCapacity = 10000;
+    private int flushBatchSize = 500;
+}
@@ -0,0 +1,17 @@
+package com.reviewsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "jlimport.dry-run")
+public class JLImportDryRunConfig {
+    // Validation threads per dry run; 0 uses one per available processor
+    private int threads = 0;
+    // Files are validated as byte ranges of this size, in parallel
+    private long rangeBytes = 16L * 1024 * 1024;
+    // Lines of a streamed body handed to a validation thread at once
+    private int chunkLines = 1000;
+}
@@ -0,0 +1,16 @@
+package com.reviewsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "jlimport.ingest")
+public class JLImportIngestConfig {
+    // Streaming ingest requests handled at once; further requests get 429
+    private int maxConcurrentRequests = 4;
+    // Rejected lines of a request can be downloaded for this long, then the file is deleted
+    private int rejectedRetentionHours = 24;
+    private long rejectedPurgeMillis = 3600000;
+}
@@ -0,0 +1,15 @@
+package com.reviewsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "jlimport.lease")
+public class JLImportLeaseConfig {
+    // Unique per instance; defaults to hostname plus a random suffix when blank
+    private String nodeId;
+    private int leaseSeconds = 300;
+    private long heartbeatMillis = 60000;
+}
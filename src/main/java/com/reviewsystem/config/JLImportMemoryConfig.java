@@ -0,0 +1,14 @@
+package com.reviewsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "jlimport.memory")
+public class JLImportMemoryConfig {
+    private boolean enabled = true;
+    // Estimated bytes of parsed, unflushed reviews across all import threads; 0 = a quarter of the max heap
+    private long budgetBytes = 0;
+}
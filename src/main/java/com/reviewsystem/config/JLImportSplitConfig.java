@@ -0,0 +1,15 @@
+package com.reviewsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "jlimport.split")
+public class JLImportSplitConfig {
+    private boolean enabled = true;
+    // Files at least this large are imported as independent byte ranges
+    private long thresholdBytes = 256L * 1024 * 1024;
+    private long rangeBytes = 64L * 1024 * 1024;
+}
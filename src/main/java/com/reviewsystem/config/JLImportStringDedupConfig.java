@@ -0,0 +1,16 @@
+package com.reviewsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "jlimport.string-dedup")
+public class JLImportStringDedupConfig {
+    private boolean enabled = true;
+    // Distinct values kept; once full, new values pass through uncached
+    private int maxEntries = 10000;
+    // Longer values are never cached
+    private int maxLength = 255;
+}
@@ -0,0 +1,19 @@
+package com.reviewsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "jlimport.text-compression")
+public class JLImportTextCompressionConfig {
+    // Write review text columns LZ4 compressed; reads decode each row by its text_format
+    private boolean enabled = false;
+    // Values smaller than this (UTF-8 bytes) are stored as plain text
+    private int minBytes = 128;
+    // Rows converted per transaction by the migration
+    private int migrationBatchSize = 500;
+    // Pause between migration batches to limit the load on the primary
+    private long migrationPauseMillis = 0;
+}
@@ -0,0 +1,15 @@
+package com.reviewsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "jlimport.watch")
+public class JLImportWatchConfig {
+    private boolean enabled = false;
+    // A file is imported once its size and modification time have not changed for this long
+    private long stableMillis = 2000;
+    private long pollMillis = 500;
+}
@@ -0,0 +1,17 @@
+package com.reviewsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "jlimport.writer-lanes")
+public class JLImportWriterLanesConfig {
+    private boolean enabled = true;
+    // Hotels are spread over this many lanes; writes to one lane run one at a time on this node
+    private int lanes = 8;
+    // Whole-statement retries after a deadlock or lock wait timeout, before the per-row fallback
+    private int deadlockRetries = 3;
+    private long deadlockBackoffMillis = 50;
+}
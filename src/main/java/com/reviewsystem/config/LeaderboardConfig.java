@@ -0,0 +1,19 @@
+package com.reviewsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "leaderboard")
+public class LeaderboardConfig {
+    // Keep in-memory rankings; import-only workers turn this off
+    private boolean enabled = true;
+    // Hotels with fewer reviews in a provider/category are not ranked
+    private int minReviews = 5;
+    // Full reload from rating_rollup, picking up writes made by other nodes
+    private long refreshMillis = 300000;
+    // Most entries returned by one page
+    private int maxPageSize = 500;
+}
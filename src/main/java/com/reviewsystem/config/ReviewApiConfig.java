@@ -0,0 +1,13 @@
+package com.reviewsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "review-api")
+public class ReviewApiConfig {
+    // Most hotel ids accepted by one batch lookup
+    private int maxHotelsPerBatch = 100;
+}
@@ -0,0 +1,15 @@
+package com.reviewsystem.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the @Scheduled tasks (import scan, lease heartbeat, leaderboard refresh, replica
+ * health checks, rejected-file purge). Off for one-shot commands such as {@code --dry-run}.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "jlimport.scheduled-tasks-enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
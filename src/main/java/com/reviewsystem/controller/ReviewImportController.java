@@ -1,64 +1,254 @@
 package com.reviewsystem.controller;
 
+import com.reviewsystem.config.JLImportIngestConfig;
+import com.reviewsystem.config.LeaderboardConfig;
+import com.reviewsystem.config.ReviewApiConfig;
+import com.reviewsystem.datasource.ImportWorkload;
+import com.reviewsystem.service.DryRunService;
+import com.reviewsystem.service.EntityVersionService;
+import com.reviewsystem.service.ImportSummary;
+import com.reviewsystem.service.IngestRejectedFiles;
+import com.reviewsystem.service.LeaderboardService;
+import com.reviewsystem.service.RatingRollupService;
 import com.reviewsystem.service.ReviewImportService;
+import com.reviewsystem.service.ReviewQueryService;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import com.reviewsystem.repository.ReviewRepository;
-import com.reviewsystem.repository.OverallByProviderRepository;
-import com.reviewsystem.model.Review;
-import com.reviewsystem.model.OverallByProvider;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 import java.util.*;
 import com.reviewsystem.dto.ReviewWithGradesDTO;
+import com.reviewsystem.dto.ReviewDetailDTO;
 import com.reviewsystem.dto.OverallByProviderDTO;
+import com.reviewsystem.dto.ImportSummaryDTO;
+import com.reviewsystem.dto.DryRunReportDTO;
+import com.reviewsystem.dto.RatingTrendPointDTO;
+import com.reviewsystem.dto.LeaderboardEntryDTO;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/api/reviews")
 @RequiredArgsConstructor
 public class ReviewImportController {
     private final ReviewImportService reviewImportService;
-    private final ReviewRepository reviewRepository;
-    private final OverallByProviderRepository overallByProviderRepository;
+    private final ReviewQueryService reviewQueryService;
+    private final EntityVersionService entityVersionService;
+    private final DryRunService dryRunService;
+    private final RatingRollupService ratingRollupService;
+    private final LeaderboardService leaderboardService;
+    private final JLImportIngestConfig ingestConfig;
+    private final ReviewApiConfig apiConfig;
+    private final LeaderboardConfig leaderboardConfig;
+    private final IngestRejectedFiles ingestRejectedFiles;
+    private Semaphore ingestPermits;
 
+    @PostConstruct
+    void init() {
+        ingestPermits = new Semaphore(ingestConfig.getMaxConcurrentRequests());
+    }
+
+    @ImportWorkload
     @PostMapping("/import-jl")
     public ResponseEntity<String> importJLFile() {
         reviewImportService.importJLFiles();
         return ResponseEntity.ok("Import started");
     }
 
+    @ImportWorkload
     @PostMapping("/import-jl-folder")
     public ResponseEntity<String> importJLFolder() {
         reviewImportService.importJLFiles();
         return ResponseEntity.ok("Import started for folder");
     }
 
+    /**
+     * Streams an NDJSON (optionally gzip encoded) body through the same validation and
+     * batch writer as file imports, and answers with the accepted/duplicate/rejected counts.
+     * When lines were rejected, {@code rejectedLines} links to them for download.
+     */
+    @ImportWorkload
+    @PostMapping(value = "/ingest", consumes = {"application/x-ndjson", "application/jsonl",
+            MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ImportSummaryDTO> ingest(HttpServletRequest request,
+                                                   @RequestHeader(value = "Content-Encoding", required = false) String contentEncoding) throws IOException {
+        if (!ingestPermits.tryAcquire()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "5").build();
+        }
+        try {
+            InputStream body = request.getInputStream();
+            if ("gzip".equalsIgnoreCase(contentEncoding)) {
+                body = new GZIPInputStream(body, 64 * 1024);
+            }
+            String source = IngestRejectedFiles.newSourceName();
+            Path rejectedFile = ingestRejectedFiles.pathFor(source);
+            ImportSummary summary = reviewImportService.importStream(body, source, rejectedFile);
+            ImportSummaryDTO dto = new ImportSummaryDTO(summary);
+            if (Files.exists(rejectedFile)) {
+                dto.rejectedLines = "/api/reviews/ingest/rejected/" + rejectedFile.getFileName();
+            }
+            // Lines that could not be written are in the rejected counts; the client has to resend them
+            return ResponseEntity.status(summary.isComplete() ? HttpStatus.OK : HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(dto);
+        } finally {
+            ingestPermits.release();
+        }
+    }
+
+    /**
+     * The dead-lettered lines of an {@code /ingest} request, one JSON record per line with
+     * the raw line, its line number and the rejection reason. Kept for
+     * {@code jlimport.ingest.rejected-retention-hours}.
+     */
+    @GetMapping(value = "/ingest/rejected/{fileName}", produces = "application/x-ndjson")
+    public ResponseEntity<Resource> ingestRejectedLines(@PathVariable String fileName) throws IOException {
+        return ingestRejectedFiles.find(fileName)
+                .<ResponseEntity<Resource>>map(file -> ResponseEntity.ok(new FileSystemResource(file)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Validates an NDJSON (optionally gzip encoded) body like {@code /ingest} would, without
+     * writing anything, and answers with the per-line statistics. Shares the ingest permits.
+     */
+    @ImportWorkload
+    @PostMapping(value = "/dry-run", consumes = {"application/x-ndjson", "application/jsonl",
+            MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<DryRunReportDTO> dryRun(HttpServletRequest request,
+                                                  @RequestHeader(value = "Content-Encoding", required = false) String contentEncoding) throws IOException {
+        if (!ingestPermits.tryAcquire()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "5").build();
+        }
+        try {
+            InputStream body = request.getInputStream();
+            if ("gzip".equalsIgnoreCase(contentEncoding)) {
+                body = new GZIPInputStream(body, 64 * 1024);
+            }
+            return ResponseEntity.ok(new DryRunReportDTO(dryRunService.validateStream(body, "http-dry-run-" + UUID.randomUUID())));
+        } finally {
+            ingestPermits.release();
+        }
+    }
+
+    /**
+     * The list and score GETs carry the reviewer's or hotel's entity version as a strong
+     * ETag; a matching If-None-Match is answered with 304 before any review is read.
+     */
     @GetMapping("/by-user/{userId}")
-    public ResponseEntity<List<ReviewWithGradesDTO>> getReviewsByUser(@PathVariable Long userId) {
-        List<Review> reviews = reviewRepository.findByReviewerId(userId);
-        List<ReviewWithGradesDTO> dtos = new ArrayList<>();
-        for (Review r : reviews) dtos.add(new ReviewWithGradesDTO(r));
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<List<ReviewWithGradesDTO>> getReviewsByUser(@PathVariable Long userId, WebRequest request) {
+        return versioned(EntityVersionService.REVIEWER, userId, request, () -> reviewQueryService.findByReviewer(userId));
     }
 
     @GetMapping("/by-hotel/{hotelId}")
-    public ResponseEntity<List<ReviewWithGradesDTO>> getReviewsByHotel(@PathVariable Long hotelId) {
-        List<Review> reviews = reviewRepository.findByHotelId(hotelId);
-        List<ReviewWithGradesDTO> dtos = new ArrayList<>();
-        for (Review r : reviews) dtos.add(new ReviewWithGradesDTO(r));
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<List<ReviewWithGradesDTO>> getReviewsByHotel(@PathVariable Long hotelId, WebRequest request) {
+        return versioned(EntityVersionService.HOTEL, hotelId, request, () -> reviewQueryService.findByHotel(hotelId));
+    }
+
+    /**
+     * Full review including the LONGTEXT columns, which the list endpoints leave out.
+     */
+    @GetMapping("/{reviewId}")
+    public ResponseEntity<ReviewDetailDTO> getReview(@PathVariable Long reviewId) {
+        return reviewQueryService.findDetail(reviewId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @GetMapping("/latest-overall-by-provider/{hotelId}")
-    public ResponseEntity<List<OverallByProviderDTO>> getLatestOverallByProvider(@PathVariable Long hotelId) {
-        List<OverallByProvider> all = overallByProviderRepository.findByReview_Hotel_IdOrderByProviderIdAscCreatedAtDesc(hotelId);
-        // Group by provider, pick latest per provider
-        Map<Long, OverallByProviderDTO> latestByProvider = new LinkedHashMap<>();
-        for (OverallByProvider obp : all) {
-            Long providerId = obp.getProvider() != null ? obp.getProvider().getId() : null;
-            if (providerId != null && !latestByProvider.containsKey(providerId)) {
-                latestByProvider.put(providerId, new OverallByProviderDTO(obp));
-            }
+    public ResponseEntity<List<OverallByProviderDTO>> getLatestOverallByProvider(@PathVariable Long hotelId, WebRequest request) {
+        return versioned(EntityVersionService.HOTEL, hotelId, request,
+                () -> reviewQueryService.latestOverallByProvider(List.of(hotelId)).get(hotelId));
+    }
+
+    /**
+     * Month or week rating buckets of one hotel, per provider and category ("rating" is
+     * the review's own rating). Defaults to monthly buckets over the last ten years.
+     */
+    @GetMapping("/trends/{hotelId}")
+    public ResponseEntity<List<RatingTrendPointDTO>> getRatingTrends(@PathVariable Long hotelId,
+                                                                     @RequestParam(defaultValue = "month") String granularity,
+                                                                     @RequestParam(required = false) LocalDate from,
+                                                                     @RequestParam(required = false) LocalDate to,
+                                                                     @RequestParam(required = false) Long providerId,
+                                                                     @RequestParam(required = false) String category,
+                                                                     WebRequest request) {
+        RatingRollupService.Granularity bucket;
+        try {
+            bucket = RatingRollupService.Granularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "granularity must be month or week");
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusYears(10);
+        if (start.isAfter(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        // The hotel version alone would hand one query's trend to another, and keep
+        // serving yesterday's default range
+        String variant = bucket.name().toLowerCase(Locale.ROOT) + "-" + start + "-" + end
+                + (providerId != null ? "-p" + providerId : "")
+                + (category != null ? "-c" + URLEncoder.encode(category, StandardCharsets.UTF_8) : "");
+        return versioned(EntityVersionService.HOTEL, hotelId, variant, request,
+                () -> ratingRollupService.trend(hotelId, bucket, start, end, providerId, category));
+    }
+
+    /**
+     * Hotels ranked by average score for one provider and category, served from memory.
+     */
+    @GetMapping("/leaderboards/{providerId}/{category}")
+    public ResponseEntity<List<LeaderboardEntryDTO>> getLeaderboard(@PathVariable Long providerId, @PathVariable String category,
+                                                                    @RequestParam(defaultValue = "0") int offset,
+                                                                    @RequestParam(defaultValue = "100") int limit) {
+        if (offset < 0 || limit < 1 || limit > leaderboardConfig.getMaxPageSize()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "offset must be >= 0 and limit between 1 and " + leaderboardConfig.getMaxPageSize());
+        }
+        if (!leaderboardConfig.isEnabled() || !leaderboardService.isLoaded()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Leaderboards are not loaded");
+        }
+        return ResponseEntity.ok(leaderboardService.page(providerId, category, offset, limit));
+    }
+
+    /**
+     * Answers 304 when If-None-Match matches the entity's current ETag, otherwise the body
+     * with that ETag; version and body are read together (see {@link EntityVersionService#readVersioned}).
+     */
+    private <T> ResponseEntity<T> versioned(String entityType, long entityId, WebRequest request, java.util.function.Supplier<T> body) {
+        return versioned(entityType, entityId, null, request, body);
+    }
+
+    private <T> ResponseEntity<T> versioned(String entityType, long entityId, String variant, WebRequest request,
+                                            java.util.function.Supplier<T> body) {
+        EntityVersionService.Versioned<T> read = entityVersionService.readVersioned(entityType, entityId, variant,
+                request::checkNotModified, body);
+        if (read.notModified()) return null;
+        return ResponseEntity.ok().eTag(read.etag()).body(read.body());
+    }
+
+    /**
+     * Latest score per provider for up to {@code review-api.max-hotels-per-batch} hotels
+     * in one call, keyed by hotel id.
+     */
+    @PostMapping("/latest-overall-by-provider")
+    public ResponseEntity<Map<Long, List<OverallByProviderDTO>>> getLatestOverallByProviderForHotels(@RequestBody List<Long> hotelIds) {
+        if (hotelIds.size() > apiConfig.getMaxHotelsPerBatch()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + apiConfig.getMaxHotelsPerBatch() + " hotel ids per request");
         }
-        return ResponseEntity.ok(new ArrayList<>(latestByProvider.values()));
+        return ResponseEntity.ok(reviewQueryService.latestOverallByProvider(hotelIds));
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+package com.reviewsystem.datasource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Marks request threads as API workload, except handlers annotated with
+ * {@link ImportWorkload}, so {@link ReadWriteRoutingDataSource} gives them API or
+ * replica connections.
+ */
+public class ApiWorkloadInterceptor implements HandlerInterceptor {
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod method && method.hasMethodAnnotation(ImportWorkload.class)) {
+            return true;
+        }
+        ReadWriteRoutingDataSource.markApiRequest();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReadWriteRoutingDataSource.clearApiRequest();
+    }
+}
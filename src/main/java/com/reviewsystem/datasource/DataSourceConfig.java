@@ -0,0 +1,105 @@
+package com.reviewsystem.datasource;
+
+import com.reviewsystem.config.DataSourceRoutingConfig;
+import com.reviewsystem.config.JLImportBackfillConfig;
+import com.reviewsystem.config.JLImportBulkheadConfig;
+import com.reviewsystem.config.JLImportFolderConfig;
+import com.reviewsystem.config.JLImportIngestConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Two independent pools on the primary from {@code spring.datasource}, one for import
+ * work and one for the API, plus one read-only pool per {@code datasource-routing.replicas}
+ * entry. JPA uses the routing data source; Flyway migrates through the import pool.
+ * Every pool publishes hikaricp.* metrics tagged with its name, including
+ * hikaricp.connections.acquire (time spent waiting for a connection).
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @FlywayDataSource
+    public HikariDataSource importDataSource(DataSourceProperties properties, JLImportFolderConfig folderConfig,
+                                             JLImportIngestConfig ingestConfig, JLImportBackfillConfig backfillConfig,
+                                             JLImportBulkheadConfig bulkheadConfig,
+                                             @Value("${spring.task.scheduling.pool.size:1}") int schedulingPoolSize,
+                                             MeterRegistry meterRegistry) {
+        int size = importPoolSize(folderConfig.getConcurrentThreads(), ingestConfig.getMaxConcurrentRequests(),
+                backfillConfig.effectiveThreads(), schedulingPoolSize, bulkheadConfig.getImportPoolReserve());
+        return primaryPool(properties, ReadWriteRoutingDataSource.IMPORT, size, bulkheadConfig, meterRegistry);
+    }
+
+    @Bean
+    public HikariDataSource apiDataSource(DataSourceProperties properties, JLImportBulkheadConfig bulkheadConfig,
+                                          MeterRegistry meterRegistry) {
+        return primaryPool(properties, ReadWriteRoutingDataSource.API, bulkheadConfig.getApiPoolSize(), bulkheadConfig, meterRegistry);
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(HikariDataSource importDataSource, HikariDataSource apiDataSource,
+                                                        DataSourceProperties properties, DataSourceRoutingConfig routingConfig,
+                                                        MeterRegistry meterRegistry) {
+        List<ReadWriteRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (DataSourceRoutingConfig.Replica replica : routingConfig.getReplicas()) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName(replica.getName());
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername());
+            dataSource.setPassword(replica.getPassword());
+            dataSource.setDriverClassName(properties.getDriverClassName());
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setReadOnly(true);
+            dataSource.setTransactionIsolation("TRANSACTION_REPEATABLE_READ");
+            // A replica that is down at startup stays out of rotation instead of failing the start
+            dataSource.setInitializationFailTimeout(-1);
+            dataSource.setMetricRegistry(meterRegistry);
+            replicas.add(new ReadWriteRoutingDataSource.Replica(replica.getName(), dataSource));
+        }
+        return new ReadWriteRoutingDataSource(importDataSource, apiDataSource, replicas, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(routingDataSource);
+        // Known defaults, so the proxy does not borrow a connection at startup to detect them
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        return proxy;
+    }
+
+    /**
+     * One connection per thread that can hold an import connection at the same time: import
+     * workers, concurrent ingest streams, backfill workers (a backfill runs next to the
+     * scheduled imports) and scheduler threads (cron import, heartbeats, leaderboard
+     * reloads), plus the reserve for one-off work such as the text migration.
+     */
+    static int importPoolSize(int importThreads, int ingestRequests, int backfillThreads, int schedulingThreads, int reserve) {
+        return importThreads + ingestRequests + backfillThreads + schedulingThreads + reserve;
+    }
+
+    private static HikariDataSource primaryPool(DataSourceProperties properties, String name, int size,
+                                                JLImportBulkheadConfig bulkheadConfig, MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(Math.max(1, size));
+        dataSource.setConnectionTimeout(bulkheadConfig.getConnectionTimeoutMillis());
+        dataSource.setAutoCommit(true);
+        dataSource.setTransactionIsolation("TRANSACTION_REPEATABLE_READ");
+        dataSource.setMetricRegistry(meterRegistry);
+        return dataSource;
+    }
+}
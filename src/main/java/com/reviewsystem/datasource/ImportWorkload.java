@@ -0,0 +1,15 @@
+package com.reviewsystem.datasource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a controller method that runs import work on the request thread; its database
+ * work uses the import pool instead of the API pool.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ImportWorkload {
+}
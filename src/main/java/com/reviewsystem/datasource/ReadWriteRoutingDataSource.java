@@ -0,0 +1,132 @@
+package com.reviewsystem.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes connections between three kinds of pools:
+ * - API requests use their own primary pool, or a healthy replica (round robin) for
+ *   read-only transactions.
+ * - Everything else is import work (scheduled and CLI imports, import workers, ingest
+ *   and import endpoints) and uses the import pool. It never takes replica or API
+ *   connections, and every import read sees the import's own writes.
+ * Used behind a LazyConnectionDataSourceProxy, so the route is picked after the
+ * transaction's read-only flag is known.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+    public static final String IMPORT = "import";
+    public static final String API = "api";
+
+    private static final ThreadLocal<Boolean> apiRequest = new ThreadLocal<>();
+
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Counter> routed = new HashMap<>();
+
+    /**
+     * A replica pool and its latest health check result.
+     */
+    public static class Replica {
+        final String name;
+        final DataSource dataSource;
+        volatile boolean healthy;
+        volatile double lagSeconds = -1;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public double getLagSeconds() {
+            return lagSeconds;
+        }
+    }
+
+    public ReadWriteRoutingDataSource(DataSource importPool, DataSource apiPool, List<Replica> replicas, MeterRegistry meterRegistry) {
+        this.replicas = List.copyOf(replicas);
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(IMPORT, importPool);
+        targets.put(API, apiPool);
+        routed.put(IMPORT, routeCounter(meterRegistry, IMPORT));
+        routed.put(API, routeCounter(meterRegistry, API));
+        for (Replica replica : this.replicas) {
+            targets.put(replica.name, replica.dataSource);
+            routed.put(replica.name, routeCounter(meterRegistry, replica.name));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(importPool);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Marks the current thread as serving an API request until {@link #clearApiRequest()}.
+     */
+    public static void markApiRequest() {
+        apiRequest.set(Boolean.TRUE);
+    }
+
+    public static void clearApiRequest() {
+        apiRequest.remove();
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String route = IMPORT;
+        if (Boolean.TRUE.equals(apiRequest.get())) {
+            route = API;
+            if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                Replica replica = nextHealthyReplica();
+                if (replica != null) route = replica.name;
+            }
+        }
+        routed.get(route).increment();
+        return route;
+    }
+
+    private Replica nextHealthyReplica() {
+        int size = replicas.size();
+        if (size == 0) return null;
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) return replica;
+        }
+        return null;
+    }
+
+    @Override
+    public void destroy() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof HikariDataSource hikari) hikari.close();
+        }
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("datasource.route.connections")
+                .description("Connections handed out per route")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,87 @@
+package com.reviewsystem.datasource;
+
+import com.reviewsystem.config.DataSourceRoutingConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Checks every replica on {@code datasource-routing.health-check-millis}: it must accept
+ * connections, and, when it is a MySQL replica, replication must be running and no more
+ * than {@code max-lag-seconds} behind. A server without replica status (such as a
+ * second standalone instance used for local testing) counts as zero lag.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReplicaHealthChecker {
+    private static final Logger logger = LogManager.getLogger(ReplicaHealthChecker.class);
+
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final DataSourceRoutingConfig routingConfig;
+    private final MeterRegistry meterRegistry;
+
+    @PostConstruct
+    void init() {
+        for (ReadWriteRoutingDataSource.Replica replica : routingDataSource.getReplicas()) {
+            Gauge.builder("datasource.replica.lag", replica, ReadWriteRoutingDataSource.Replica::getLagSeconds)
+                    .description("Seconds the replica is behind the primary, -1 when unknown")
+                    .tag("route", replica.getName())
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                    .tag("route", replica.getName())
+                    .register(meterRegistry);
+        }
+        checkReplicas();
+    }
+
+    @Scheduled(fixedDelayString = "${datasource-routing.health-check-millis:5000}")
+    public void checkReplicas() {
+        for (ReadWriteRoutingDataSource.Replica replica : routingDataSource.getReplicas()) {
+            boolean wasHealthy = replica.healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                Double lag = replicationLag(connection);
+                replica.lagSeconds = lag == null ? -1 : lag;
+                replica.healthy = lag != null && lag <= routingConfig.getMaxLagSeconds();
+            } catch (SQLException e) {
+                replica.lagSeconds = -1;
+                replica.healthy = false;
+                if (wasHealthy) logger.warn("Replica {} failed its health check: {}", replica.getName(), e.getMessage());
+            }
+            if (wasHealthy != replica.healthy) {
+                logger.info("Replica {} is now {} (lag {}s)", replica.getName(), replica.healthy ? "in rotation" : "out of rotation", replica.lagSeconds);
+            }
+        }
+    }
+
+    /**
+     * Seconds behind the source, 0 for a server that is not a replica, null when replication is broken.
+     */
+    static Double replicationLag(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            try {
+                return replicationLag(st, "SHOW REPLICA STATUS", "Seconds_Behind_Source");
+            } catch (SQLException e) {
+                // MySQL before 8.0.22
+                return replicationLag(st, "SHOW SLAVE STATUS", "Seconds_Behind_Master");
+            }
+        }
+    }
+
+    private static Double replicationLag(Statement st, String query, String column) throws SQLException {
+        try (ResultSet rs = st.executeQuery(query)) {
+            if (!rs.next()) return 0.0;
+            long seconds = rs.getLong(column);
+            return rs.wasNull() ? null : (double) seconds;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.reviewsystem.dto;
+
+import com.reviewsystem.service.DryRunReport;
+import java.util.Map;
+
+public class DryRunReportDTO {
+    public String source;
+    public long lines;
+    public long bytes;
+    public long valid;
+    public long duplicates;
+    public long badDates;
+    public long rejected;
+    public Map<String, Long> rejectedByReason;
+    public Map<String, Long> missingFields;
+    public Map<Long, Long> unknownProviders;
+    public long elapsedMillis;
+    public long linesPerSecond;
+
+    public DryRunReportDTO(DryRunReport report) {
+        this.source = report.getSource();
+        this.lines = report.getLines();
+        this.bytes = report.getBytes();
+        this.valid = report.getValid();
+        this.duplicates = report.getDuplicates();
+        this.badDates = report.getBadDates();
+        this.rejected = report.getRejected();
+        this.rejectedByReason = report.getRejectedByReason();
+        this.missingFields = report.getMissingFields();
+        this.unknownProviders = report.getUnknownProviders();
+        this.elapsedMillis = report.getElapsedMillis();
+        this.linesPerSecond = report.getLines() * 1000 / Math.max(1, report.getElapsedMillis());
+    }
+}
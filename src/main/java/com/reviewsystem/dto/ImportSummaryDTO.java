@@ -0,0 +1,27 @@
+package com.reviewsystem.dto;
+
+import com.reviewsystem.service.ImportSummary;
+import java.util.Map;
+
+public class ImportSummaryDTO {
+    public String source;
+    public long accepted;
+    public long duplicates;
+    public long updated;
+    public long rejected;
+    public Map<String, Long> rejectedByReason;
+    // Set when the source was not fully imported; its unwritten lines are in the rejected counts
+    public String failure;
+    // Download path of the rejected lines (/ingest only), null when none were dead-lettered
+    public String rejectedLines;
+
+    public ImportSummaryDTO(ImportSummary summary) {
+        this.source = summary.getSource();
+        this.accepted = summary.getAccepted();
+        this.duplicates = summary.getDuplicates();
+        this.updated = summary.getUpdated();
+        this.rejected = summary.getRejected();
+        this.rejectedByReason = summary.getRejectedByReason();
+        this.failure = summary.getFailure();
+    }
+}
@@ -0,0 +1,15 @@
+package com.reviewsystem.dto;
+
+public class LeaderboardEntryDTO {
+    public int rank;
+    public Long hotelId;
+    public double averageScore;
+    public long reviewCount;
+
+    public LeaderboardEntryDTO(int rank, Long hotelId, double averageScore, long reviewCount) {
+        this.rank = rank;
+        this.hotelId = hotelId;
+        this.averageScore = averageScore;
+        this.reviewCount = reviewCount;
+    }
+}
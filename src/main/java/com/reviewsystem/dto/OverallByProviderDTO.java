@@ -1,5 +1,6 @@
 package com.reviewsystem.dto;
 
+import com.reviewsystem.repository.ProviderScoreRow;
 import java.time.LocalDateTime;
 
 public class OverallByProviderDTO {
@@ -22,4 +23,15 @@ public class OverallByProviderDTO {
         this.createdAt = obp.getCreatedAt();
         this.updatedAt = obp.getUpdatedAt();
     }
-} 
\ No newline at end of file
+
+    public OverallByProviderDTO(ProviderScoreRow row) {
+        this.id = row.getId();
+        this.reviewId = row.getReviewId();
+        this.providerId = row.getProviderId();
+        this.providerName = row.getProviderName();
+        this.overallScore = row.getOverallScore();
+        this.reviewCount = row.getReviewCount();
+        this.createdAt = row.getCreatedAt();
+        this.updatedAt = row.getUpdatedAt();
+    }
+}
@@ -0,0 +1,19 @@
+package com.reviewsystem.dto;
+
+import java.time.LocalDate;
+
+public class RatingTrendPointDTO {
+    public Long providerId;
+    public String category;
+    public LocalDate bucket;
+    public long reviewCount;
+    public double averageScore;
+
+    public RatingTrendPointDTO(Long providerId, String category, LocalDate bucket, long reviewCount, double averageScore) {
+        this.providerId = providerId;
+        this.category = category;
+        this.bucket = bucket;
+        this.reviewCount = reviewCount;
+        this.averageScore = averageScore;
+    }
+}
@@ -0,0 +1,62 @@
+package com.reviewsystem.dto;
+
+import com.reviewsystem.model.Review;
+import com.reviewsystem.model.ReviewGrades;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ReviewDetailDTO {
+    public Long reviewId;
+    public Long hotelId;
+    public String hotelName;
+    public Long providerId;
+    public Long reviewerId;
+    public String reviewerName;
+    public Double rating;
+    public String ratingText;
+    public String formattedRating;
+    public String reviewTitle;
+    public String reviewComments;
+    public String reviewPositives;
+    public String reviewNegatives;
+    public String originalTitle;
+    public String originalComment;
+    public String translateSource;
+    public String translateTarget;
+    public String checkInMonthYear;
+    public LocalDateTime reviewDate;
+    public String formattedReviewDate;
+    public String responderName;
+    public String responseDateText;
+    public String formattedResponseDate;
+    public Boolean isShowReviewResponse;
+    public List<ReviewGrades> grades;
+
+    public ReviewDetailDTO(Review review) {
+        this.reviewId = review.getId();
+        this.hotelId = review.getHotel() != null ? review.getHotel().getId() : null;
+        this.hotelName = review.getHotel() != null ? review.getHotel().getName() : null;
+        this.providerId = review.getProvider() != null ? review.getProvider().getId() : null;
+        this.reviewerId = review.getReviewer() != null ? review.getReviewer().getId() : null;
+        this.reviewerName = review.getReviewer() != null ? review.getReviewer().getDisplayName() : null;
+        this.rating = review.getRating();
+        this.ratingText = review.getRatingText();
+        this.formattedRating = review.getFormattedRating();
+        this.reviewTitle = review.getReviewTitle();
+        this.reviewComments = review.getReviewComments();
+        this.reviewPositives = review.getReviewPositives();
+        this.reviewNegatives = review.getReviewNegatives();
+        this.originalTitle = review.getOriginalTitle();
+        this.originalComment = review.getOriginalComment();
+        this.translateSource = review.getTranslateSource();
+        this.translateTarget = review.getTranslateTarget();
+        this.checkInMonthYear = review.getCheckInMonthYear();
+        this.reviewDate = review.getReviewDate();
+        this.formattedReviewDate = review.getFormattedReviewDate();
+        this.responderName = review.getResponderName();
+        this.responseDateText = review.getResponseDateText();
+        this.formattedResponseDate = review.getFormattedResponseDate();
+        this.isShowReviewResponse = review.getIsShowReviewResponse();
+        this.grades = review.getGrades();
+    }
+}
@@ -2,6 +2,7 @@ package com.reviewsystem.dto;
 
 import com.reviewsystem.model.Review;
 import com.reviewsystem.model.ReviewGrades;
+import com.reviewsystem.repository.ReviewSummary;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -27,4 +28,16 @@ public class ReviewWithGradesDTO {
         this.reviewDate = review.getReviewDate();
         this.grades = review.getGrades();
     }
-} 
\ No newline at end of file
+
+    public ReviewWithGradesDTO(ReviewSummary summary, List<ReviewGrades> grades) {
+        this.reviewId = summary.getReviewId();
+        this.hotelId = summary.getHotelId();
+        this.hotelName = summary.getHotelName();
+        this.reviewerId = summary.getReviewerId();
+        this.reviewerName = summary.getReviewerName();
+        this.rating = summary.getRating();
+        this.reviewComments = summary.getReviewComments();
+        this.reviewDate = summary.getReviewDate();
+        this.grades = grades;
+    }
+}
@@ -0,0 +1,92 @@
+package com.reviewsystem.model;
+
+import com.reviewsystem.config.JLImportTextCompressionConfig;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import lombok.RequiredArgsConstructor;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Stores review text in a LONGBLOB column, in the format of the row's {@code text_format}:
+ * <ul>
+ *   <li>{@link Review#TEXT_PLAIN}: the UTF-8 text.</li>
+ *   <li>{@link Review#TEXT_LZ4}: a tag byte, then either the UTF-8 text ({@link #TAG_PLAIN},
+ *   for values under {@code min-bytes} or that do not shrink) or the uncompressed length
+ *   and an LZ4 block ({@link #TAG_LZ4}).</li>
+ * </ul>
+ * Writes use the format {@code jlimport.text-compression.enabled} selects, which is the
+ * format the import sets on the row. Reads get the row's format as the first byte of the
+ * value (see the column read expressions on {@link Review}), so stored bytes are never
+ * inspected to guess their format.
+ */
+@Component
+@Converter
+@RequiredArgsConstructor
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+    static final byte TAG_PLAIN = 0;
+    static final byte TAG_LZ4 = 1;
+    static final int LZ4_HEADER_BYTES = 5;
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+
+    private final JLImportTextCompressionConfig compressionConfig;
+
+    @Override
+    public byte[] convertToDatabaseColumn(String text) {
+        if (text == null) return null;
+        return encode(text.getBytes(StandardCharsets.UTF_8), compressionConfig.isEnabled(), compressionConfig.getMinBytes());
+    }
+
+    /**
+     * {@code read} is the row's text_format followed by the stored value.
+     */
+    @Override
+    public String convertToEntityAttribute(byte[] read) {
+        if (read == null) return null;
+        return new String(decode(Arrays.copyOfRange(read, 1, read.length), read[0]), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the stored form of UTF-8 text: the text itself in a plain row, tagged and
+     * compressed when worth it in an LZ4 row.
+     */
+    public static byte[] encode(byte[] utf8, boolean compress, int minBytes) {
+        if (!compress) return utf8;
+        if (utf8.length >= minBytes) {
+            int maxLength = COMPRESSOR.maxCompressedLength(utf8.length);
+            byte[] out = new byte[LZ4_HEADER_BYTES + maxLength];
+            ByteBuffer.wrap(out).put(TAG_LZ4).putInt(utf8.length);
+            int written = COMPRESSOR.compress(utf8, 0, utf8.length, out, LZ4_HEADER_BYTES, maxLength);
+            if (LZ4_HEADER_BYTES + written < utf8.length + 1) return Arrays.copyOf(out, LZ4_HEADER_BYTES + written);
+        }
+        byte[] out = new byte[utf8.length + 1];
+        out[0] = TAG_PLAIN;
+        System.arraycopy(utf8, 0, out, 1, utf8.length);
+        return out;
+    }
+
+    /**
+     * Returns the UTF-8 text bytes of a value stored in a row of the given text_format.
+     */
+    public static byte[] decode(byte[] stored, byte textFormat) {
+        if (textFormat == Review.TEXT_PLAIN) return stored;
+        if (textFormat == Review.TEXT_LZ4 && stored.length > 0 && stored[0] == TAG_PLAIN) {
+            return Arrays.copyOfRange(stored, 1, stored.length);
+        }
+        if (textFormat != Review.TEXT_LZ4 || stored.length < LZ4_HEADER_BYTES || stored[0] != TAG_LZ4) {
+            throw new IllegalArgumentException("Unreadable review text: format " + textFormat + ", " + stored.length + " bytes");
+        }
+        int length = ByteBuffer.wrap(stored, 1, 4).getInt();
+        byte[] utf8 = new byte[length];
+        DECOMPRESSOR.decompress(stored, LZ4_HEADER_BYTES, utf8, 0, length);
+        return utf8;
+    }
+}
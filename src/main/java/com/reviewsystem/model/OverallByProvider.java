@@ -27,6 +27,7 @@ public class OverallByProvider {
     @JoinColumn(name = "provider_id")
     private Provider provider;
 
+    @Column(columnDefinition = "DECIMAL(3,1)")
     private Double overallScore;
     private Integer reviewCount;
 
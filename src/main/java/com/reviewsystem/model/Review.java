@@ -1,11 +1,14 @@
 package com.reviewsystem.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnTransformer;
 import java.time.LocalDateTime;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.domain.Persistable;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 @Entity
@@ -15,7 +18,12 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 @AllArgsConstructor
 @Builder
 @EntityListeners(AuditingEntityListener.class)
-public class Review {
+public class Review implements Persistable<Long> {
+    // text_format: how the LONGBLOB text columns of the row were written (see CompressedTextConverter).
+    // Each text column is read with the row's format in front, so the converter decodes by it
+    public static final byte TEXT_PLAIN = 0;
+    public static final byte TEXT_LZ4 = 1;
+
     @Id
     private Long id;
 
@@ -31,6 +39,7 @@ public class Review {
     @JoinColumn(name = "reviewer_id")
     private Reviewer reviewer;
 
+    @Column(columnDefinition = "DECIMAL(3,1)")
     private Double rating;
     private String checkInMonthYear;
     private String encryptedReviewData;
@@ -40,14 +49,20 @@ public class Review {
     private String responderName;
     private String responseDateText;
     private String responseTranslateSource;
-    @Lob
-    @Column(name = "review_comments", columnDefinition = "LONGTEXT")
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "review_comments", columnDefinition = "LONGBLOB")
+    @ColumnTransformer(read = "CONCAT(CHAR(text_format), review_comments)")
+    @Convert(converter = CompressedTextConverter.class)
     private String reviewComments;
-    @Lob
-    @Column(name = "review_negatives", columnDefinition = "LONGTEXT")
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "review_negatives", columnDefinition = "LONGBLOB")
+    @ColumnTransformer(read = "CONCAT(CHAR(text_format), review_negatives)")
+    @Convert(converter = CompressedTextConverter.class)
     private String reviewNegatives;
-    @Lob
-    @Column(name = "review_positives", columnDefinition = "LONGTEXT")
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "review_positives", columnDefinition = "LONGBLOB")
+    @ColumnTransformer(read = "CONCAT(CHAR(text_format), review_positives)")
+    @Convert(converter = CompressedTextConverter.class)
     private String reviewPositives;
     private String reviewProviderLogo;
     private String reviewProviderText;
@@ -55,15 +70,27 @@ public class Review {
     private String translateSource;
     private String translateTarget;
     private LocalDateTime reviewDate;
-    @Lob
-    @Column(name = "original_title", columnDefinition = "LONGTEXT")
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "original_title", columnDefinition = "LONGBLOB")
+    @ColumnTransformer(read = "CONCAT(CHAR(text_format), original_title)")
+    @Convert(converter = CompressedTextConverter.class)
     private String originalTitle;
-    @Lob
-    @Column(name = "original_comment", columnDefinition = "LONGTEXT")
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "original_comment", columnDefinition = "LONGBLOB")
+    @ColumnTransformer(read = "CONCAT(CHAR(text_format), original_comment)")
+    @Convert(converter = CompressedTextConverter.class)
     private String originalComment;
     private String formattedResponseDate;
     private Boolean isShowReviewResponse;
 
+    @Builder.Default
+    @Column(name = "text_format", nullable = false)
+    private Byte textFormat = TEXT_PLAIN;
+
+    // xxHash64 of the mapped content, see ReviewRecordMapper.contentHash
+    @Column(name = "content_hash")
+    private Long contentHash;
+
     @OneToMany(mappedBy = "review", fetch = FetchType.LAZY)
     @JsonManagedReference
     private java.util.List<ReviewGrades> grades;
@@ -75,4 +102,24 @@ public class Review {
     @LastModifiedDate
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    // Set by the importer for reviews it found missing, so save persists them without the
+    // SELECT that merging an assigned id costs. Cleared once the row is written or loaded.
+    @Transient
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean newEntity;
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markStored() {
+        newEntity = false;
+    }
 } 
\ No newline at end of file
@@ -26,6 +26,7 @@ public class ReviewGrades {
     private Review review;
 
     private String category;
+    @Column(columnDefinition = "DECIMAL(3,1)")
     private Double score;
 
     @CreatedDate
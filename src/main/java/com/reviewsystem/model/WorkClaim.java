@@ -0,0 +1,63 @@
+package com.reviewsystem.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "work_claim")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WorkClaim {
+    public static final String CLAIMED = "CLAIMED";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    // SHA-256 of claimKey: keys can be longer than MySQL can index
+    @Id
+    @Column(name = "key_hash", columnDefinition = "BINARY(32)")
+    private byte[] keyHash;
+
+    @Column(name = "claim_key", columnDefinition = "TEXT", nullable = false)
+    private String claimKey;
+
+    @Column(name = "owner_node", length = 100)
+    private String ownerNode;
+
+    @Column(length = 20)
+    private String status;
+
+    private Integer attempts;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /**
+     * Primary key of a claim: the SHA-256 of its UTF-8 key, the same as
+     * {@code UNHEX(SHA2(claim_key, 256))} in MySQL.
+     */
+    public static byte[] keyHash(String claimKey) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(claimKey.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -2,7 +2,21 @@ package com.reviewsystem.repository;
 
 import com.reviewsystem.model.OverallByProvider;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface OverallByProviderRepository extends JpaRepository<OverallByProvider, Long> {
+public interface OverallByProviderRepository extends JpaRepository<OverallByProvider, Long>, OverallByProviderRepositoryCustom {
     java.util.List<OverallByProvider> findByReview_Hotel_IdOrderByProviderIdAscCreatedAtDesc(Long hotelId);
-} 
\ No newline at end of file
+
+    /**
+     * Latest row per (hotel, provider) for all given hotels in one statement. Ids grow
+     * with insertion time, so the highest id per group is the most recently created row.
+     */
+    @Query("select r.hotel.id as hotelId, o.id as id, r.id as reviewId, p.id as providerId, p.name as providerName, "
+            + "o.overallScore as overallScore, o.reviewCount as reviewCount, o.createdAt as createdAt, o.updatedAt as updatedAt "
+            + "from OverallByProvider o join o.review r join o.provider p "
+            + "where o.id in (select max(o2.id) from OverallByProvider o2 join o2.review r2 "
+            + "where r2.hotel.id in :hotelIds group by r2.hotel.id, o2.provider.id) "
+            + "order by r.hotel.id, p.id")
+    java.util.List<ProviderScoreRow> findLatestByHotelIds(@Param("hotelIds") java.util.Collection<Long> hotelIds);
+}
@@ -0,0 +1,21 @@
+package com.reviewsystem.repository;
+
+import com.reviewsystem.model.OverallByProvider;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface OverallByProviderRepositoryCustom {
+    /**
+     * Inserts new overall-by-provider rows as JDBC batches in one transaction. Their ids are not read back.
+     */
+    @Transactional
+    void insertAll(List<OverallByProvider> rows);
+
+    /**
+     * Replaces the overall-by-provider rows of the given reviews with {@code rows} in one transaction.
+     */
+    @Transactional
+    void replaceAll(Collection<Long> reviewIds, List<OverallByProvider> rows);
+}
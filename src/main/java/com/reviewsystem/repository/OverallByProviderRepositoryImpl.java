@@ -0,0 +1,45 @@
+package com.reviewsystem.repository;
+
+import com.reviewsystem.model.OverallByProvider;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Inserted through JDBC for the same reason as {@link ReviewGradesRepositoryImpl}:
+ * IDENTITY ids keep Hibernate from batching the inserts.
+ */
+@RequiredArgsConstructor
+public class OverallByProviderRepositoryImpl implements OverallByProviderRepositoryCustom {
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<OverallByProvider> rows) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate("INSERT INTO overall_by_provider (review_id, provider_id, overall_score, review_count, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)",
+                rows, BATCH_SIZE, (ps, row) -> {
+                    row.setCreatedAt(now);
+                    row.setUpdatedAt(now);
+                    ps.setLong(1, row.getReview().getId());
+                    ps.setLong(2, row.getProvider().getId());
+                    ps.setObject(3, row.getOverallScore());
+                    ps.setObject(4, row.getReviewCount());
+                    ps.setObject(5, now);
+                    ps.setObject(6, now);
+                });
+    }
+
+    @Override
+    public void replaceAll(Collection<Long> reviewIds, List<OverallByProvider> rows) {
+        jdbcTemplate.update("DELETE FROM overall_by_provider WHERE review_id IN ("
+                + String.join(", ", Collections.nCopies(reviewIds.size(), "?")) + ")", reviewIds.toArray());
+        if (!rows.isEmpty()) insertAll(rows);
+    }
+}
@@ -2,6 +2,12 @@ package com.reviewsystem.repository;
 
 import com.reviewsystem.model.Provider;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface ProviderRepository extends JpaRepository<Provider, Long> {
-} 
\ No newline at end of file
+
+    @Query("select p.id from Provider p")
+    List<Long> findAllIds();
+}
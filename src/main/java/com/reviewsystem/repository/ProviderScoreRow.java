@@ -0,0 +1,18 @@
+package com.reviewsystem.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * One overall-by-provider row with the hotel it belongs to, for multi-hotel reads.
+ */
+public interface ProviderScoreRow {
+    Long getHotelId();
+    Long getId();
+    Long getReviewId();
+    Long getProviderId();
+    String getProviderName();
+    Double getOverallScore();
+    Integer getReviewCount();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+}
@@ -3,5 +3,6 @@ package com.reviewsystem.repository;
 import com.reviewsystem.model.ReviewGrades;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface ReviewGradesRepository extends JpaRepository<ReviewGrades, Long> {
-} 
\ No newline at end of file
+public interface ReviewGradesRepository extends JpaRepository<ReviewGrades, Long>, ReviewGradesRepositoryCustom {
+    java.util.List<ReviewGrades> findByReview_IdIn(java.util.Collection<Long> reviewIds);
+}
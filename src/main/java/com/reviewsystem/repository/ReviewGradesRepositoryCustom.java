@@ -0,0 +1,22 @@
+package com.reviewsystem.repository;
+
+import com.reviewsystem.model.ReviewGrades;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ReviewGradesRepositoryCustom {
+    /**
+     * Inserts new grade rows as JDBC batches in one transaction. Their ids are not read back.
+     */
+    @Transactional
+    void insertAll(List<ReviewGrades> grades);
+
+    /**
+     * Replaces the grade rows of the given reviews with {@code grades} in one transaction and
+     * returns the rows it deleted. Their review holds only the id.
+     */
+    @Transactional
+    List<ReviewGrades> replaceAll(Collection<Long> reviewIds, List<ReviewGrades> grades);
+}
@@ -0,0 +1,56 @@
+package com.reviewsystem.repository;
+
+import com.reviewsystem.model.Review;
+import com.reviewsystem.model.ReviewGrades;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Grade rows have IDENTITY ids, and Hibernate gives up JDBC batching for those: every
+ * persist is sent on its own to read the generated key. The import never needs these
+ * ids, so it inserts the rows through JDBC, where Connector/J rewrites each batch into
+ * one multi-row INSERT.
+ */
+@RequiredArgsConstructor
+public class ReviewGradesRepositoryImpl implements ReviewGradesRepositoryCustom {
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<ReviewGrades> grades) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate("INSERT INTO review_grades (review_id, category, score, created_at, updated_at) VALUES (?, ?, ?, ?, ?)",
+                grades, BATCH_SIZE, (ps, grade) -> {
+                    grade.setCreatedAt(now);
+                    grade.setUpdatedAt(now);
+                    ps.setLong(1, grade.getReview().getId());
+                    ps.setString(2, grade.getCategory());
+                    ps.setObject(3, grade.getScore());
+                    ps.setObject(4, now);
+                    ps.setObject(5, now);
+                });
+    }
+
+    @Override
+    public List<ReviewGrades> replaceAll(Collection<Long> reviewIds, List<ReviewGrades> grades) {
+        String in = String.join(", ", Collections.nCopies(reviewIds.size(), "?"));
+        Object[] ids = reviewIds.toArray();
+        List<ReviewGrades> replaced = jdbcTemplate.query(
+                "SELECT review_id, category, score FROM review_grades WHERE review_id IN (" + in + ") FOR UPDATE",
+                (rs, i) -> ReviewGrades.builder()
+                        .review(Review.builder().id(rs.getLong(1)).build())
+                        .category(rs.getString(2))
+                        .score(rs.getObject(3, Double.class))
+                        .build(),
+                ids);
+        jdbcTemplate.update("DELETE FROM review_grades WHERE review_id IN (" + in + ")", ids);
+        if (!grades.isEmpty()) insertAll(grades);
+        return replaced;
+    }
+}
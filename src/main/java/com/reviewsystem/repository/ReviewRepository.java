@@ -2,8 +2,26 @@ package com.reviewsystem.repository;
 
 import com.reviewsystem.model.Review;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ReviewRepository extends JpaRepository<Review, Long> {
+public interface ReviewRepository extends JpaRepository<Review, Long>, ReviewRepositoryCustom {
     java.util.List<Review> findByReviewerId(Long reviewerId);
     java.util.List<Review> findByHotelId(Long hotelId);
-} 
\ No newline at end of file
+
+    @Query("select r.id as reviewId, h.id as hotelId, h.name as hotelName, rv.id as reviewerId, "
+            + "rv.displayName as reviewerName, r.rating as rating, r.reviewComments as reviewComments, "
+            + "r.reviewDate as reviewDate "
+            + "from Review r left join r.hotel h left join r.reviewer rv where rv.id = :reviewerId")
+    java.util.List<ReviewSummary> findSummariesByReviewerId(@Param("reviewerId") Long reviewerId);
+
+    @Query("select r.id as reviewId, h.id as hotelId, h.name as hotelName, rv.id as reviewerId, "
+            + "rv.displayName as reviewerName, r.rating as rating, r.reviewComments as reviewComments, "
+            + "r.reviewDate as reviewDate "
+            + "from Review r left join r.hotel h left join r.reviewer rv where h.id = :hotelId")
+    java.util.List<ReviewSummary> findSummariesByHotelId(@Param("hotelId") Long hotelId);
+
+    @Query("select r.id as id, r.contentHash as contentHash, r.hotel.id as hotelId, r.provider.id as providerId, "
+            + "r.rating as rating, r.reviewDate as reviewDate from Review r where r.id in :ids")
+    java.util.List<ReviewStateRow> findStatesByIdIn(@Param("ids") java.util.Collection<Long> ids);
+}
@@ -0,0 +1,14 @@
+package com.reviewsystem.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+public interface ReviewRepositoryCustom {
+    /**
+     * Stores the content hash of reviews that have none yet, leaving every other column,
+     * updated_at included, as it is. Rows that got a hash in the meantime are skipped.
+     */
+    @Transactional
+    void recordMissingContentHashes(Map<Long, Long> hashesById);
+}
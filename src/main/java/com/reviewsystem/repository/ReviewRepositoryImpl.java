@@ -0,0 +1,29 @@
+package com.reviewsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes only the hash column, in JDBC batches. Saving the entities instead would rewrite
+ * every column and fire the rollup, leaderboard and version updates of a changed review.
+ */
+@RequiredArgsConstructor
+public class ReviewRepositoryImpl implements ReviewRepositoryCustom {
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void recordMissingContentHashes(Map<Long, Long> hashesById) {
+        List<Map.Entry<Long, Long>> entries = new ArrayList<>(hashesById.entrySet());
+        jdbcTemplate.batchUpdate("UPDATE review SET content_hash = ?, updated_at = updated_at WHERE id = ? AND content_hash IS NULL",
+                entries, BATCH_SIZE, (ps, entry) -> {
+                    ps.setLong(1, entry.getValue());
+                    ps.setLong(2, entry.getKey());
+                });
+    }
+}
@@ -0,0 +1,16 @@
+package com.reviewsystem.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stored content hash of a review plus the columns the rollups are keyed on, read in bulk
+ * to decide which incoming reviews are new, unchanged or updated.
+ */
+public interface ReviewStateRow {
+    Long getId();
+    Long getContentHash();
+    Long getHotelId();
+    Long getProviderId();
+    Double getRating();
+    LocalDateTime getReviewDate();
+}
@@ -0,0 +1,18 @@
+package com.reviewsystem.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * List read model for reviews: the columns the list endpoints show, without the
+ * negatives/positives/original LONGTEXT columns.
+ */
+public interface ReviewSummary {
+    Long getReviewId();
+    Long getHotelId();
+    String getHotelName();
+    Long getReviewerId();
+    String getReviewerName();
+    Double getRating();
+    String getReviewComments();
+    LocalDateTime getReviewDate();
+}
@@ -4,4 +4,5 @@ import com.reviewsystem.model.Reviewer;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface ReviewerRepository extends JpaRepository<Reviewer, Long> {
-} 
\ No newline at end of file
+    java.util.Optional<Reviewer> findFirstByDisplayNameAndCountryName(String displayName, String countryName);
+}
@@ -0,0 +1,49 @@
+package com.reviewsystem.repository;
+
+import com.reviewsystem.model.WorkClaim;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Lease operations on work_claim, addressed by {@link WorkClaim#keyHash}. All timestamps
+ * come from the database clock so nodes with skewed clocks still agree on expiry.
+ */
+public interface WorkClaimRepository extends JpaRepository<WorkClaim, byte[]>, WorkClaimRepositoryCustom {
+
+    long countByKeyHashInAndStatus(Collection<byte[]> keyHashes, String status);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE work_claim SET owner_node = :owner, attempts = attempts + 1, claimed_at = NOW(), heartbeat_at = NOW(), " +
+            "expires_at = TIMESTAMPADD(SECOND, :leaseSeconds, NOW()), updated_at = NOW() " +
+            "WHERE key_hash = :keyHash AND status = 'CLAIMED' AND expires_at < NOW()",
+            nativeQuery = true)
+    int stealExpired(@Param("keyHash") byte[] keyHash, @Param("owner") String owner, @Param("leaseSeconds") int leaseSeconds);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE work_claim SET owner_node = :owner, status = 'CLAIMED', attempts = attempts + 1, claimed_at = NOW(), heartbeat_at = NOW(), " +
+            "expires_at = TIMESTAMPADD(SECOND, :leaseSeconds, NOW()), updated_at = NOW() " +
+            "WHERE key_hash = :keyHash AND status = 'FAILED'",
+            nativeQuery = true)
+    int retryFailed(@Param("keyHash") byte[] keyHash, @Param("owner") String owner, @Param("leaseSeconds") int leaseSeconds);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE work_claim SET heartbeat_at = NOW(), expires_at = TIMESTAMPADD(SECOND, :leaseSeconds, NOW()), updated_at = NOW() " +
+            "WHERE key_hash IN (:keyHashes) AND owner_node = :owner AND status = 'CLAIMED'",
+            nativeQuery = true)
+    int heartbeat(@Param("keyHashes") Collection<byte[]> keyHashes, @Param("owner") String owner, @Param("leaseSeconds") int leaseSeconds);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE work_claim SET status = :status, updated_at = NOW() " +
+            "WHERE key_hash = :keyHash AND owner_node = :owner AND status = 'CLAIMED'",
+            nativeQuery = true)
+    int finish(@Param("keyHash") byte[] keyHash, @Param("owner") String owner, @Param("status") String status);
+}
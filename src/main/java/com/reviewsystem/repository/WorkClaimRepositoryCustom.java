@@ -0,0 +1,13 @@
+package com.reviewsystem.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+public interface WorkClaimRepositoryCustom {
+
+    /**
+     * Inserts a new CLAIMED row; returns 0 when the key is already claimed. Any other
+     * failure is thrown.
+     */
+    @Transactional
+    int insertClaim(byte[] keyHash, String claimKey, String owner, int leaseSeconds);
+}
@@ -0,0 +1,26 @@
+package com.reviewsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * The claim insert runs through JDBC rather than the EntityManager: a duplicate key is the
+ * expected outcome of losing a claim race, and through JPA it would mark the caller's
+ * transaction rollback-only.
+ */
+@RequiredArgsConstructor
+public class WorkClaimRepositoryImpl implements WorkClaimRepositoryCustom {
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int insertClaim(byte[] keyHash, String claimKey, String owner, int leaseSeconds) {
+        try {
+            return jdbcTemplate.update("INSERT INTO work_claim (key_hash, claim_key, owner_node, status, attempts, claimed_at, heartbeat_at, expires_at, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, 'CLAIMED', 1, NOW(), NOW(), TIMESTAMPADD(SECOND, ?, NOW()), NOW(), NOW())",
+                    keyHash, claimKey, owner, leaseSeconds);
+        } catch (DuplicateKeyException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.config.JLImportBatchConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tunes the import batch size towards a target flush latency and payload size.
+ * Shared by all file workers: every flush reports its row count, payload bytes, the
+ * time its statements took and the lock conflicts it retried, and the next batch uses
+ * the adjusted size. Growth is gradual (at most doubling per flush), shrinking is
+ * immediate, and repeated failures drop the writer to per-row mode until batches start
+ * succeeding again. A flush that had to retry a lock conflict does not grow the size:
+ * contention, not statement latency, limited it.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdaptiveBatchSizer {
+    private static final Logger logger = LogManager.getLogger(AdaptiveBatchSizer.class);
+
+    private final JLImportBatchConfig batchConfig;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${jlimport.batch-size:50}")
+    private int initialBatchSize;
+
+    private int currentSize;
+    private int consecutiveFailures;
+    private Timer flushTimer;
+    private Counter lockRetries;
+
+    @PostConstruct
+    void init() {
+        currentSize = clamp(initialBatchSize);
+        Gauge.builder("jlimport.batch.size", this, AdaptiveBatchSizer::currentSize)
+                .description("Current number of reviews per import batch")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("jlimport.batch.flush")
+                .description("Time the statements of one import batch took, without lock retries and their backoff")
+                .register(meterRegistry);
+        lockRetries = Counter.builder("jlimport.batch.lock.retries")
+                .description("Lock conflicts retried while flushing import batches")
+                .register(meterRegistry);
+        logger.info("Batch sizing initialised: size={}, adaptive={}, bounds=[{}, {}], targetFlushMillis={}, targetPayloadBytes={}",
+                currentSize, batchConfig.isEnabled(), batchConfig.getMinSize(), batchConfig.getMaxSize(),
+                batchConfig.getTargetFlushMillis(), batchConfig.getTargetPayloadBytes());
+    }
+
+    public synchronized int currentSize() {
+        return currentSize;
+    }
+
+    public long targetPayloadBytes() {
+        return batchConfig.isEnabled() ? batchConfig.getTargetPayloadBytes() : Long.MAX_VALUE;
+    }
+
+    public synchronized void recordSuccess(int rows, long payloadBytes, long elapsedNanos, int lockRetryCount) {
+        flushTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        lockRetries.increment(lockRetryCount);
+        consecutiveFailures = 0;
+        if (!batchConfig.isEnabled() || rows <= 0) {
+            return;
+        }
+        double nanosPerRow = Math.max(1d, (double) elapsedNanos / rows);
+        double bytesPerRow = Math.max(1d, (double) payloadBytes / rows);
+        long byLatency = (long) (TimeUnit.MILLISECONDS.toNanos(batchConfig.getTargetFlushMillis()) / nanosPerRow);
+        long byPayload = (long) (batchConfig.getTargetPayloadBytes() / bytesPerRow);
+        int ideal = clamp(Math.min(byLatency, byPayload));
+        int previous = currentSize;
+        if (ideal > currentSize && lockRetryCount == 0) {
+            // Grow halfway towards the ideal, never more than doubling in one step
+            currentSize = clamp(Math.min((long) currentSize * 2, currentSize + Math.max(1, (ideal - currentSize) / 2)));
+        } else if (ideal < currentSize) {
+            currentSize = ideal;
+        }
+        if (currentSize != previous) {
+            logger.debug("Batch size adjusted {} -> {} ({} rows in {} ms, {} bytes)",
+                    previous, currentSize, rows, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), payloadBytes);
+        }
+    }
+
+    public synchronized void recordFailure(int rows) {
+        consecutiveFailures++;
+        if (!batchConfig.isEnabled()) {
+            return;
+        }
+        int previous = currentSize;
+        if (consecutiveFailures >= batchConfig.getFailuresBeforePerRow()) {
+            currentSize = batchConfig.getMinSize();
+        } else {
+            currentSize = clamp(Math.min(currentSize, rows) / 2);
+        }
+        logger.warn("Batch of {} rows failed ({} in a row), batch size {} -> {}",
+                rows, consecutiveFailures, previous, currentSize);
+    }
+
+    private int clamp(long size) {
+        if (!batchConfig.isEnabled()) {
+            return (int) Math.max(1, size);
+        }
+        return (int) Math.max(batchConfig.getMinSize(), Math.min(batchConfig.getMaxSize(), size));
+    }
+}
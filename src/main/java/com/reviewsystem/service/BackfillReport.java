@@ -0,0 +1,124 @@
+package com.reviewsystem.service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress of one backfill run: work units (file or object byte ranges) done, skipped
+ * because an earlier attempt of the run already claimed them, or failed, and the rows
+ * rewritten so far. Updated concurrently by the backfill threads.
+ */
+public class BackfillReport {
+    private final String runId;
+    private volatile int units;
+    private final LongAdder unitsDone = new LongAdder();
+    private final LongAdder unitsSkipped = new LongAdder();
+    private final LongAdder unitsFailed = new LongAdder();
+    private final LongAdder lines = new LongAdder();
+    private final LongAdder reviews = new LongAdder();
+    private final LongAdder missingReviews = new LongAdder();
+    private final LongAdder grades = new LongAdder();
+    private final LongAdder overallByProviders = new LongAdder();
+    private final Map<String, LongAdder> rejectedByReason = new ConcurrentHashMap<>();
+    private volatile long elapsedMillis;
+
+    public BackfillReport(String runId) {
+        this.runId = runId;
+    }
+
+    void setUnits(int units) {
+        this.units = units;
+    }
+
+    void recordUnitDone() {
+        unitsDone.increment();
+    }
+
+    void recordUnitSkipped() {
+        unitsSkipped.increment();
+    }
+
+    void recordUnitFailed() {
+        unitsFailed.increment();
+    }
+
+    void recordLine() {
+        lines.increment();
+    }
+
+    void recordRejected(String reason) {
+        rejectedByReason.computeIfAbsent(reason, r -> new LongAdder()).increment();
+    }
+
+    void recordWritten(int reviewCount, int missingCount, int gradeCount, int obpCount) {
+        reviews.add(reviewCount);
+        missingReviews.add(missingCount);
+        grades.add(gradeCount);
+        overallByProviders.add(obpCount);
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public int getUnits() {
+        return units;
+    }
+
+    public long getUnitsDone() {
+        return unitsDone.sum();
+    }
+
+    public long getUnitsSkipped() {
+        return unitsSkipped.sum();
+    }
+
+    public long getUnitsFailed() {
+        return unitsFailed.sum();
+    }
+
+    public long getLines() {
+        return lines.sum();
+    }
+
+    public long getReviews() {
+        return reviews.sum();
+    }
+
+    public long getMissingReviews() {
+        return missingReviews.sum();
+    }
+
+    public long getGrades() {
+        return grades.sum();
+    }
+
+    public long getOverallByProviders() {
+        return overallByProviders.sum();
+    }
+
+    public Map<String, Long> getRejectedByReason() {
+        Map<String, Long> result = new TreeMap<>();
+        rejectedByReason.forEach((reason, count) -> result.put(reason, count.sum()));
+        return result;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "run=" + runId + ", units=" + (getUnitsDone() + getUnitsSkipped() + getUnitsFailed()) + "/" + units
+                + " (done=" + getUnitsDone() + ", skipped=" + getUnitsSkipped() + ", failed=" + getUnitsFailed() + ")"
+                + ", lines=" + getLines() + ", reviews=" + getReviews() + ", missingReviews=" + getMissingReviews()
+                + ", grades=" + getGrades() + ", overallByProviders=" + getOverallByProviders()
+                + ", rejected=" + getRejectedByReason() + ", elapsedMillis=" + elapsedMillis;
+    }
+}
@@ -0,0 +1,365 @@
+package com.reviewsystem.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewsystem.config.JLImportBackfillConfig;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Replays already imported JL files ({@code _processed.jl} files in local folders or
+ * under an S3 prefix) to rebuild derived tables without touching the review rows.
+ * Files are cut into byte ranges that run in parallel; each range is a work claim
+ * scoped to the run id, so a run that is stopped or crashes resumes with the ranges it
+ * had not finished. For every chunk of reviews that exist in the database, the selected
+ * derived rows are deleted and reinserted in one transaction, so replaying a range
+ * twice leaves the same rows. Rating rollups are rebuilt once every range is done.
+ */
+@Service
+@RequiredArgsConstructor
+public class BackfillService {
+    private static final Logger logger = LogManager.getLogger(BackfillService.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ReviewRecordMapper recordMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final WorkClaimService workClaimService;
+    private final EntityVersionService entityVersionService;
+    private final RatingRollupService ratingRollupService;
+    private final LeaderboardService leaderboardService;
+    private final S3ClientProvider s3ClientProvider;
+    private final JLImportBackfillConfig backfillConfig;
+
+    public enum Target {
+        GRADES, OBP, ROLLUPS
+    }
+
+    /**
+     * Backfills the given targets from the given sources: processed files, folders (their
+     * {@code _processed.jl} files) or {@code s3://bucket/prefix}. Runs with the same
+     * {@code runId} skip the ranges an earlier attempt already finished and retry the ones it failed.
+     */
+    public BackfillReport backfill(List<String> sources, Set<Target> targets, String runId) throws IOException {
+        Run run = new Run(runId, targets);
+        try {
+            List<Unit> units = new ArrayList<>();
+            if (run.rewritesRows()) {
+                for (String source : sources) {
+                    units.addAll(source.startsWith("s3://") ? s3Units(source, runId) : localUnits(Path.of(source), runId));
+                }
+            }
+            run.report.setUnits(units.size());
+            logger.info("Backfill run {} of {}: {} ranges from {}. Rerun with --backfill-run={} to resume.",
+                    runId, targets, units.size(), sources, runId);
+            List<Future<?>> futures = new ArrayList<>(units.size());
+            for (Unit unit : units) {
+                futures.add(run.pool.submit(() -> backfillUnit(unit, run)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Backfill run " + runId + " interrupted", e);
+                } catch (ExecutionException e) {
+                    logger.error("Backfill task of run {} failed: {}", runId, e.getCause().getMessage());
+                }
+            }
+            if (targets.contains(Target.ROLLUPS)) {
+                // Once per run, and only when every range is done; resuming the run retries failed ranges and gets here again
+                List<String> unitKeys = units.stream().map(Unit::claimKey).toList();
+                workClaimService.finalizeWhenDone(unitKeys, "backfill:" + runId + "@rollups", true, () -> {
+                    ratingRollupService.rebuild();
+                    leaderboardService.reload();
+                });
+            } else if (targets.contains(Target.GRADES)) {
+                logger.warn("Backfill run {} rewrote grades without rebuilding rollups; run --rebuild-rating-rollups to update trends", runId);
+            }
+        } finally {
+            run.pool.shutdownNow();
+        }
+        run.report.setElapsedMillis(run.elapsedMillis());
+        logger.info("Backfill finished: {}", run.report);
+        return run.report;
+    }
+
+    /**
+     * One byte range of a processed file or S3 object.
+     */
+    record Unit(String claimKey, String name, ByteRange range, RangeOpener opener) {}
+
+    interface RangeOpener {
+        InputStream open(long from) throws IOException;
+    }
+
+    private List<Unit> localUnits(Path path, String runId) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> children = Files.list(path)) {
+                children.filter(p -> p.getFileName().toString().endsWith("_processed.jl")).sorted().forEach(files::add);
+            }
+        } else {
+            files.add(path);
+        }
+        List<Unit> units = new ArrayList<>();
+        for (Path file : files) {
+            Path absolute = file.toAbsolutePath();
+            String baseKey = "backfill:" + runId + ":file://" + absolute + "#" + Files.size(file) + "-" + Files.getLastModifiedTime(file).toMillis();
+            RangeOpener opener = from -> {
+                FileChannel channel = FileChannel.open(absolute, StandardOpenOption.READ);
+                channel.position(from);
+                return Channels.newInputStream(channel);
+            };
+            for (ByteRange range : ByteRange.split(Files.size(file), backfillConfig.getRangeBytes())) {
+                units.add(new Unit(baseKey + range.suffix(), absolute + range.suffix(), range, opener));
+            }
+        }
+        return units;
+    }
+
+    private List<Unit> s3Units(String source, String runId) {
+        String location = source.substring("s3://".length());
+        int slash = location.indexOf('/');
+        String bucket = slash < 0 ? location : location.substring(0, slash);
+        String prefix = slash < 0 ? "" : location.substring(slash + 1);
+        S3Client s3 = s3ClientProvider.get();
+        List<Unit> units = new ArrayList<>();
+        ListObjectsV2Request listReq = ListObjectsV2Request.builder().bucket(bucket).prefix(prefix).build();
+        for (S3Object obj : s3.listObjectsV2Paginator(listReq).contents()) {
+            if (!obj.key().endsWith("_processed.jl")) continue;
+            String baseKey = "backfill:" + runId + ":" + ReviewImportService.s3ClaimKey(bucket, obj);
+            RangeOpener opener = from -> {
+                GetObjectRequest getReq = GetObjectRequest.builder().bucket(bucket).key(obj.key()).ifMatch(obj.eTag())
+                        .range("bytes=" + from + "-").build();
+                ResponseInputStream<GetObjectResponse> s3is = s3.getObject(getReq);
+                return new FilterInputStream(s3is) {
+                    @Override
+                    public void close() throws IOException {
+                        // Stop the transfer instead of draining the rest of the object
+                        s3is.abort();
+                        super.close();
+                    }
+                };
+            };
+            for (ByteRange range : ByteRange.split(obj.size(), backfillConfig.getRangeBytes())) {
+                units.add(new Unit(baseKey + range.suffix(), "s3://" + bucket + "/" + obj.key() + range.suffix(), range, opener));
+            }
+        }
+        return units;
+    }
+
+    private void backfillUnit(Unit unit, Run run) {
+        // Ranges are rewritten idempotently, so a range that failed in an earlier attempt of the run is simply redone
+        if (!workClaimService.tryClaimOrRetry(unit.claimKey())) {
+            run.report.recordUnitSkipped();
+            return;
+        }
+        try (InputStream in = unit.opener().open(unit.range().start() == 0 ? 0 : unit.range().start() - 1)) {
+            backfillLines(new RangeLineReader(in, unit.range()), run);
+            workClaimService.complete(unit.claimKey());
+            run.report.recordUnitDone();
+        } catch (Exception e) {
+            logger.error("Backfill of {} failed: {}", unit.name(), e.getMessage());
+            workClaimService.fail(unit.claimKey());
+            run.report.recordUnitFailed();
+        }
+        logger.info("Backfill progress: {}", run.report);
+    }
+
+    private record ObpRow(long providerId, String providerName, double overallScore, int reviewCount) {}
+
+    private record GradeRow(String category, double score) {}
+
+    /**
+     * Derived rows of one review, as the import maps them.
+     */
+    private record Derived(long reviewId, List<ObpRow> obps, List<GradeRow> grades) {}
+
+    void backfillLines(LineSource source, Run run) throws IOException, InterruptedException {
+        int chunkReviews = Math.max(1, backfillConfig.getChunkReviews());
+        // Keyed by review id: a review listed twice in one chunk is written once, from its last line
+        Map<Long, Derived> chunk = new LinkedHashMap<>();
+        String line;
+        while ((line = source.readLine()) != null) {
+            run.report.recordLine();
+            Derived derived = parse(line, run.report);
+            if (derived == null) continue;
+            chunk.put(derived.reviewId(), derived);
+            if (chunk.size() >= chunkReviews) {
+                writeChunk(chunk, run);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, run);
+        }
+    }
+
+    private Derived parse(String line, BackfillReport report) {
+        try {
+            ReviewRecordMapper.Record record = recordMapper.read(objectMapper.readTree(line));
+            if (recordMapper.missingRequiredFields(record) != null) {
+                report.recordRejected("missing_required_fields");
+                return null;
+            }
+            List<ObpRow> obps = new ArrayList<>();
+            List<GradeRow> grades = new ArrayList<>();
+            JsonNode overallByProviders = recordMapper.overallByProviders(record);
+            if (overallByProviders != null) {
+                for (JsonNode overall : overallByProviders) {
+                    obps.add(new ObpRow(overall.get("providerId").asLong(), overall.get("provider").asText(),
+                            overall.get("overallScore").asDouble(), overall.get("reviewCount").asInt()));
+                    if (overall.has("grades")) {
+                        Iterator<Map.Entry<String, JsonNode>> fields = overall.get("grades").fields();
+                        while (fields.hasNext()) {
+                            Map.Entry<String, JsonNode> field = fields.next();
+                            grades.add(new GradeRow(recordMapper.canonical(field.getKey()), field.getValue().asDouble()));
+                        }
+                    }
+                }
+            }
+            return new Derived(recordMapper.reviewId(record), obps, grades);
+        } catch (JsonProcessingException e) {
+            report.recordRejected("malformed_json");
+        } catch (Exception e) {
+            report.recordRejected("processing_error");
+        }
+        return null;
+    }
+
+    private void writeChunk(Map<Long, Derived> chunk, Run run) throws InterruptedException {
+        run.limiter.acquire(chunk.size());
+        // Only reviews that were imported get derived rows; the review rows themselves are never written
+        Map<Long, Long[]> existing = new TreeMap<>();
+        jdbcTemplate.query("SELECT id, hotel_id, reviewer_id FROM review WHERE id IN (" + placeholders(chunk.size()) + ")",
+                rs -> {
+                    existing.put(rs.getLong(1), new Long[]{rs.getObject(2, Long.class), rs.getObject(3, Long.class)});
+                }, chunk.keySet().toArray());
+        if (existing.isEmpty()) {
+            run.report.recordWritten(0, chunk.size(), 0, 0);
+            return;
+        }
+        Object[] ids = existing.keySet().toArray();
+        String in = placeholders(ids.length);
+        List<Object[]> gradeRows = new ArrayList<>();
+        List<Object[]> obpRows = new ArrayList<>();
+        Map<Long, String> providers = new TreeMap<>();
+        for (Long reviewId : existing.keySet()) {
+            Derived derived = chunk.get(reviewId);
+            for (GradeRow grade : derived.grades()) gradeRows.add(new Object[]{reviewId, grade.category(), grade.score()});
+            for (ObpRow obp : derived.obps()) {
+                obpRows.add(new Object[]{reviewId, obp.providerId(), obp.overallScore(), obp.reviewCount()});
+                providers.putIfAbsent(obp.providerId(), obp.providerName());
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (run.targets.contains(Target.GRADES)) {
+                jdbcTemplate.update("DELETE FROM review_grades WHERE review_id IN (" + in + ")", ids);
+                if (!gradeRows.isEmpty()) {
+                    jdbcTemplate.batchUpdate("INSERT INTO review_grades (review_id, category, score) VALUES (?, ?, ?)", gradeRows);
+                }
+            }
+            if (run.targets.contains(Target.OBP)) {
+                if (!providers.isEmpty()) {
+                    List<Object[]> providerRows = new ArrayList<>(providers.size());
+                    providers.forEach((id, name) -> providerRows.add(new Object[]{id, name}));
+                    jdbcTemplate.batchUpdate("INSERT IGNORE INTO provider (id, name) VALUES (?, ?)", providerRows);
+                }
+                jdbcTemplate.update("DELETE FROM overall_by_provider WHERE review_id IN (" + in + ")", ids);
+                if (!obpRows.isEmpty()) {
+                    jdbcTemplate.batchUpdate("INSERT INTO overall_by_provider (review_id, provider_id, overall_score, review_count) "
+                            + "VALUES (?, ?, ?, ?)", obpRows);
+                }
+            }
+        });
+        run.report.recordWritten(existing.size(), chunk.size() - existing.size(),
+                run.targets.contains(Target.GRADES) ? gradeRows.size() : 0,
+                run.targets.contains(Target.OBP) ? obpRows.size() : 0);
+        List<Long> hotelIds = new ArrayList<>();
+        List<Long> reviewerIds = new ArrayList<>();
+        for (Long[] owners : existing.values()) {
+            if (owners[0] != null) hotelIds.add(owners[0]);
+            if (owners[1] != null) reviewerIds.add(owners[1]);
+        }
+        try {
+            entityVersionService.bump(hotelIds, reviewerIds);
+        } catch (Exception e) {
+            logger.error("Failed to bump entity versions after backfilling {} reviews: {}", existing.size(), e.getMessage());
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * State shared by every range of one backfill run.
+     */
+    final class Run {
+        final Set<Target> targets;
+        final BackfillReport report;
+        final RateLimiter limiter = new RateLimiter(backfillConfig.getMaxReviewsPerSecond());
+        final int threads = backfillConfig.effectiveThreads();
+        final ExecutorService pool = Executors.newFixedThreadPool(threads, namedThreads());
+        private final long start = System.nanoTime();
+
+        Run(String runId, Set<Target> targets) {
+            this.targets = targets.isEmpty() ? EnumSet.noneOf(Target.class) : EnumSet.copyOf(targets);
+            this.report = new BackfillReport(runId);
+        }
+
+        boolean rewritesRows() {
+            return targets.contains(Target.GRADES) || targets.contains(Target.OBP);
+        }
+
+        long elapsedMillis() {
+            return (System.nanoTime() - start) / 1_000_000;
+        }
+    }
+
+    private static ThreadFactory namedThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "backfill-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package com.reviewsystem.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A slice [start, end) of a JL file. A range owns every line whose first byte lies
+ * inside it, so neighbouring ranges never share or lose a line.
+ */
+record ByteRange(int index, int total, long start, long end) {
+
+    static List<ByteRange> split(long size, long rangeBytes) {
+        int total = (int) Math.max(1, (size + rangeBytes - 1) / rangeBytes);
+        List<ByteRange> ranges = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            long start = i * rangeBytes;
+            ranges.add(new ByteRange(i, total, start, Math.min(size, start + rangeBytes)));
+        }
+        return ranges;
+    }
+
+    String suffix() {
+        return "@" + start + "-" + end;
+    }
+
+    /**
+     * Name for this range's rejected lines, e.g. {@code name_part003_rejected.jl}.
+     */
+    String rejectedName(String name) {
+        return DeadLetterWriter.rejectedName(name).replaceFirst("_rejected\\.jl$", String.format("_part%03d_rejected.jl", index));
+    }
+}
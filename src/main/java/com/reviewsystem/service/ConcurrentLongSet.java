@@ -0,0 +1,85 @@
+package com.reviewsystem.service;
+
+/**
+ * Compact set of long ids for concurrent writers: lock-striped open-addressing tables
+ * of primitive longs, about 16 bytes per id instead of ~80 for a boxed concurrent set,
+ * so tens of millions of review ids fit comfortably in a dry run.
+ */
+final class ConcurrentLongSet {
+    private static final int STRIPES = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    ConcurrentLongSet() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+    }
+
+    /**
+     * Adds the id and returns true, or returns false when it was already present.
+     */
+    boolean add(long id) {
+        long hash = mix(id);
+        Stripe stripe = stripes[(int) (hash >>> 58)];
+        synchronized (stripe) {
+            return stripe.add(id, hash);
+        }
+    }
+
+    long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size + (stripe.hasZero ? 1 : 0);
+            }
+        }
+        return size;
+    }
+
+    // Murmur3 finalizer, spreads sequential ids over stripes and slots
+    private static long mix(long id) {
+        long h = id;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Stripe {
+        // 0 marks an empty slot; the id 0 itself is tracked by hasZero
+        private long[] table = new long[64];
+        private int size;
+        private boolean hasZero;
+
+        boolean add(long id, long hash) {
+            if (id == 0) {
+                boolean added = !hasZero;
+                hasZero = true;
+                return added;
+            }
+            if (!insert(table, id, hash)) return false;
+            if (++size * 2 > table.length) resize();
+            return true;
+        }
+
+        private static boolean insert(long[] table, long id, long hash) {
+            int mask = table.length - 1;
+            int slot = (int) hash & mask;
+            while (table[slot] != 0) {
+                if (table[slot] == id) return false;
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id;
+            return true;
+        }
+
+        private void resize() {
+            long[] grown = new long[table.length * 2];
+            for (long id : table) {
+                if (id != 0) insert(grown, id, mix(id));
+            }
+            table = grown;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.reviewsystem.service;
+
+import java.io.BufferedWriter;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Per-source handle for rejected lines. Rejections are counted in the source's
+ * {@link ImportSummary} and, when dead-lettering is enabled, queued to the
+ * {@link DeadLetterWriter} which appends them to {@link #getTarget()}.
+ */
+public class DeadLetterSink implements AutoCloseable {
+    private final DeadLetterWriter writer;
+    private final Path target;
+    private final ImportSummary summary;
+    final CompletableFuture<Void> closed = new CompletableFuture<>();
+    // Only touched by the dead-letter writer thread
+    BufferedWriter out;
+    long written;
+
+    DeadLetterSink(DeadLetterWriter writer, Path target, ImportSummary summary) {
+        this.writer = writer;
+        this.target = target;
+        this.summary = summary;
+    }
+
+    public void reject(int lineNumber, String rawLine, String reason, String detail) {
+        summary.recordRejected(reason);
+        if (target != null) {
+            writer.enqueue(this, lineNumber, rawLine, reason, detail);
+        }
+    }
+
+    public Path getTarget() {
+        return target;
+    }
+
+    public ImportSummary getSummary() {
+        return summary;
+    }
+
+    /**
+     * Waits until every queued rejection of this sink is on disk.
+     */
+    @Override
+    public void close() {
+        if (target != null) {
+            writer.closeSink(this);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.reviewsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.reviewsystem.config.JLImportDeadLetterConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Asynchronous, batched writer for rejected JL lines. Import threads only enqueue;
+ * a single background thread drains the queue in batches and appends one JSON
+ * record per rejected line ({@code source, line, reason, detail, raw}) to the
+ * sink's {@code *_rejected.jl} file, so the raw lines can be fixed and replayed.
+ */
+@Component
+@RequiredArgsConstructor
+public class DeadLetterWriter {
+    private static final Logger logger = LogManager.getLogger(DeadLetterWriter.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final long CLOSE_TIMEOUT_SECONDS = 60;
+
+    private final JLImportDeadLetterConfig deadLetterConfig;
+
+    private BlockingQueue<Entry> queue;
+    private Thread worker;
+    private volatile boolean running;
+
+    private record Entry(DeadLetterSink sink, String record) {}
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(Math.max(1, deadLetterConfig.getQueueCapacity()));
+        running = true;
+        worker = new Thread(this::drainLoop, "dead-letter-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(CLOSE_TIMEOUT_SECONDS));
+    }
+
+    /**
+     * Opens a sink for one source. The file is only created once the first line is rejected.
+     * With dead-lettering disabled, the sink only counts rejections.
+     */
+    public DeadLetterSink open(Path rejectedFile, ImportSummary summary) {
+        return new DeadLetterSink(this, deadLetterConfig.isEnabled() ? rejectedFile : null, summary);
+    }
+
+    /**
+     * Sibling name for rejected lines: {@code name.jl}, {@code name_processed.jl} and
+     * {@code name_processed.jl.processing} all map to {@code name_rejected.jl}.
+     */
+    public static String rejectedName(String name) {
+        return name.replaceFirst("(_processed)?\\.jl(\\.processing)?$", "") + "_rejected.jl";
+    }
+
+    void enqueue(DeadLetterSink sink, int lineNumber, String rawLine, String reason, String detail) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("source", sink.getSummary().getSource());
+        node.put("line", lineNumber);
+        node.put("reason", reason);
+        node.put("detail", detail);
+        node.put("raw", rawLine);
+        put(new Entry(sink, node.toString()));
+    }
+
+    void closeSink(DeadLetterSink sink) {
+        put(new Entry(sink, null));
+        try {
+            sink.closed.get(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            logger.error("Timed out flushing rejected lines to {}", sink.getTarget());
+        } catch (Exception e) {
+            logger.error("Failed to flush rejected lines to {}: {}", sink.getTarget(), e.getMessage());
+        }
+    }
+
+    private void put(Entry entry) {
+        try {
+            // Blocks when the writer falls behind, throttling the import threads
+            queue.put(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        List<Entry> drained = new ArrayList<>(deadLetterConfig.getFlushBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                drained.add(first);
+                queue.drainTo(drained, deadLetterConfig.getFlushBatchSize() - 1);
+                writeBatch(drained);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                drained.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<Entry> entries) {
+        Set<DeadLetterSink> touched = new LinkedHashSet<>();
+        for (Entry entry : entries) {
+            DeadLetterSink sink = entry.sink();
+            if (entry.record() == null) {
+                flushQuietly(sink);
+                closeQuietly(sink);
+                touched.remove(sink);
+                continue;
+            }
+            try {
+                if (sink.out == null) {
+                    sink.out = Files.newBufferedWriter(sink.getTarget(), StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+                sink.out.write(entry.record());
+                sink.out.newLine();
+                sink.written++;
+                touched.add(sink);
+            } catch (IOException e) {
+                logger.error("Failed to write rejected line to {}: {}", sink.getTarget(), e.getMessage());
+            }
+        }
+        for (DeadLetterSink sink : touched) {
+            flushQuietly(sink);
+        }
+    }
+
+    private void flushQuietly(DeadLetterSink sink) {
+        if (sink.out == null) return;
+        try {
+            sink.out.flush();
+        } catch (IOException e) {
+            logger.error("Failed to flush rejected lines to {}: {}", sink.getTarget(), e.getMessage());
+        }
+    }
+
+    private void closeQuietly(DeadLetterSink sink) {
+        try {
+            if (sink.out != null) {
+                sink.out.close();
+                logger.info("Wrote {} rejected lines to {}", sink.written, sink.getTarget());
+            }
+        } catch (IOException e) {
+            logger.error("Failed to close rejected file {}: {}", sink.getTarget(), e.getMessage());
+        } finally {
+            sink.out = null;
+            sink.closed.complete(null);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.reviewsystem.service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of validating one source without importing it: how many lines the import
+ * would accept or reject and why, plus duplicate review ids, unparseable review dates
+ * and providers not yet in the database. Updated concurrently by the validation threads.
+ */
+public class DryRunReport {
+    private final String source;
+    private final LongAdder lines = new LongAdder();
+    private final LongAdder valid = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder badDates = new LongAdder();
+    private final Map<String, LongAdder> rejectedByReason = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> missingFields = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> unknownProviders = new ConcurrentHashMap<>();
+    private volatile long bytes;
+    private volatile long elapsedMillis;
+
+    public DryRunReport(String source) {
+        this.source = source;
+    }
+
+    void recordLine() {
+        lines.increment();
+    }
+
+    void recordValid() {
+        valid.increment();
+    }
+
+    void recordDuplicate() {
+        duplicates.increment();
+    }
+
+    void recordBadDate() {
+        badDates.increment();
+    }
+
+    void recordRejected(String reason) {
+        rejectedByReason.computeIfAbsent(reason, r -> new LongAdder()).increment();
+    }
+
+    /**
+     * Counts a missing_required_fields rejection and each field it named,
+     * in the {@code "a, comment.b, "} format of {@link ReviewRecordMapper#missingRequiredFields}.
+     */
+    void recordMissingFields(String missing) {
+        recordRejected("missing_required_fields");
+        for (String field : missing.split(", ")) {
+            if (!field.isBlank()) missingFields.computeIfAbsent(field.trim(), f -> new LongAdder()).increment();
+        }
+    }
+
+    void recordUnknownProvider(long providerId) {
+        unknownProviders.computeIfAbsent(providerId, id -> new LongAdder()).increment();
+    }
+
+    void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public long getLines() {
+        return lines.sum();
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getValid() {
+        return valid.sum();
+    }
+
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+    public long getBadDates() {
+        return badDates.sum();
+    }
+
+    public long getRejected() {
+        return rejectedByReason.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public Map<String, Long> getRejectedByReason() {
+        return sums(rejectedByReason);
+    }
+
+    public Map<String, Long> getMissingFields() {
+        return sums(missingFields);
+    }
+
+    public Map<Long, Long> getUnknownProviders() {
+        return sums(unknownProviders);
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    private static <K> Map<K, Long> sums(Map<K, LongAdder> counters) {
+        Map<K, Long> result = new TreeMap<>();
+        counters.forEach((key, count) -> result.put(key, count.sum()));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "source=" + source + ", lines=" + getLines() + ", valid=" + getValid() + ", duplicates=" + getDuplicates()
+                + ", badDates=" + getBadDates() + ", rejected=" + getRejected() + " " + getRejectedByReason()
+                + ", missingFields=" + getMissingFields() + ", unknownProviders=" + getUnknownProviders()
+                + ", elapsedMillis=" + elapsedMillis;
+    }
+}
@@ -0,0 +1,246 @@
+package com.reviewsystem.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewsystem.config.JLImportDryRunConfig;
+import com.reviewsystem.repository.ProviderRepository;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Validation-only import: runs the parse and validate stages of the import on every
+ * line and reports what would happen, without writing to the database.
+ * Files are cut into byte ranges and streams into line chunks, validated in parallel.
+ * Duplicate review ids are detected against an in-memory set shared by all sources of
+ * one run; providers are compared with the ids already in the provider table.
+ */
+@Service
+@RequiredArgsConstructor
+public class DryRunService {
+    private static final Logger logger = LogManager.getLogger(DryRunService.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ReviewRecordMapper recordMapper;
+    private final ProviderRepository providerRepository;
+    private final JLImportDryRunConfig dryRunConfig;
+
+    /**
+     * Validates the given files, and the import candidates inside the given folders,
+     * and returns one report per file.
+     */
+    public List<DryRunReport> validateFiles(List<Path> paths) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path path : paths) {
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> children = Files.list(path)) {
+                    children.filter(p -> ReviewImportService.isLocalImportCandidate(p.getFileName().toString()))
+                            .sorted()
+                            .forEach(files::add);
+                }
+            } else {
+                files.add(path);
+            }
+        }
+        Run run = new Run();
+        try {
+            List<DryRunReport> reports = new ArrayList<>();
+            List<List<Future<?>>> futures = new ArrayList<>();
+            for (Path file : files) {
+                DryRunReport report = new DryRunReport(file.toString());
+                report.setBytes(Files.size(file));
+                reports.add(report);
+                List<Future<?>> fileFutures = new ArrayList<>();
+                for (ByteRange range : ByteRange.split(report.getBytes(), dryRunConfig.getRangeBytes())) {
+                    fileFutures.add(run.pool.submit(() -> validateRange(file, range, report, run)));
+                }
+                futures.add(fileFutures);
+            }
+            for (int i = 0; i < reports.size(); i++) {
+                await(futures.get(i), reports.get(i));
+                reports.get(i).setElapsedMillis(run.elapsedMillis());
+                logger.info("Dry run finished: {}", reports.get(i));
+            }
+            return reports;
+        } finally {
+            run.pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Validates an NDJSON stream (e.g. an HTTP request body). Lines are read on the calling
+     * thread and validated in chunks on the run's threads; at most two chunks per thread are
+     * in flight, so the body is never buffered in full.
+     */
+    public DryRunReport validateStream(InputStream in, String sourceName) throws IOException {
+        DryRunReport report = new DryRunReport(sourceName);
+        Run run = new Run();
+        Semaphore inFlight = new Semaphore(run.threads * 2);
+        List<Future<?>> futures = new ArrayList<>();
+        long[] bytesRead = new long[1];
+        InputStream counting = new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) bytesRead[0]++;
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) bytesRead[0] += n;
+                return n;
+            }
+        };
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(counting, StandardCharsets.UTF_8))) {
+            int chunkLines = Math.max(1, dryRunConfig.getChunkLines());
+            List<String> chunk = new ArrayList<>(chunkLines);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                chunk.add(line);
+                if (chunk.size() >= chunkLines) {
+                    futures.add(submitChunk(chunk, report, run, inFlight));
+                    chunk = new ArrayList<>(chunkLines);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                futures.add(submitChunk(chunk, report, run, inFlight));
+            }
+            await(futures, report);
+        } finally {
+            run.pool.shutdownNow();
+        }
+        report.setBytes(bytesRead[0]);
+        report.setElapsedMillis(run.elapsedMillis());
+        logger.info("Dry run finished: {}", report);
+        return report;
+    }
+
+    private Future<?> submitChunk(List<String> lines, DryRunReport report, Run run, Semaphore inFlight) {
+        inFlight.acquireUninterruptibly();
+        return run.pool.submit(() -> {
+            try {
+                for (String line : lines) validateLine(line, report, run);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void validateRange(Path file, ByteRange range, DryRunReport report, Run run) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(range.start() == 0 ? 0 : range.start() - 1);
+            InputStream in = Channels.newInputStream(channel);
+            RangeLineReader reader = new RangeLineReader(in, range);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                validateLine(line, report, run);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Same checks, in the same order, as {@link ReviewImportService#importLines}, minus the writes.
+     */
+    void validateLine(String line, DryRunReport report, Run run) {
+        report.recordLine();
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            report.recordRejected("malformed_json");
+            return;
+        }
+        try {
+            ReviewRecordMapper.Record record = recordMapper.read(root);
+            String missing = recordMapper.missingRequiredFields(record);
+            if (missing != null) {
+                report.recordMissingFields(missing);
+                return;
+            }
+            long providerId = recordMapper.providerId(record);
+            if (!run.knownProviders.contains(providerId)) {
+                report.recordUnknownProvider(providerId);
+            }
+            if (!run.reviewIds.add(recordMapper.reviewId(record))) {
+                report.recordDuplicate();
+                return;
+            }
+            String reviewDate = recordMapper.reviewDate(record);
+            if (reviewDate != null && ReviewRecordMapper.tryParseDate(reviewDate) == null) {
+                // The import keeps the review with a null date, so this is counted but not rejected
+                report.recordBadDate();
+            }
+            report.recordValid();
+        } catch (Exception e) {
+            report.recordRejected("processing_error");
+        }
+    }
+
+    private static void await(List<Future<?>> futures, DryRunReport report) throws IOException {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Dry run of " + report.getSource() + " interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Dry run of " + report.getSource() + " failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+
+    /**
+     * State shared by every source of one dry run.
+     */
+    final class Run {
+        final Set<Long> knownProviders = new HashSet<>(providerRepository.findAllIds());
+        final ConcurrentLongSet reviewIds = new ConcurrentLongSet();
+        final int threads = dryRunConfig.getThreads() > 0 ? dryRunConfig.getThreads() : Runtime.getRuntime().availableProcessors();
+        final ExecutorService pool = Executors.newFixedThreadPool(threads, namedThreads());
+        private final long start = System.nanoTime();
+
+        long elapsedMillis() {
+            return (System.nanoTime() - start) / 1_000_000;
+        }
+    }
+
+    private static ThreadFactory namedThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "dry-run-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,118 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.model.Review;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Per-hotel and per-reviewer change counters kept in entity_version.
+ * The import bumps the counters of every hotel and reviewer a batch wrote reviews for,
+ * after the rows are written, and the API turns them into strong ETags so a poll
+ * for unchanged data is answered with 304 after one primary key lookup.
+ */
+@Service
+@RequiredArgsConstructor
+public class EntityVersionService {
+    public static final String HOTEL = "hotel";
+    public static final String REVIEWER = "reviewer";
+
+    private static final String BUMP = "INSERT INTO entity_version (entity_type, entity_id, version) VALUES (?, ?, 1) "
+            + "ON DUPLICATE KEY UPDATE version = version + 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Bumps the hotels and reviewers of the written reviews, once per entity.
+     */
+    public void recordWritten(Collection<Review> reviews) {
+        List<Long> hotelIds = new ArrayList<>();
+        List<Long> reviewerIds = new ArrayList<>();
+        for (Review review : reviews) {
+            if (review.getHotel() != null && review.getHotel().getId() != null) hotelIds.add(review.getHotel().getId());
+            if (review.getReviewer() != null && review.getReviewer().getId() != null) reviewerIds.add(review.getReviewer().getId());
+        }
+        bump(hotelIds, reviewerIds);
+    }
+
+    /**
+     * Bumps each of the given hotels and reviewers once.
+     */
+    public void bump(Collection<Long> hotels, Collection<Long> reviewers) {
+        TreeSet<Long> hotelIds = new TreeSet<>(hotels);
+        TreeSet<Long> reviewerIds = new TreeSet<>(reviewers);
+        // Sorted ids keep the row lock order the same across concurrent import threads
+        List<Object[]> args = new ArrayList<>(hotelIds.size() + reviewerIds.size());
+        for (Long id : hotelIds) args.add(new Object[]{HOTEL, id});
+        for (Long id : reviewerIds) args.add(new Object[]{REVIEWER, id});
+        if (!args.isEmpty()) jdbcTemplate.batchUpdate(BUMP, args);
+    }
+
+    /**
+     * Current version of the entity; 0 when nothing was imported for it yet.
+     */
+    @Transactional(readOnly = true)
+    public long version(String entityType, long entityId) {
+        try {
+            Long version = jdbcTemplate.queryForObject(
+                    "SELECT version FROM entity_version WHERE entity_type = ? AND entity_id = ?",
+                    Long.class, entityType, entityId);
+            return version == null ? 0 : version;
+        } catch (EmptyResultDataAccessException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * The entity's ETag and, unless {@code notModified} accepts it, the body, read in one
+     * read-only transaction. API reads may go to a replica; sharing the transaction keeps
+     * both reads on the same connection, so an ETag is never paired with a body from a
+     * replica that lags further behind than the one the version came from.
+     */
+    @Transactional(readOnly = true)
+    public <T> Versioned<T> readVersioned(String entityType, long entityId, Predicate<String> notModified, Supplier<T> body) {
+        return readVersioned(entityType, entityId, null, notModified, body);
+    }
+
+    /**
+     * Like {@link #readVersioned(String, long, Predicate, Supplier)} for a body that also
+     * depends on the request; {@code variant} names the normalized query and is part of the ETag.
+     */
+    @Transactional(readOnly = true)
+    public <T> Versioned<T> readVersioned(String entityType, long entityId, String variant,
+                                          Predicate<String> notModified, Supplier<T> body) {
+        String etag = etag(entityType, entityId, version(entityType, entityId), variant);
+        if (notModified.test(etag)) return new Versioned<>(etag, null, true);
+        return new Versioned<>(etag, body.get(), false);
+    }
+
+    public record Versioned<T>(String etag, T body, boolean notModified) {}
+
+    /**
+     * Strong ETag for the current version of the entity, e.g. {@code "hotel-42-v7"}.
+     */
+    public String etag(String entityType, long entityId) {
+        return etag(entityType, entityId, version(entityType, entityId));
+    }
+
+    static String etag(String entityType, long entityId, long version) {
+        return etag(entityType, entityId, version, null);
+    }
+
+    /**
+     * ETag of one variant of the entity, e.g. {@code "hotel-42-v7-month-2020-01-01-2024-12-31"}.
+     */
+    static String etag(String entityType, long entityId, long version, String variant) {
+        String tag = entityType + "-" + entityId + "-v" + version;
+        return "\"" + (variant == null ? tag : tag + "-" + variant) + "\"";
+    }
+}
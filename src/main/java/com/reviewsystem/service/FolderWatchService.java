@@ -0,0 +1,163 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.config.JLImportFolderConfig;
+import com.reviewsystem.config.JLImportWatchConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Event-driven ingestion for the local folder source. New or modified .jl files are
+ * tracked until their size and modification time stop changing for
+ * {@code jlimport.watch.stable-millis} (so half-written files are skipped), then handed
+ * straight to the {@link ImportExecutor}. The cron scan in {@link ReviewImportScheduler} keeps
+ * running as a reconciliation fallback for missed events.
+ */
+@Component
+@RequiredArgsConstructor
+public class FolderWatchService {
+    private static final Logger logger = LogManager.getLogger(FolderWatchService.class);
+
+    private final ReviewImportService reviewImportService;
+    private final JLImportFolderConfig folderConfig;
+    private final JLImportWatchConfig watchConfig;
+    private final ImportExecutor importExecutor;
+
+    @Value("${jlimport.source-aws:false}")
+    private boolean sourceAWS;
+
+    private final Map<Path, Observation> pending = new ConcurrentHashMap<>();
+    private WatchService watchService;
+    private Thread watchThread;
+    private ScheduledExecutorService stabilityChecker;
+
+    private record Observation(long size, long lastModified, long unchangedSince) {}
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!watchConfig.isEnabled() || sourceAWS) {
+            return;
+        }
+        Path folder = Paths.get(folderConfig.getFolderPath());
+        if (!Files.isDirectory(folder)) {
+            logger.error("Folder watch disabled: {} is not a directory.", folder);
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        stabilityChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "folder-watch-stability");
+            t.setDaemon(true);
+            return t;
+        });
+        stabilityChecker.scheduleWithFixedDelay(this::dispatchStableFiles,
+                watchConfig.getPollMillis(), watchConfig.getPollMillis(), TimeUnit.MILLISECONDS);
+        watchThread = new Thread(() -> watchLoop(folder), "folder-watch");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        // Files that arrived while the service was down
+        trackExisting(folder);
+        logger.info("Watching {} for new .jl files (stable after {} ms)", folder, watchConfig.getStableMillis());
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        if (watchService == null) return;
+        watchService.close();
+        stabilityChecker.shutdownNow();
+    }
+
+    private void watchLoop(Path folder) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        logger.warn("Watch events overflowed for {}, rescanning folder", folder);
+                        trackExisting(folder);
+                        continue;
+                    }
+                    Path name = (Path) event.context();
+                    if (ReviewImportService.isLocalImportCandidate(name.toString())) {
+                        track(folder.resolve(name));
+                    }
+                }
+                if (!key.reset()) {
+                    logger.error("Watch on {} is no longer valid; relying on scheduled scans", folder);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // shutting down
+        }
+    }
+
+    private void trackExisting(Path folder) {
+        try (Stream<Path> files = Files.list(folder)) {
+            files.filter(p -> ReviewImportService.isLocalImportCandidate(p.getFileName().toString())).forEach(this::track);
+        } catch (IOException e) {
+            logger.error("Failed to list {}: {}", folder, e.getMessage());
+        }
+    }
+
+    void track(Path file) {
+        // (Re)start the stability window whenever the file is touched
+        pending.put(file, new Observation(-1, -1, System.currentTimeMillis()));
+    }
+
+    void dispatchStableFiles() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Path, Observation>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Path, Observation> entry = it.next();
+            File file = entry.getKey().toFile();
+            if (!file.exists()) {
+                // Already picked up by a scan or renamed away
+                it.remove();
+                continue;
+            }
+            long size = file.length();
+            long lastModified = file.lastModified();
+            Observation seen = entry.getValue();
+            if (size != seen.size() || lastModified != seen.lastModified()) {
+                entry.setValue(new Observation(size, lastModified, now));
+            } else if (now - seen.unchangedSince() >= watchConfig.getStableMillis()) {
+                it.remove();
+                logger.info("Detected new file {} ({} bytes), importing", file.getAbsolutePath(), size);
+                boolean shed = false;
+                for (Runnable task : reviewImportService.localFileTasks(file)) {
+                    shed |= importExecutor.trySubmit(task).isEmpty();
+                }
+                if (shed) {
+                    // Try again after another quiet period; ranges already submitted are skipped by their claims
+                    track(entry.getKey());
+                }
+            }
+        }
+    }
+}
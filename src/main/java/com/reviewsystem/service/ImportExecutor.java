@@ -0,0 +1,82 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.config.JLImportBulkheadConfig;
+import com.reviewsystem.config.JLImportFolderConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The one worker pool for all import work (folder scans, S3 workers, the folder
+ * watcher), sized by {@code jlimport.concurrent-threads}. Tasks beyond the bounded
+ * queue are shed rather than queued without limit; the files they belong to stay in
+ * place and are picked up by the next scan.
+ */
+@Component
+@RequiredArgsConstructor
+public class ImportExecutor {
+    private static final Logger logger = LogManager.getLogger(ImportExecutor.class);
+
+    private final JLImportFolderConfig folderConfig;
+    private final JLImportBulkheadConfig bulkheadConfig;
+    private final MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+    private Timer queueWait;
+    private Counter shed;
+
+    @PostConstruct
+    void start() {
+        int threads = Math.max(1, folderConfig.getConcurrentThreads());
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, bulkheadConfig.getImportQueueCapacity())),
+                r -> new Thread(r, "import-worker-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        queueWait = Timer.builder("jlimport.import.queue.wait")
+                .description("Time import tasks wait for a worker")
+                .register(meterRegistry);
+        shed = Counter.builder("jlimport.import.shed")
+                .description("Import tasks rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("jlimport.import.queue.size", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("jlimport.import.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Queues the task, or returns empty when the import is saturated and the task was shed.
+     */
+    public Optional<Future<?>> trySubmit(Runnable task) {
+        long queuedAt = System.nanoTime();
+        try {
+            return Optional.of(executor.submit(() -> {
+                queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                task.run();
+            }));
+        } catch (RejectedExecutionException e) {
+            shed.increment();
+            logger.warn("Import queue full ({} waiting), task shed until the next scan", executor.getQueue().size());
+            return Optional.empty();
+        }
+    }
+}
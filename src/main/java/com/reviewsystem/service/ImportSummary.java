@@ -0,0 +1,89 @@
+package com.reviewsystem.service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated outcome of importing one source (file, S3 object or request body).
+ * Replaces per-line logging: counts are collected while importing and logged once.
+ */
+public class ImportSummary {
+    private final String source;
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder updated = new LongAdder();
+    private final Map<String, LongAdder> rejectedByReason = new ConcurrentHashMap<>();
+    private volatile String failure;
+
+    public ImportSummary(String source) {
+        this.source = source;
+    }
+
+    public void recordAccepted(int count) {
+        accepted.add(count);
+    }
+
+    public void recordDuplicate() {
+        duplicates.increment();
+    }
+
+    public void recordUpdated(int count) {
+        updated.add(count);
+    }
+
+    public void recordRejected(String reason) {
+        rejectedByReason.computeIfAbsent(reason, r -> new LongAdder()).increment();
+    }
+
+    /**
+     * Marks the source as not fully imported (a read error, or a chunk that could not be
+     * written). The first failure is kept; callers then fail the file or claim instead of
+     * marking it processed.
+     */
+    public void recordFailure(String failure) {
+        if (this.failure == null) this.failure = failure;
+    }
+
+    public boolean isComplete() {
+        return failure == null;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+    public long getUpdated() {
+        return updated.sum();
+    }
+
+    public long getRejected() {
+        return rejectedByReason.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public Map<String, Long> getRejectedByReason() {
+        Map<String, Long> result = new TreeMap<>();
+        rejectedByReason.forEach((reason, count) -> result.put(reason, count.sum()));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "source=" + source + ", accepted=" + getAccepted() + ", duplicates=" + getDuplicates()
+                + ", updated=" + getUpdated() + ", rejected=" + getRejected() + " " + getRejectedByReason()
+                + (failure == null ? "" : ", failed: " + failure);
+    }
+}
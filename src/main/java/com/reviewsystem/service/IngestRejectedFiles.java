@@ -0,0 +1,78 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.config.JLImportFolderConfig;
+import com.reviewsystem.config.JLImportIngestConfig;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Rejected lines of {@code /ingest} requests. Each request dead-letters to its own
+ * {@code http-<uuid>_rejected.jl} under {@code jlimport.temp-dir}; the response names the
+ * file so the client can download and fix the lines, and files older than
+ * {@code jlimport.ingest.rejected-retention-hours} are deleted.
+ */
+@Component
+@RequiredArgsConstructor
+public class IngestRejectedFiles {
+    private static final Logger logger = LogManager.getLogger(IngestRejectedFiles.class);
+    private static final String SUFFIX = "_rejected.jl";
+    private static final Pattern NAME = Pattern.compile("http-[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}" + Pattern.quote(SUFFIX));
+
+    private final JLImportFolderConfig folderConfig;
+    private final JLImportIngestConfig ingestConfig;
+
+    public static String newSourceName() {
+        return "http-" + UUID.randomUUID();
+    }
+
+    public Path pathFor(String sourceName) throws IOException {
+        return dir().resolve(sourceName + SUFFIX);
+    }
+
+    /**
+     * The rejected file of a request, if it exists. Only names this class hands out are
+     * resolved, so the download endpoint cannot read other files of the temp dir.
+     */
+    public Optional<Path> find(String fileName) throws IOException {
+        if (!NAME.matcher(fileName).matches()) {
+            return Optional.empty();
+        }
+        Path file = dir().resolve(fileName);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    @Scheduled(fixedDelayString = "${jlimport.ingest.rejected-purge-millis:3600000}")
+    public void purgeExpired() {
+        long cutoff = System.currentTimeMillis() - Duration.ofHours(ingestConfig.getRejectedRetentionHours()).toMillis();
+        int deleted = 0;
+        try (Stream<Path> files = Files.list(dir())) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (NAME.matcher(file.getFileName().toString()).matches()
+                        && Files.getLastModifiedTime(file).toMillis() < cutoff && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to purge rejected ingest files: {}", e.getMessage());
+        }
+        if (deleted > 0) {
+            logger.info("Deleted {} rejected ingest files older than {} hours", deleted, ingestConfig.getRejectedRetentionHours());
+        }
+    }
+
+    private Path dir() throws IOException {
+        return ReviewImportService.tempDir(folderConfig);
+    }
+}
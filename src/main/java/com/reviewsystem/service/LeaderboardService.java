@@ -0,0 +1,185 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.config.LeaderboardConfig;
+import com.reviewsystem.dto.LeaderboardEntryDTO;
+import com.reviewsystem.model.Review;
+import com.reviewsystem.model.ReviewGrades;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory hotel rankings per (provider, category), by average score. Category
+ * "rating" is the review's own rating, the others are review_grades categories, as in
+ * {@link RatingRollupService}.
+ * Each board is a skip list ordered by average, so a page read walks only the entries
+ * it returns and never touches the database. Boards are loaded from rating_rollup on a
+ * fixed delay (the first run right after startup) and updated in between from the
+ * batches this node writes; the reload also picks up what other nodes imported.
+ */
+@Service
+@RequiredArgsConstructor
+public class LeaderboardService {
+    private static final Logger logger = LogManager.getLogger(LeaderboardService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LeaderboardConfig leaderboardConfig;
+
+    private volatile Map<BoardKey, Board> boards = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    private record BoardKey(long providerId, String category) {}
+
+    record Standing(long hotelId, long reviewCount, double scoreSum) {
+        double average() {
+            return scoreSum / reviewCount;
+        }
+    }
+
+    private static final Comparator<Standing> RANKING = Comparator.comparingDouble(Standing::average).reversed()
+            .thenComparingLong(Standing::hotelId);
+
+    /**
+     * One ranking. Writers are serialized per board so a hotel's old standing is always
+     * removed before its new one is added; readers iterate the skip list without locking.
+     */
+    static final class Board {
+        private final Map<Long, Standing> byHotel = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListSet<Standing> ranking = new ConcurrentSkipListSet<>(RANKING);
+
+        synchronized void add(long hotelId, long reviewCount, double scoreSum, int minReviews) {
+            Standing old = byHotel.get(hotelId);
+            Standing updated = old == null ? new Standing(hotelId, reviewCount, scoreSum)
+                    : new Standing(hotelId, old.reviewCount() + reviewCount, old.scoreSum() + scoreSum);
+            if (old != null) ranking.remove(old);
+            if (updated.reviewCount() <= 0) {
+                byHotel.remove(hotelId);
+                return;
+            }
+            byHotel.put(hotelId, updated);
+            if (updated.reviewCount() >= minReviews) ranking.add(updated);
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Adds written reviews and grades to their boards. Entries without hotel, provider
+     * or score are skipped, matching the rollup.
+     */
+    public void recordWritten(Collection<Review> reviews, Collection<ReviewGrades> grades) {
+        if (!leaderboardConfig.isEnabled()) return;
+        // Sum per hotel first so each board takes its lock once per hotel and batch
+        Map<BoardKey, Map<Long, double[]>> deltas = new HashMap<>();
+        for (Review review : reviews) {
+            add(deltas, review, RatingRollupService.RATING_CATEGORY, review.getRating(), 1);
+        }
+        for (ReviewGrades grade : grades) {
+            add(deltas, grade.getReview(), grade.getCategory(), grade.getScore(), 1);
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Replaces updated reviews' stored ratings ({@code before}) with the new ones
+     * ({@code after}, index-aligned), and their stored grades with the written ones, on
+     * the boards. As in the rollup, a stored grade's review is its {@code before} entry.
+     */
+    public void recordChanged(List<Review> before, List<Review> after,
+                              Collection<ReviewGrades> gradesBefore, Collection<ReviewGrades> gradesAfter) {
+        if (!leaderboardConfig.isEnabled()) return;
+        Map<BoardKey, Map<Long, double[]>> deltas = new HashMap<>();
+        for (int i = 0; i < after.size(); i++) {
+            add(deltas, before.get(i), RatingRollupService.RATING_CATEGORY, before.get(i).getRating(), -1);
+            add(deltas, after.get(i), RatingRollupService.RATING_CATEGORY, after.get(i).getRating(), 1);
+        }
+        for (ReviewGrades grade : gradesBefore) {
+            add(deltas, grade.getReview(), grade.getCategory(), grade.getScore(), -1);
+        }
+        for (ReviewGrades grade : gradesAfter) {
+            add(deltas, grade.getReview(), grade.getCategory(), grade.getScore(), 1);
+        }
+        apply(deltas);
+    }
+
+    private void apply(Map<BoardKey, Map<Long, double[]>> deltas) {
+        Map<BoardKey, Board> current = boards;
+        int minReviews = leaderboardConfig.getMinReviews();
+        deltas.forEach((key, byHotel) -> {
+            Board board = current.computeIfAbsent(key, k -> new Board());
+            byHotel.forEach((hotelId, delta) -> {
+                if (delta[0] != 0 || delta[1] != 0) board.add(hotelId, (long) delta[0], delta[1], minReviews);
+            });
+        });
+    }
+
+    private static void add(Map<BoardKey, Map<Long, double[]>> deltas, Review review, String category, Double score, int sign) {
+        if (review == null || score == null || category == null || review.getReviewDate() == null
+                || review.getHotel() == null || review.getProvider() == null) {
+            return;
+        }
+        double[] delta = deltas.computeIfAbsent(new BoardKey(review.getProvider().getId(), category), k -> new HashMap<>())
+                .computeIfAbsent(review.getHotel().getId(), k -> new double[2]);
+        delta[0] += sign;
+        delta[1] += sign * score;
+    }
+
+    /**
+     * Entries {@code offset + 1} through {@code offset + limit} of the board, best first.
+     * Empty when the board does not exist.
+     */
+    public List<LeaderboardEntryDTO> page(long providerId, String category, int offset, int limit) {
+        Board board = boards.get(new BoardKey(providerId, category));
+        List<LeaderboardEntryDTO> page = new ArrayList<>(Math.min(limit, 1000));
+        if (board == null) return page;
+        Iterator<Standing> it = board.ranking.iterator();
+        for (int skipped = 0; skipped < offset && it.hasNext(); skipped++) it.next();
+        int rank = offset;
+        while (page.size() < limit && it.hasNext()) {
+            Standing s = it.next();
+            page.add(new LeaderboardEntryDTO(++rank, s.hotelId(), Math.round(s.average() * 100) / 100.0, s.reviewCount()));
+        }
+        return page;
+    }
+
+    /**
+     * Reloads every board from the monthly rollup rows and swaps them in. Increments
+     * applied between the query and the swap may be counted twice until the next reload.
+     */
+    @Scheduled(fixedDelayString = "${leaderboard.refresh-millis:300000}")
+    public void reload() {
+        if (!leaderboardConfig.isEnabled()) return;
+        long start = System.currentTimeMillis();
+        try {
+            Map<BoardKey, Board> fresh = new ConcurrentHashMap<>();
+            int minReviews = leaderboardConfig.getMinReviews();
+            jdbcTemplate.query("SELECT provider_id, category, hotel_id, SUM(review_count), SUM(score_sum) FROM rating_rollup "
+                            + "WHERE granularity = ? GROUP BY provider_id, category, hotel_id",
+                    rs -> {
+                        Board board = fresh.computeIfAbsent(new BoardKey(rs.getLong(1), rs.getString(2)), k -> new Board());
+                        board.add(rs.getLong(3), rs.getLong(4), rs.getDouble(5), minReviews);
+                    }, RatingRollupService.Granularity.MONTH.code);
+            boards = fresh;
+            loaded = true;
+            logger.info("Loaded {} leaderboards in {} ms", fresh.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // Keep serving the previous boards; the next run retries
+            logger.error("Failed to reload leaderboards: {}", e.getMessage());
+        }
+    }
+}
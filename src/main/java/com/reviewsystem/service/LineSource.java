@@ -0,0 +1,11 @@
+package com.reviewsystem.service;
+
+import java.io.IOException;
+
+/**
+ * Supplies JL lines one at a time; returns null when exhausted.
+ */
+@FunctionalInterface
+interface LineSource {
+    String readLine() throws IOException;
+}
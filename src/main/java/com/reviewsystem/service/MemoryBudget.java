@@ -0,0 +1,159 @@
+package com.reviewsystem.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.reviewsystem.config.JLImportMemoryConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Global budget for the estimated heap held by parsed reviews that are waiting in an
+ * import thread's batch. A thread reserves a record's bytes before adding it and
+ * releases the batch's bytes after the flush; when the budget is used up, readers
+ * wait instead of parsing more. A record larger than the whole budget is still let
+ * through once nothing else is reserved, so an outsized review cannot stall the import.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemoryBudget {
+    private static final Logger logger = LogManager.getLogger(MemoryBudget.class);
+    // Rough heap cost of a Review entity and of a grade or overall-by-provider row, without their text
+    private static final long REVIEW_OVERHEAD = 512;
+    private static final long ROW_OVERHEAD = 96;
+    // Jackson tree nodes: an ObjectNode with its LinkedHashMap, each map entry (field names are
+    // interned), an ArrayNode with its ArrayList, one element slot, a TextNode with its String,
+    // and a number node. Booleans and nulls are shared singletons.
+    private static final long OBJECT_NODE = 104;
+    private static final long OBJECT_FIELD = 48;
+    private static final long ARRAY_NODE = 56;
+    private static final long ARRAY_ELEMENT = 8;
+    private static final long TEXT_NODE = 56;
+    private static final long VALUE_NODE = 24;
+
+    private final JLImportMemoryConfig memoryConfig;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private long budget;
+    private volatile long inFlight;
+    private Timer waits;
+
+    @PostConstruct
+    void init() {
+        budget = memoryConfig.getBudgetBytes() > 0 ? memoryConfig.getBudgetBytes() : Runtime.getRuntime().maxMemory() / 4;
+        logger.info("In-flight import memory budget: {} bytes (enabled: {})", budget, memoryConfig.isEnabled());
+        Gauge.builder("jlimport.memory.in-flight.bytes", this, MemoryBudget::getInFlight)
+                .description("Estimated bytes of parsed reviews waiting to be flushed")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("jlimport.memory.budget.bytes", this, MemoryBudget::getBudget)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        waits = Timer.builder("jlimport.memory.wait")
+                .description("Time import threads waited for the in-flight memory budget")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Estimated heap used by one parsed line until its batch is flushed: the raw line kept
+     * for dead-lettering, the review's text (up to two bytes per char), the parsed JSON the
+     * pending record still points to ({@code recordBytes}) and the entities.
+     */
+    static long estimate(String rawLine, long recordBytes, int derivedRows) {
+        return 3L * rawLine.length() + recordBytes + REVIEW_OVERHEAD + ROW_OVERHEAD * derivedRows;
+    }
+
+    /**
+     * Estimated heap of a parsed JSON subtree, strings counted at two bytes per char.
+     */
+    static long treeBytes(JsonNode node) {
+        if (node.isObject()) {
+            long bytes = OBJECT_NODE;
+            for (Iterator<JsonNode> it = node.elements(); it.hasNext(); ) bytes += OBJECT_FIELD + treeBytes(it.next());
+            return bytes;
+        }
+        if (node.isArray()) {
+            long bytes = ARRAY_NODE;
+            for (JsonNode element : node) bytes += ARRAY_ELEMENT + treeBytes(element);
+            return bytes;
+        }
+        if (node.isTextual()) return TEXT_NODE + 2L * node.textValue().length();
+        if (node.isBoolean() || node.isNull() || node.isMissingNode()) return 0;
+        return VALUE_NODE;
+    }
+
+    /**
+     * Heap of a reference array of {@code length} slots.
+     */
+    static long arrayBytes(int length) {
+        return 16 + 4L * length;
+    }
+
+    /**
+     * Reserves the bytes if they fit in the budget right now.
+     */
+    boolean tryAcquire(long bytes) {
+        if (!memoryConfig.isEnabled()) return true;
+        lock.lock();
+        try {
+            if (!fits(bytes)) return false;
+            inFlight += bytes;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves the bytes, waiting until they fit. Callers must not hold reserved bytes of
+     * their own while waiting (flush first), or threads could wait on each other forever.
+     */
+    void acquire(long bytes) {
+        if (tryAcquire(bytes)) return;
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            while (!fits(bytes)) {
+                released.awaitUninterruptibly();
+            }
+            inFlight += bytes;
+        } finally {
+            lock.unlock();
+            waits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    void release(long bytes) {
+        if (bytes == 0 || !memoryConfig.isEnabled()) return;
+        lock.lock();
+        try {
+            inFlight = Math.max(0, inFlight - bytes);
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean fits(long bytes) {
+        return inFlight == 0 || inFlight + bytes <= budget;
+    }
+
+    public long getInFlight() {
+        return inFlight;
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+}
@@ -0,0 +1,121 @@
+package com.reviewsystem.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads the lines owned by a {@link ByteRange}. The stream must be positioned at
+ * {@code start - 1} (or 0 for the first range) and may run past {@code end}: the
+ * partial line before the range is skipped and the last line is read to its newline.
+ * The stream is read in blocks into a buffer that is scanned for newlines, so callers
+ * need not wrap it in a {@link java.io.BufferedInputStream}.
+ */
+class RangeLineReader implements LineSource {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private final long end;
+    private final byte[] buffer;
+    private int bufferPos;
+    private int bufferLimit;
+    // Only used for lines that span two or more blocks
+    private byte[] lineBuffer = new byte[4096];
+    private int lineLength;
+    private long position;
+    private boolean aligned;
+
+    RangeLineReader(InputStream in, ByteRange range) {
+        this(in, range, BUFFER_SIZE);
+    }
+
+    RangeLineReader(InputStream in, ByteRange range, int bufferSize) {
+        this.in = in;
+        this.end = range.end();
+        this.buffer = new byte[bufferSize];
+        this.position = range.start() == 0 ? 0 : range.start() - 1;
+        this.aligned = range.start() == 0;
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        if (!aligned) {
+            // Skip up to and including the first newline at or after start - 1
+            aligned = true;
+            while (bufferPos < bufferLimit || fill()) {
+                int newline = indexOfNewline();
+                if (newline >= 0) {
+                    consume(newline + 1);
+                    break;
+                }
+                consume(bufferLimit);
+            }
+        }
+        if (position >= end) {
+            return null;
+        }
+        lineLength = 0;
+        if (bufferPos == bufferLimit && !fill()) {
+            return null;
+        }
+        while (true) {
+            int newline = indexOfNewline();
+            if (newline >= 0) {
+                int from = bufferPos;
+                consume(newline + 1);
+                if (lineLength == 0) {
+                    // The whole line is in the block: decode it in place
+                    return decode(buffer, from, newline - from);
+                }
+                appendToLine(from, newline);
+                return decode(lineBuffer, 0, lineLength);
+            }
+            appendToLine(bufferPos, bufferLimit);
+            consume(bufferLimit);
+            if (!fill()) {
+                // Last line without a newline
+                return decode(lineBuffer, 0, lineLength);
+            }
+        }
+    }
+
+    private boolean fill() throws IOException {
+        int read;
+        do {
+            read = in.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            return false;
+        }
+        bufferPos = 0;
+        bufferLimit = read;
+        return true;
+    }
+
+    private int indexOfNewline() {
+        for (int i = bufferPos; i < bufferLimit; i++) {
+            if (buffer[i] == '\n') return i;
+        }
+        return -1;
+    }
+
+    private void consume(int to) {
+        position += to - bufferPos;
+        bufferPos = to;
+    }
+
+    private void appendToLine(int from, int to) {
+        int length = to - from;
+        if (lineLength + length > lineBuffer.length) {
+            lineBuffer = Arrays.copyOf(lineBuffer, Math.max(lineBuffer.length * 2, lineLength + length));
+        }
+        System.arraycopy(buffer, from, lineBuffer, lineLength, length);
+        lineLength += length;
+    }
+
+    private static String decode(byte[] bytes, int offset, int length) {
+        if (length > 0 && bytes[offset + length - 1] == '\r') length--;
+        return new String(bytes, offset, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,28 @@
+package com.reviewsystem.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spreads permits evenly over time across all threads that share it. Unused time is
+ * not saved up, so an idle period never turns into a burst.
+ */
+final class RateLimiter {
+    private final long nanosPerPermit;
+    private long next = System.nanoTime();
+
+    RateLimiter(long permitsPerSecond) {
+        this.nanosPerPermit = permitsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / permitsPerSecond : 0;
+    }
+
+    void acquire(int permits) throws InterruptedException {
+        if (nanosPerPermit == 0) return;
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(next, now);
+            next = start + permits * nanosPerPermit;
+            wait = start - now;
+        }
+        if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+    }
+}
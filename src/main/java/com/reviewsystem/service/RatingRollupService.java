@@ -0,0 +1,209 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.dto.RatingTrendPointDTO;
+import com.reviewsystem.model.Review;
+import com.reviewsystem.model.ReviewGrades;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Month and week rating rollups per hotel, provider and category (rating_rollup).
+ * The import adds each written batch to the buckets of the reviews' review_date, so a
+ * trend chart reads a few hundred pre-aggregated rows instead of scanning review and
+ * review_grades. {@link #rebuild()} recomputes everything from the source tables, for
+ * existing data and after a failed increment.
+ */
+@Service
+@RequiredArgsConstructor
+public class RatingRollupService {
+    private static final Logger logger = LogManager.getLogger(RatingRollupService.class);
+    // Category of the review's own rating; every other category comes from review_grades
+    public static final String RATING_CATEGORY = "rating";
+
+    private static final String UPSERT = "INSERT INTO rating_rollup "
+            + "(hotel_id, granularity, bucket_start, provider_id, category, review_count, score_sum) VALUES (?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE review_count = review_count + VALUES(review_count), score_sum = score_sum + VALUES(score_sum)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityVersionService entityVersionService;
+
+    public enum Granularity {
+        MONTH("M", "DATE_FORMAT(r.review_date, '%Y-%m-01')"),
+        WEEK("W", "DATE(r.review_date) - INTERVAL WEEKDAY(r.review_date) DAY");
+
+        final String code;
+        // Same bucket as bucketStart, computed by MySQL for rebuild()
+        final String sqlBucket;
+
+        Granularity(String code, String sqlBucket) {
+            this.code = code;
+            this.sqlBucket = sqlBucket;
+        }
+
+        public LocalDate bucketStart(LocalDate date) {
+            return this == MONTH ? date.withDayOfMonth(1) : date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+    }
+
+    private record Key(long hotelId, Granularity granularity, LocalDate bucket, long providerId, String category) {
+        static final Comparator<Key> ORDER = Comparator.comparingLong(Key::hotelId)
+                .thenComparing(Key::granularity)
+                .thenComparing(Key::bucket)
+                .thenComparingLong(Key::providerId)
+                .thenComparing(Key::category);
+    }
+
+    private static final class Delta {
+        long count;
+        BigDecimal sum = BigDecimal.ZERO;
+    }
+
+    /**
+     * Adds written reviews (their rating) and grades to their month and week buckets.
+     * Reviews without date, hotel or provider have no bucket and are skipped.
+     */
+    public void recordWritten(Collection<Review> reviews, Collection<ReviewGrades> grades) {
+        // Sorted keys keep the row lock order the same across concurrent import threads
+        Map<Key, Delta> deltas = new TreeMap<>(Key.ORDER);
+        for (Review review : reviews) {
+            add(deltas, review, RATING_CATEGORY, review.getRating(), 1);
+        }
+        for (ReviewGrades grade : grades) {
+            add(deltas, grade.getReview(), grade.getCategory(), grade.getScore(), 1);
+        }
+        write(deltas);
+    }
+
+    /**
+     * Moves updated reviews' ratings from their stored bucket and score ({@code before})
+     * to the new ones ({@code after}, index-aligned), and replaces their stored grades
+     * ({@code gradesBefore}, whose review is the matching {@code before} entry) with the
+     * written ones.
+     */
+    public void recordChanged(List<Review> before, List<Review> after,
+                              Collection<ReviewGrades> gradesBefore, Collection<ReviewGrades> gradesAfter) {
+        Map<Key, Delta> deltas = new TreeMap<>(Key.ORDER);
+        for (int i = 0; i < after.size(); i++) {
+            add(deltas, before.get(i), RATING_CATEGORY, before.get(i).getRating(), -1);
+            add(deltas, after.get(i), RATING_CATEGORY, after.get(i).getRating(), 1);
+        }
+        for (ReviewGrades grade : gradesBefore) {
+            add(deltas, grade.getReview(), grade.getCategory(), grade.getScore(), -1);
+        }
+        for (ReviewGrades grade : gradesAfter) {
+            add(deltas, grade.getReview(), grade.getCategory(), grade.getScore(), 1);
+        }
+        // An update that kept date and scores cancels out
+        deltas.values().removeIf(delta -> delta.count == 0 && delta.sum.signum() == 0);
+        write(deltas);
+    }
+
+    private void write(Map<Key, Delta> deltas) {
+        if (deltas.isEmpty()) return;
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> args.add(new Object[]{key.hotelId(), key.granularity().code, Date.valueOf(key.bucket()),
+                key.providerId(), key.category(), delta.count, delta.sum}));
+        jdbcTemplate.batchUpdate(UPSERT, args);
+    }
+
+    private static void add(Map<Key, Delta> deltas, Review review, String category, Double score, int sign) {
+        if (review == null || score == null || category == null || review.getReviewDate() == null
+                || review.getHotel() == null || review.getProvider() == null) {
+            return;
+        }
+        LocalDate date = review.getReviewDate().toLocalDate();
+        // Same rounding as the DECIMAL(3,1) score columns
+        BigDecimal value = BigDecimal.valueOf(score).setScale(1, RoundingMode.HALF_UP);
+        for (Granularity granularity : Granularity.values()) {
+            Key key = new Key(review.getHotel().getId(), granularity, granularity.bucketStart(date),
+                    review.getProvider().getId(), category);
+            Delta delta = deltas.computeIfAbsent(key, k -> new Delta());
+            delta.count += sign;
+            delta.sum = sign > 0 ? delta.sum.add(value) : delta.sum.subtract(value);
+        }
+    }
+
+    /**
+     * Buckets of one hotel from the bucket containing {@code from} through {@code to},
+     * ordered by provider, category and bucket. {@code providerId} and {@code category}
+     * narrow the result when not null.
+     */
+    @Transactional(readOnly = true)
+    public List<RatingTrendPointDTO> trend(long hotelId, Granularity granularity, LocalDate from, LocalDate to,
+                                           Long providerId, String category) {
+        StringBuilder sql = new StringBuilder("SELECT provider_id, category, bucket_start, review_count, score_sum FROM rating_rollup "
+                + "WHERE hotel_id = ? AND granularity = ? AND bucket_start BETWEEN ? AND ?");
+        List<Object> args = new ArrayList<>(List.of(hotelId, granularity.code,
+                Date.valueOf(granularity.bucketStart(from)), Date.valueOf(to)));
+        if (providerId != null) {
+            sql.append(" AND provider_id = ?");
+            args.add(providerId);
+        }
+        if (category != null) {
+            sql.append(" AND category = ?");
+            args.add(category);
+        }
+        sql.append(" ORDER BY provider_id, category, bucket_start");
+        return jdbcTemplate.query(sql.toString(), (rs, i) -> {
+            long count = rs.getLong(4);
+            BigDecimal sum = rs.getBigDecimal(5);
+            double average = count == 0 ? 0 : sum.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP).doubleValue();
+            return new RatingTrendPointDTO(rs.getLong(1), rs.getString(2), rs.getDate(3).toLocalDate(), count, average);
+        }, args.toArray());
+    }
+
+    /**
+     * Recomputes the rollups of every hotel from review and review_grades, one hotel per
+     * transaction, and returns the number of hotels rebuilt. Run it with imports stopped:
+     * an increment racing the rebuild of the same hotel can be counted twice. Each hotel's
+     * version is bumped with its rollups, so cached trend responses are not answered with 304.
+     */
+    public long rebuild() {
+        List<Long> hotelIds = jdbcTemplate.queryForList("SELECT id FROM hotel ORDER BY id", Long.class);
+        logger.info("Rebuilding rating rollups for {} hotels", hotelIds.size());
+        long rebuilt = 0;
+        for (Long hotelId : hotelIds) {
+            transactionTemplate.executeWithoutResult(status -> {
+                rebuildHotel(hotelId);
+                entityVersionService.bump(List.of(hotelId), List.of());
+            });
+            if (++rebuilt % 1000 == 0) logger.info("Rebuilt rating rollups of {} hotels", rebuilt);
+        }
+        logger.info("Rating rollup rebuild finished: {} hotels", rebuilt);
+        return rebuilt;
+    }
+
+    private void rebuildHotel(long hotelId) {
+        jdbcTemplate.update("DELETE FROM rating_rollup WHERE hotel_id = ?", hotelId);
+        for (Granularity granularity : Granularity.values()) {
+            String insert = "INSERT INTO rating_rollup (hotel_id, granularity, bucket_start, provider_id, category, review_count, score_sum) ";
+            String dated = " AND r.review_date IS NOT NULL AND r.provider_id IS NOT NULL";
+            jdbcTemplate.update(insert + "SELECT r.hotel_id, ?, " + granularity.sqlBucket + ", r.provider_id, ?, COUNT(*), SUM(r.rating) "
+                    + "FROM review r WHERE r.hotel_id = ? AND r.rating IS NOT NULL" + dated
+                    + " GROUP BY 3, 4", granularity.code, RATING_CATEGORY, hotelId);
+            jdbcTemplate.update(insert + "SELECT r.hotel_id, ?, " + granularity.sqlBucket + ", r.provider_id, g.category, COUNT(*), SUM(g.score) "
+                    + "FROM review r JOIN review_grades g ON g.review_id = r.id "
+                    + "WHERE r.hotel_id = ? AND g.category IS NOT NULL AND g.score IS NOT NULL" + dated
+                    + " GROUP BY 3, 4, 5", granularity.code, hotelId);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.model.OverallByProvider;
+import com.reviewsystem.model.Review;
+import com.reviewsystem.model.ReviewGrades;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reviews waiting to be flushed, with their grades, overall-by-provider rows and the
+ * raw line they came from (kept so a failed row can be dead-lettered).
+ * Lists are index-aligned: entry {@code i} of each belongs to the same review.
+ */
+class ReviewBatch {
+    final List<Review> reviews = new ArrayList<>();
+    final List<List<ReviewGrades>> grades = new ArrayList<>();
+    final List<List<OverallByProvider>> overallByProviders = new ArrayList<>();
+    final List<String> rawLines = new ArrayList<>();
+    final List<Integer> lineNumbers = new ArrayList<>();
+    // Updates only: the stored rating, date, hotel and provider each review replaces
+    final List<Review> replaced = new ArrayList<>();
+    // UTF-8 size of the raw lines, as read from the source
+    long payloadBytes;
+    // Bytes reserved in the MemoryBudget for the entries, released after the flush
+    long reservedBytes;
+
+    void add(Review review, List<ReviewGrades> reviewGrades, List<OverallByProvider> obps, String rawLine, int lineNumber,
+             long reserved) {
+        reviews.add(review);
+        grades.add(reviewGrades);
+        overallByProviders.add(obps);
+        rawLines.add(rawLine);
+        lineNumbers.add(lineNumber);
+        payloadBytes += utf8Length(rawLine);
+        reservedBytes += reserved;
+    }
+
+    int size() {
+        return reviews.size();
+    }
+
+    boolean isEmpty() {
+        return reviews.isEmpty();
+    }
+
+    List<ReviewGrades> allGrades() {
+        List<ReviewGrades> all = new ArrayList<>();
+        for (List<ReviewGrades> g : grades) all.addAll(g);
+        return all;
+    }
+
+    List<OverallByProvider> allOverallByProviders() {
+        List<OverallByProvider> all = new ArrayList<>();
+        for (List<OverallByProvider> o : overallByProviders) all.addAll(o);
+        return all;
+    }
+
+    /**
+     * The number of bytes {@code s} takes in UTF-8, counted without encoding it.
+     */
+    static long utf8Length(String s) {
+        long bytes = s.length();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x800) {
+                // Three bytes, or four for a surrogate pair (two chars)
+                bytes += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                bytes++;
+            }
+        }
+        return bytes;
+    }
+
+    void clear() {
+        reviews.clear();
+        grades.clear();
+        overallByProviders.clear();
+        rawLines.clear();
+        lineNumbers.clear();
+        replaced.clear();
+        payloadBytes = 0;
+        reservedBytes = 0;
+    }
+}
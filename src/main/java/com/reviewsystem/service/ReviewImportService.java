@@ -1,10 +1,13 @@
 package com.reviewsystem.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.reviewsystem.config.JLImportRequiredFieldsConfig;
 import com.reviewsystem.config.JLImportS3Config;
 import com.reviewsystem.config.JLImportFolderConfig;
+import com.reviewsystem.config.JLImportSplitConfig;
+import com.reviewsystem.config.JLImportWatchConfig;
 import com.reviewsystem.model.*;
 import com.reviewsystem.repository.*;
 import lombok.RequiredArgsConstructor;
@@ -17,18 +20,22 @@ import org.springframework.transaction.annotation.Transactional;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.File;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.file.StandardOpenOption;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
-import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import java.util.Queue;
+import java.util.UUID;
+import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.core.sync.ResponseTransformer;
-import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 import java.nio.charset.StandardCharsets;
@@ -39,15 +46,25 @@ import java.util.concurrent.*;
 public class ReviewImportService {
     private static final Logger logger = LogManager.getLogger(ReviewImportService.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
-    private static final DateTimeFormatter ISO_DATE_TIME = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
 
     private final JLImportRequiredFieldsConfig requiredFieldsConfig;
     private final JLImportS3Config s3Config;
     private final JLImportFolderConfig folderConfig;
+    private final AdaptiveBatchSizer batchSizer;
+    private final DeadLetterWriter deadLetterWriter;
+    private final WorkClaimService workClaimService;
+    private final JLImportSplitConfig splitConfig;
+    private final ReviewRecordMapper recordMapper;
+    private final ImportExecutor importExecutor;
+    private final EntityVersionService entityVersionService;
+    private final RatingRollupService ratingRollupService;
+    private final LeaderboardService leaderboardService;
+    private final MemoryBudget memoryBudget;
+    private final WriterLanes writerLanes;
+    private final S3ClientProvider s3ClientProvider;
+    private final JLImportWatchConfig watchConfig;
     @Value("${jlimport.source-aws:false}")
     private boolean sourceAWS;
-    @Value("${jlimport.batch-size:50}")
-    private int batchSize;
 
     private final HotelRepository hotelRepository;
     private final ProviderRepository providerRepository;
@@ -56,98 +73,308 @@ public class ReviewImportService {
     private final ReviewGradesRepository reviewGradesRepository;
     private final OverallByProviderRepository overallByProviderRepository;
 
-    public void parseAndImportJLFile(String jlFilePath) {
-        logger.info("Starting import for file: {}", jlFilePath);
-        List<Review> reviewBatch = new java.util.ArrayList<>();
-        List<List<ReviewGrades>> gradesBatch = new java.util.ArrayList<>();
-        List<OverallByProvider> obpBatch = new java.util.ArrayList<>();
-        try (BufferedReader reader = java.nio.file.Files.newBufferedReader(java.nio.file.Paths.get(jlFilePath), StandardCharsets.UTF_8)) {
+    public ImportSummary parseAndImportJLFile(String jlFilePath) {
+        Path rejectedFile = Paths.get(jlFilePath).resolveSibling(DeadLetterWriter.rejectedName(Paths.get(jlFilePath).getFileName().toString()));
+        return parseAndImportJLFile(jlFilePath, rejectedFile);
+    }
+
+    public ImportSummary parseAndImportJLFile(String jlFilePath, Path rejectedFile) {
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(jlFilePath), StandardCharsets.UTF_8)) {
+            return importLines(reader::readLine, jlFilePath, rejectedFile);
+        } catch (Exception e) {
+            logger.error("Failed to open JL file {}: {}", jlFilePath, e.getMessage());
+            ImportSummary summary = new ImportSummary(jlFilePath);
+            summary.recordFailure("open failed: " + e.getMessage());
+            return summary;
+        }
+    }
+
+    /**
+     * Imports NDJSON lines read incrementally from {@code in} (e.g. an HTTP request body).
+     * Lines are only pulled from the stream as fast as batches are written, so a slow
+     * database throttles the sender instead of the body being buffered in memory.
+     */
+    public ImportSummary importStream(InputStream in, String sourceName, Path rejectedFile) {
+        BufferedReader reader = new BufferedReader(new java.io.InputStreamReader(in, StandardCharsets.UTF_8));
+        return importLines(reader::readLine, sourceName, rejectedFile);
+    }
+
+    /**
+     * Validates, maps and batch-writes every line of the source. Lines are collected in
+     * one chunk per writer lane of their hotel; each chunk's stored content hashes are read
+     * in one query, so unchanged reviews are skipped before any other lookup and changed
+     * ones are updated in place.
+     * Rejected lines go to {@code rejectedFile}; the returned summary holds the per-source counts.
+     */
+    ImportSummary importLines(LineSource source, String sourceName, Path rejectedFile) {
+        logger.info("Starting import for file: {}", sourceName);
+        ImportSummary summary = new ImportSummary(sourceName);
+        List<List<PendingLine>> pending = new java.util.ArrayList<>(writerLanes.size());
+        for (int i = 0; i < writerLanes.size(); i++) pending.add(new java.util.ArrayList<>());
+        long[] pendingPayload = new long[writerLanes.size()];
+        ReviewBatch inserts = new ReviewBatch();
+        ReviewBatch updates = new ReviewBatch();
+        try (DeadLetterSink deadLetters = deadLetterWriter.open(rejectedFile, summary)) {
             String line;
             int lineNumber = 0;
-            while ((line = reader.readLine()) != null) {
+            while ((line = readLine(source, summary)) != null) {
                 lineNumber++;
                 try {
                     JsonNode root = objectMapper.readTree(line);
-                    if (!validateRequiredFields(root, lineNumber)) {
-                        continue;
-                    }
-                    // Upsert provider
-                    JsonNode comment = root.get("comment");
-                    Long providerId = comment.get("providerId").asLong();
-                    String providerName = comment.get("reviewProviderText").asText();
-                    Provider provider = upsertProvider(providerId, providerName);
-
-                    // Upsert hotel
-                    Long hotelId = root.get("hotelId").asLong();
-                    String hotelName = root.get("hotelName").isNull() ? null : root.get("hotelName").asText();
-                    Hotel hotel = upsertHotel(hotelId, hotelName);
-
-                    // Upsert reviewer
-                    JsonNode reviewerInfo = comment.get("reviewerInfo");
-                    Reviewer reviewer = upsertReviewer(reviewerInfo);
-
-                    // Upsert review
-                    Long reviewId = comment.get("hotelReviewId").asLong();
-                    if (reviewRepository.existsById(reviewId)) {
-                        logger.info("Line {}: Review {} already exists. Skipping.", lineNumber, reviewId);
+                    ReviewRecordMapper.Record record = recordMapper.read(root);
+                    String missing = recordMapper.missingRequiredFields(record);
+                    if (missing != null) {
+                        deadLetters.reject(lineNumber, line, "missing_required_fields", missing);
                         continue;
                     }
-                    Review review = mapReview(comment, reviewId, hotel, provider, reviewer);
-                    reviewBatch.add(review);
-
-                    // Review grades and OBP
-                    List<ReviewGrades> gradesForThisReview = new java.util.ArrayList<>();
-                    if (root.has("overallByProviders")) {
-                        for (JsonNode overall : root.get("overallByProviders")) {
-                            // OverallByProvider
-                            Provider obpProvider = upsertProvider(
-                                    overall.get("providerId").asLong(),
-                                    overall.get("provider").asText()
-                            );
-                            OverallByProvider obp = OverallByProvider.builder()
-                                    .review(review)
-                                    .provider(obpProvider)
-                                    .overallScore(overall.get("overallScore").asDouble())
-                                    .reviewCount(overall.get("reviewCount").asInt())
-                                    .build();
-                            obpBatch.add(obp);
-                            // Grades
-                            if (overall.has("grades")) {
-                                Iterator<String> fields = overall.get("grades").fieldNames();
-                                while (fields.hasNext()) {
-                                    String category = fields.next();
-                                    double score = overall.get("grades").get(category).asDouble();
-                                    ReviewGrades grade = ReviewGrades.builder()
-                                            .review(review)
-                                            .category(category)
-                                            .score(score)
-                                            .build();
-                                    gradesForThisReview.add(grade);
-                                }
-                            }
-                        }
+                    long recordBytes = MemoryBudget.estimate(line, recordMapper.retainedBytes(record), derivedRowCount(record));
+                    if (!memoryBudget.tryAcquire(recordBytes)) {
+                        // Write what this thread holds before waiting, so threads never wait on each other's batches
+                        writeChunks(pending, pendingPayload, inserts, updates, deadLetters);
+                        memoryBudget.acquire(recordBytes);
                     }
-                    gradesBatch.add(gradesForThisReview);
-
-                    // Batch insert if batch size reached
-                    if (reviewBatch.size() >= batchSize) {
-                        saveBatchWithRetry(reviewBatch, gradesBatch, obpBatch);
-                        reviewBatch.clear();
-                        gradesBatch.clear();
-                        obpBatch.clear();
+                    int lane = writerLanes.laneOf(recordMapper.hotelId(record));
+                    List<PendingLine> lanePending = pending.get(lane);
+                    lanePending.add(new PendingLine(record, recordMapper.reviewId(record), recordMapper.contentHash(record),
+                            line, lineNumber, recordBytes));
+                    pendingPayload[lane] += ReviewBatch.utf8Length(line);
+
+                    // Write the lane if the adaptive batch size or payload target is reached
+                    if (lanePending.size() >= batchSizer.currentSize() || pendingPayload[lane] >= batchSizer.targetPayloadBytes()) {
+                        writeChunk(lane, lanePending, inserts, updates, deadLetters);
+                        pendingPayload[lane] = 0;
                     }
+                } catch (JsonProcessingException e) {
+                    deadLetters.reject(lineNumber, line, "malformed_json", e.getOriginalMessage());
                 } catch (Exception e) {
-                    logger.error("Error processing line {}: {}", lineNumber, e.getMessage());
+                    deadLetters.reject(lineNumber, line, "processing_error", String.valueOf(e.getMessage()));
                 }
             }
-            // Save any remaining
-            if (!reviewBatch.isEmpty()) {
-                saveBatchWithRetry(reviewBatch, gradesBatch, obpBatch);
+            // Save any remaining, also what was read before a read failure
+            writeChunks(pending, pendingPayload, inserts, updates, deadLetters);
+        } catch (Exception e) {
+            logger.error("Failed to import {}: {}", sourceName, e.getMessage());
+            summary.recordFailure("import failed: " + e.getMessage());
+        } finally {
+            // Lines left unwritten by a read failure
+            for (List<PendingLine> lanePending : pending) {
+                for (PendingLine p : lanePending) memoryBudget.release(p.reservedBytes());
             }
+            memoryBudget.release(inserts.reservedBytes + updates.reservedBytes);
+        }
+        logger.info("Completed import for file: {} ({})", sourceName, summary);
+        return summary;
+    }
+
+    /**
+     * The next line, or null at the end of the source or when it can no longer be read;
+     * a read failure leaves the source incomplete.
+     */
+    private String readLine(LineSource source, ImportSummary summary) {
+        try {
+            return source.readLine();
+        } catch (Exception e) {
+            logger.error("Failed to read {}: {}", summary.getSource(), e.getMessage());
+            summary.recordFailure("read failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * A validated line whose review has not been checked against the database yet.
+     */
+    private record PendingLine(ReviewRecordMapper.Record record, long reviewId, long contentHash,
+                               String rawLine, int lineNumber, long reservedBytes) {}
+
+    private int derivedRowCount(ReviewRecordMapper.Record record) {
+        JsonNode overallByProviders = recordMapper.overallByProviders(record);
+        if (overallByProviders == null) return 0;
+        int rows = 0;
+        for (JsonNode overall : overallByProviders) rows += 1 + overall.path("grades").size();
+        return rows;
+    }
+
+    private void writeChunks(List<List<PendingLine>> pending, long[] pendingPayload, ReviewBatch inserts, ReviewBatch updates,
+                             DeadLetterSink deadLetters) {
+        for (int lane = 0; lane < pending.size(); lane++) {
+            writeChunk(lane, pending.get(lane), inserts, updates, deadLetters);
+            pendingPayload[lane] = 0;
+        }
+    }
+
+    /**
+     * Writes one lane's pending lines while holding the lane, from the hash lookup on, so
+     * another thread importing the same hotels sees these reviews as stored.
+     */
+    private void writeChunk(int lane, List<PendingLine> pending, ReviewBatch inserts, ReviewBatch updates,
+                            DeadLetterSink deadLetters) {
+        if (pending.isEmpty()) return;
+        try {
+            writerLanes.write(lane, () -> writeLaneChunk(lane, pending, inserts, updates, deadLetters));
+        } catch (Exception e) {
+            // The hash lookup or a write failed outside the per-row fallback: none of the lines left are known to be stored
+            String detail = String.valueOf(e.getMessage());
+            int lost = rejectUnwritten(pending, inserts, updates, deadLetters, detail);
+            logger.error("Writing a chunk of {} failed, {} lines dead-lettered: {}", deadLetters.getSummary().getSource(), lost, detail);
+            deadLetters.getSummary().recordFailure("chunk write failed: " + detail);
+        }
+    }
+
+    private int rejectUnwritten(List<PendingLine> pending, ReviewBatch inserts, ReviewBatch updates, DeadLetterSink deadLetters,
+                                String detail) {
+        int lost = pending.size();
+        for (PendingLine p : pending) {
+            deadLetters.reject(p.lineNumber(), p.rawLine(), "chunk_write_failed", detail);
+            memoryBudget.release(p.reservedBytes());
+        }
+        pending.clear();
+        for (ReviewBatch batch : List.of(inserts, updates)) {
+            for (int i = 0; i < batch.size(); i++) {
+                deadLetters.reject(batch.lineNumbers.get(i), batch.rawLines.get(i), "chunk_write_failed", detail);
+            }
+            lost += batch.size();
+            memoryBudget.release(batch.reservedBytes);
+            batch.clear();
+        }
+        return lost;
+    }
+
+    /**
+     * Sorts the pending lines into new reviews (inserted with their grades and OBP rows),
+     * changed reviews (updated, grades and OBP rows replaced) and unchanged ones (counted
+     * as duplicates), then writes both batches.
+     */
+    private void writeLaneChunk(int lane, List<PendingLine> pending, ReviewBatch inserts, ReviewBatch updates,
+                                DeadLetterSink deadLetters) {
+        ImportSummary summary = deadLetters.getSummary();
+        Map<Long, ReviewStateRow> stored = new java.util.HashMap<>();
+        for (ReviewStateRow row : reviewRepository.findStatesByIdIn(pending.stream().map(PendingLine::reviewId).toList())) {
+            stored.put(row.getId(), row);
+        }
+        // A review repeated within the chunk is written once, from its last line, as a backfill does
+        Map<Long, PendingLine> latest = new java.util.LinkedHashMap<>();
+        for (PendingLine p : pending) {
+            PendingLine earlier = latest.put(p.reviewId(), p);
+            if (earlier != null) {
+                logger.debug("Line {}: Review {} is repeated later in the chunk. Skipping.", earlier.lineNumber(), p.reviewId());
+                summary.recordDuplicate();
+                memoryBudget.release(earlier.reservedBytes());
+            }
+        }
+        pending.clear();
+        Map<Long, Long> missingHashes = new java.util.HashMap<>();
+        for (PendingLine p : latest.values()) {
+            ReviewStateRow state = stored.get(p.reviewId());
+            boolean unchanged = state != null && state.getContentHash() != null && state.getContentHash() == p.contentHash();
+            if (unchanged) {
+                logger.debug("Line {}: Review {} already exists unchanged. Skipping.", p.lineNumber(), p.reviewId());
+                summary.recordDuplicate();
+                memoryBudget.release(p.reservedBytes());
+                continue;
+            }
+            if (state != null && state.getContentHash() == null) {
+                // Imported before content hashes (V7): taken as unchanged, only the hash is stored
+                logger.debug("Line {}: Review {} has no content hash yet. Recording it.", p.lineNumber(), p.reviewId());
+                missingHashes.put(p.reviewId(), p.contentHash());
+                summary.recordDuplicate();
+                memoryBudget.release(p.reservedBytes());
+                continue;
+            }
+            try {
+                Review review = mapReview(p.record(), p.reviewId());
+                review.setContentHash(p.contentHash());
+                List<ReviewGrades> grades = new java.util.ArrayList<>();
+                List<OverallByProvider> obps = new java.util.ArrayList<>();
+                mapDerived(review, p.record(), grades, obps);
+                if (state == null) {
+                    review.setNewEntity(true);
+                    inserts.add(review, grades, obps, p.rawLine(), p.lineNumber(), p.reservedBytes());
+                } else {
+                    updates.add(review, grades, obps, p.rawLine(), p.lineNumber(), p.reservedBytes());
+                    updates.replaced.add(storedReview(state));
+                }
+            } catch (Exception e) {
+                deadLetters.reject(p.lineNumber(), p.rawLine(), "processing_error", String.valueOf(e.getMessage()));
+                memoryBudget.release(p.reservedBytes());
+            }
+        }
+        recordMissingHashes(missingHashes, lane);
+        flush(inserts, deadLetters, lane);
+        flushUpdates(updates, deadLetters, lane);
+    }
+
+    private void recordMissingHashes(Map<Long, Long> hashesById, int lane) {
+        if (hashesById.isEmpty()) return;
+        try {
+            writerLanes.retryOnLockFailure(lane, () -> reviewRepository.recordMissingContentHashes(hashesById));
         } catch (Exception e) {
-            logger.error("Failed to read JL file: {}", e.getMessage());
+            // The reviews stay unhashed and are taken as unchanged again on their next import
+            logger.error("Failed to record content hashes for {} reviews: {}", hashesById.size(), e.getMessage());
         }
-        logger.info("Completed import for file: {}", jlFilePath);
+    }
+
+    private Review mapReview(ReviewRecordMapper.Record record, long reviewId) {
+        // Upsert provider
+        Provider provider = upsertProvider(recordMapper.providerId(record), recordMapper.providerName(record));
+
+        // Upsert hotel
+        Hotel hotel = upsertHotel(recordMapper.hotelId(record), recordMapper.hotelName(record));
+
+        // Upsert reviewer
+        Reviewer reviewer = upsertReviewer(recordMapper.mapReviewer(record));
+
+        return recordMapper.mapReview(record, reviewId, hotel, provider, reviewer);
+    }
+
+    /**
+     * Maps the review's overall-by-provider rows and their grades into {@code obps} and {@code grades}.
+     */
+    private void mapDerived(Review review, ReviewRecordMapper.Record record, List<ReviewGrades> grades,
+                            List<OverallByProvider> obps) {
+        JsonNode overallByProviders = recordMapper.overallByProviders(record);
+        if (overallByProviders != null) {
+            for (JsonNode overall : overallByProviders) {
+                // OverallByProvider
+                Provider obpProvider = upsertProvider(
+                        overall.get("providerId").asLong(),
+                        overall.get("provider").asText()
+                );
+                OverallByProvider obp = OverallByProvider.builder()
+                        .review(review)
+                        .provider(obpProvider)
+                        .overallScore(overall.get("overallScore").asDouble())
+                        .reviewCount(overall.get("reviewCount").asInt())
+                        .build();
+                obps.add(obp);
+                // Grades
+                if (overall.has("grades")) {
+                    Iterator<String> fields = overall.get("grades").fieldNames();
+                    while (fields.hasNext()) {
+                        String category = recordMapper.canonical(fields.next());
+                        double score = overall.get("grades").get(category).asDouble();
+                        ReviewGrades grade = ReviewGrades.builder()
+                                .review(review)
+                                .category(category)
+                                .score(score)
+                                .build();
+                        grades.add(grade);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The stored state of a review as far as the rollups and leaderboards count it.
+     */
+    private static Review storedReview(ReviewStateRow state) {
+        return Review.builder()
+                .id(state.getId())
+                .hotel(state.getHotelId() == null ? null : Hotel.builder().id(state.getHotelId()).build())
+                .provider(state.getProviderId() == null ? null : Provider.builder().id(state.getProviderId()).build())
+                .rating(state.getRating())
+                .reviewDate(state.getReviewDate())
+                .build();
     }
 
     public void parseAndImportJLFolder(String folderPath) {
@@ -156,47 +383,128 @@ public class ReviewImportService {
             logger.error("{} is not a directory.", folderPath);
             return;
         }
-        File[] files = folder.listFiles((dir, name) -> name.endsWith(".jl") && !name.endsWith("_processed.jl"));
+        File[] files = folder.listFiles((dir, name) -> isLocalImportCandidate(name));
         if (files == null || files.length == 0) {
             logger.info("No new .jl files to be processed in {}", folderPath);
             return;
         }
-        int threads = folderConfig.getConcurrentThreads();
-        ExecutorService executor = Executors.newFixedThreadPool(threads);
         List<Future<?>> futures = new java.util.ArrayList<>();
         for (File file : files) {
-            futures.add(executor.submit(() -> {
-                String filePath = file.getAbsolutePath();
-                String newName = filePath.replaceFirst("\\.jl$", "_processed.jl");
-                String threadName = Thread.currentThread().getName();
-                logger.info("[{}] Attempting to pick file for processing: {}", threadName, filePath);
-                // Use atomic rename to prevent double processing
-                boolean renamed = file.renameTo(new File(newName + ".processing"));
-                if (!renamed) {
-                    logger.warn("[{}] Could not lock file for processing (maybe already processing?): {}", threadName, filePath);
-                    return;
-                }
-                File processingFile = new File(newName + ".processing");
-                try {
-                    logger.info("[{}] Picked and processing JL file: {}", threadName, processingFile.getAbsolutePath());
-                    parseAndImportJLFile(processingFile.getAbsolutePath());
-                    // Rename to _processed.jl after successful processing
-                    File finalFile = new File(newName);
-                    if (!processingFile.renameTo(finalFile)) {
-                        logger.error("[{}] Failed to rename file {} to {} after processing", threadName, processingFile.getAbsolutePath(), finalFile.getAbsolutePath());
-                    } else {
-                        logger.info("[{}] Renamed file to {}", threadName, finalFile.getAbsolutePath());
-                    }
-                } catch (Exception e) {
-                    logger.error("[{}] Failed to process file {}: {}", threadName, processingFile.getAbsolutePath(), e.getMessage());
-                    // Optionally, rename back to original if needed
-                }
-            }));
+            if (!isSettled(file, System.currentTimeMillis())) {
+                logger.info("{} was modified in the last {} ms, left for the next scan", file.getAbsolutePath(), watchConfig.getStableMillis());
+                continue;
+            }
+            for (Runnable task : localFileTasks(file)) {
+                importExecutor.trySubmit(task).ifPresent(futures::add);
+            }
         }
         for (Future<?> f : futures) {
             try { f.get(); } catch (Exception e) { logger.error("Error in file processing thread: {}", e.getMessage()); }
         }
-        executor.shutdown();
+    }
+
+    /**
+     * A scan sees each file once, so unlike the watcher it cannot wait for the size to stop
+     * changing; a file still being copied has a fresh modification time, so only files not
+     * written to for {@code jlimport.watch.stable-millis} are imported.
+     */
+    boolean isSettled(File file, long now) {
+        return now - file.lastModified() >= watchConfig.getStableMillis();
+    }
+
+    /**
+     * New input files only: skips our own _processed.jl, _rejected.jl and .processing files.
+     */
+    public static boolean isLocalImportCandidate(String name) {
+        return name.endsWith(".jl") && !name.endsWith("_processed.jl") && !name.endsWith("_rejected.jl");
+    }
+
+    /**
+     * Work needed to import one local file: a single task, or one per byte range for
+     * large files. Safe to run for the same file from several triggers (scan, watcher,
+     * API): small files are locked by an atomic rename, ranges by work claims.
+     */
+    public List<Runnable> localFileTasks(File file) {
+        if (isSplittable(file.length())) {
+            return localRangeTasks(file);
+        }
+        return List.of(() -> importLocalFile(file));
+    }
+
+    private void importLocalFile(File file) {
+        String filePath = file.getAbsolutePath();
+        String newName = filePath.replaceFirst("\\.jl$", "_processed.jl");
+        String threadName = Thread.currentThread().getName();
+        logger.info("[{}] Attempting to pick file for processing: {}", threadName, filePath);
+        // Use atomic rename to prevent double processing
+        boolean renamed = file.renameTo(new File(newName + ".processing"));
+        if (!renamed) {
+            logger.warn("[{}] Could not lock file for processing (maybe already processing?): {}", threadName, filePath);
+            return;
+        }
+        File processingFile = new File(newName + ".processing");
+        try {
+            logger.info("[{}] Picked and processing JL file: {}", threadName, processingFile.getAbsolutePath());
+            requireComplete(parseAndImportJLFile(processingFile.getAbsolutePath(), new File(DeadLetterWriter.rejectedName(filePath)).toPath()));
+            // Rename to _processed.jl after successful processing
+            File finalFile = new File(newName);
+            if (!processingFile.renameTo(finalFile)) {
+                logger.error("[{}] Failed to rename file {} to {} after processing", threadName, processingFile.getAbsolutePath(), finalFile.getAbsolutePath());
+            } else {
+                logger.info("[{}] Renamed file to {}", threadName, finalFile.getAbsolutePath());
+            }
+        } catch (Exception e) {
+            // The file keeps its .processing name so no scan picks it up; rename it back to .jl to import it again
+            logger.error("[{}] Failed to process file {}, left in place: {}", threadName, processingFile.getAbsolutePath(), e.getMessage());
+        }
+    }
+
+    private boolean isSplittable(long size) {
+        return splitConfig.isEnabled() && size >= splitConfig.getThresholdBytes();
+    }
+
+    /**
+     * Imports a large local file as independent byte ranges. Each range is claimed in
+     * work_claim, so ranges of a file on a shared folder can be spread over nodes too;
+     * the file is renamed to _processed.jl once every range is DONE.
+     */
+    private List<Runnable> localRangeTasks(File file) {
+        String baseKey = "file://" + file.getAbsolutePath() + "#" + file.length() + "-" + file.lastModified();
+        List<ByteRange> ranges = ByteRange.split(file.length(), splitConfig.getRangeBytes());
+        List<String> rangeKeys = ranges.stream().map(r -> baseKey + r.suffix()).toList();
+        logger.info("Splitting {} ({} bytes) into {} ranges", file.getAbsolutePath(), file.length(), ranges.size());
+        List<Runnable> tasks = new java.util.ArrayList<>(ranges.size());
+        for (ByteRange range : ranges) {
+            tasks.add(() -> importLocalRange(file, range, baseKey, rangeKeys));
+        }
+        return tasks;
+    }
+
+    private void importLocalRange(File file, ByteRange range, String baseKey, List<String> rangeKeys) {
+        String claimKey = baseKey + range.suffix();
+        if (!workClaimService.tryClaim(claimKey)) {
+            return;
+        }
+        String threadName = Thread.currentThread().getName();
+        String sourceName = file.getAbsolutePath() + range.suffix();
+        Path rejectedFile = file.toPath().resolveSibling(range.rejectedName(file.getName()));
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            channel.position(range.start() == 0 ? 0 : range.start() - 1);
+            InputStream in = Channels.newInputStream(channel);
+            requireComplete(importLines(new RangeLineReader(in, range), sourceName, rejectedFile));
+            workClaimService.complete(claimKey);
+        } catch (Exception e) {
+            logger.error("[{}] Failed to import range {}: {}", threadName, sourceName, e.getMessage());
+            workClaimService.fail(claimKey);
+            return;
+        }
+        workClaimService.finalizeWhenDone(rangeKeys, baseKey + "@finalize", () -> {
+            File finalFile = new File(file.getAbsolutePath().replaceFirst("\\.jl$", "_processed.jl"));
+            if (!file.renameTo(finalFile)) {
+                throw new IllegalStateException("Failed to rename " + file.getAbsolutePath() + " to " + finalFile.getAbsolutePath());
+            }
+            logger.info("[{}] All {} ranges done, renamed file to {}", threadName, range.total(), finalFile.getAbsolutePath());
+        });
     }
 
     public void importJLFiles() {
@@ -212,95 +520,199 @@ public class ReviewImportService {
         String bucket = s3Config.getBucket();
         String prefix = s3Config.getPrefix();
         int threads = folderConfig.getConcurrentThreads();
-        ExecutorService executor = Executors.newFixedThreadPool(threads);
         List<Future<?>> futures = new java.util.ArrayList<>();
-        try (S3Client s3 = S3Client.builder()
-                .region(Region.of(s3Config.getRegion()))
-                .credentialsProvider(StaticCredentialsProvider.create(
-                        AwsBasicCredentials.create(s3Config.getAccessKey(), s3Config.getSecretKey())
-                ))
-                .build()) {
-            ListObjectsV2Request listReq = ListObjectsV2Request.builder()
-                    .bucket(bucket)
-                    .prefix(prefix)
-                    .build();
-            ListObjectsV2Response listRes = s3.listObjectsV2(listReq);
-            boolean found = false;
-            for (S3Object obj : listRes.contents()) {
-                String key = obj.key();
-                if (key.endsWith(".jl") && !key.endsWith("_processed.jl") && !key.endsWith(".processing")) {
-                    found = true;
-                    futures.add(executor.submit(() -> {
-                        String threadName = Thread.currentThread().getName();
-                        logger.info("[{}] Attempting to pick S3 file for processing: {}", threadName, key);
-                        String processingKey = key.replaceFirst("\\.jl$", ".processing");
-                        // Try to move (rename) the file to .processing as a distributed lock
-                        try {
-                            CopyObjectRequest copyToProcessing = CopyObjectRequest.builder()
-                                .sourceBucket(bucket)
-                                .sourceKey(key)
-                                .destinationBucket(bucket)
-                                .destinationKey(processingKey)
-                                .build();
-                            s3.copyObject(copyToProcessing);
-                            s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
-                            logger.info("[{}] Renamed S3 file {} to {} for processing", threadName, key, processingKey);
-                        } catch (Exception e) {
-                            logger.warn("[{}] Could not lock S3 file for processing (maybe already processing?): {}", threadName, key);
-                            return;
-                        }
-                        // Now process the .processing file
-                        String tempDirPath = folderConfig.getTempDir();
-                        Path tempFile;
-                        try {
-                            if (tempDirPath != null && !tempDirPath.isBlank()) {
-                                File tempDir = new File(tempDirPath);
-                                if (!tempDir.exists()) tempDir.mkdirs();
-                                tempFile = Files.createTempFile(tempDir.toPath(), "s3jl_", ".jl");
-                            } else {
-                                tempFile = Files.createTempFile("s3jl_", ".jl");
-                            }
-                            logger.info("[{}] bukket:  {},  key : {}, prefix: {}", threadName, bucket, processingKey, prefix);
-                            GetObjectRequest getReq = GetObjectRequest.builder().bucket(bucket).key(processingKey).build();
-                            try (software.amazon.awssdk.core.ResponseInputStream<software.amazon.awssdk.services.s3.model.GetObjectResponse> s3is = s3.getObject(getReq)) {
-                                Files.copy(s3is, tempFile, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-                            }
-                            logger.info("[{}] Downloaded S3 file: {} to {} (size: {} bytes)", threadName, processingKey, tempFile, Files.size(tempFile));
-                            // Process
-                            logger.info("[{}] Picked and processing S3 JL file: {}", threadName, tempFile.toAbsolutePath());
-                            parseAndImportJLFile(tempFile.toAbsolutePath().toString());
-                            // Rename/move in S3 to _processed.jl
-                            String processedKey = key.replaceFirst("\\.jl$", "_processed.jl");
-                            CopyObjectRequest copyToProcessed = CopyObjectRequest.builder()
-                                .sourceBucket(bucket)
-                                .sourceKey(processingKey)
-                                .destinationBucket(bucket)
-                                .destinationKey(processedKey)
-                                .build();
-                            s3.copyObject(copyToProcessed);
-                            s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(processingKey).build());
-                            logger.info("[{}] Renamed S3 file {} to {} after processing", threadName, processingKey, processedKey);
-                            // Delete temp file
-                            Files.deleteIfExists(tempFile);
-                        } catch (Exception e) {
-                            logger.error("[{}] Error processing S3 JL file {}: {}", threadName, processingKey, e.getMessage());
-                            // Optionally, move back to original name or leave as .processing for manual inspection
-                        }
-                    }));
-                }
-            }
-            if (!found) {
+        try {
+            S3Client s3 = s3ClientProvider.get();
+            // Each worker keeps claiming objects until a fresh listing has nothing left it can claim
+            Queue<S3WorkUnit> candidates = new ConcurrentLinkedQueue<>();
+            listS3Candidates(s3, bucket, prefix, candidates);
+            if (candidates.isEmpty()) {
                 logger.info("No new .jl files to be processed in S3 bucket {}/{}", bucket, prefix);
             }
+            for (int i = 0; i < threads; i++) {
+                importExecutor.trySubmit(() -> {
+                    S3WorkUnit unit;
+                    while ((unit = claimNextS3Unit(s3, bucket, prefix, candidates)) != null) {
+                        if (unit.range() == null) {
+                            processClaimedS3Object(s3, bucket, unit.obj());
+                        } else {
+                            processClaimedS3Range(s3, bucket, unit.obj(), unit.range());
+                        }
+                    }
+                }).ifPresent(futures::add);
+            }
             for (Future<?> f : futures) {
                 try { f.get(); } catch (Exception e) { logger.error("Error in S3 file processing thread: {}", e.getMessage()); }
             }
-            executor.shutdown();
         } catch (Exception e) {
             logger.error("Error processing JL files from S3", e);
         }
     }
 
+    /**
+     * An S3 object, or one byte range of it when the object is large enough to split.
+     */
+    private record S3WorkUnit(S3Object obj, ByteRange range) {
+        String claimKey(String bucket) {
+            return s3ClaimKey(bucket, obj) + (range == null ? "" : range.suffix());
+        }
+    }
+
+    private void listS3Candidates(S3Client s3, String bucket, String prefix, Queue<S3WorkUnit> candidates) {
+        ListObjectsV2Request listReq = ListObjectsV2Request.builder()
+                .bucket(bucket)
+                .prefix(prefix)
+                .build();
+        List<S3WorkUnit> found = new java.util.ArrayList<>();
+        for (S3Object obj : s3.listObjectsV2Paginator(listReq).contents()) {
+            String key = obj.key();
+            if (key.endsWith(".jl") && !key.endsWith("_processed.jl") && !key.endsWith("_rejected.jl")) {
+                if (isSplittable(obj.size())) {
+                    for (ByteRange range : ByteRange.split(obj.size(), splitConfig.getRangeBytes())) {
+                        found.add(new S3WorkUnit(obj, range));
+                    }
+                } else {
+                    found.add(new S3WorkUnit(obj, null));
+                }
+            }
+        }
+        // Shuffle so nodes listing at the same time start on different objects
+        java.util.Collections.shuffle(found);
+        candidates.addAll(found);
+    }
+
+    private S3WorkUnit claimNextS3Unit(S3Client s3, String bucket, String prefix, Queue<S3WorkUnit> candidates) {
+        for (int pass = 0; pass < 2; pass++) {
+            S3WorkUnit unit;
+            while ((unit = candidates.poll()) != null) {
+                if (workClaimService.tryClaim(unit.claimKey(bucket))) {
+                    return unit;
+                }
+            }
+            if (pass == 0) {
+                listS3Candidates(s3, bucket, prefix, candidates);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Claim key for an S3 object. The ETag is part of the key so a new upload under a
+     * previously processed name is picked up again.
+     */
+    static String s3ClaimKey(String bucket, S3Object obj) {
+        return "s3://" + bucket + "/" + obj.key() + "#" + obj.eTag();
+    }
+
+    private void processClaimedS3Object(S3Client s3, String bucket, S3Object obj) {
+        String key = obj.key();
+        String claimKey = s3ClaimKey(bucket, obj);
+        String threadName = Thread.currentThread().getName();
+        logger.info("[{}] Claimed S3 file {} as node {}", threadName, key, workClaimService.getNodeId());
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile(tempDir(), "s3jl_", ".jl");
+            GetObjectRequest getReq = GetObjectRequest.builder().bucket(bucket).key(key).ifMatch(obj.eTag()).build();
+            try (software.amazon.awssdk.core.ResponseInputStream<software.amazon.awssdk.services.s3.model.GetObjectResponse> s3is = s3.getObject(getReq)) {
+                Files.copy(s3is, tempFile, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+            }
+            logger.info("[{}] Downloaded S3 file: {} to {} (size: {} bytes)", threadName, key, tempFile, Files.size(tempFile));
+            // Process
+            Path rejectedTempFile = tempFile.resolveSibling(DeadLetterWriter.rejectedName(tempFile.getFileName().toString()));
+            ImportSummary summary = parseAndImportJLFile(tempFile.toAbsolutePath().toString(), rejectedTempFile);
+            uploadRejected(s3, bucket, rejectedTempFile, DeadLetterWriter.rejectedName(key));
+            requireComplete(summary);
+            markS3Processed(s3, bucket, key);
+            workClaimService.complete(claimKey);
+        } catch (Exception e) {
+            logger.error("[{}] Error processing S3 JL file {}: {}", threadName, key, e.getMessage());
+            // Claim stays FAILED for manual inspection; the object keeps its original key
+            workClaimService.fail(claimKey);
+        } finally {
+            if (tempFile != null) {
+                try { Files.deleteIfExists(tempFile); } catch (Exception ignored) { }
+            }
+        }
+    }
+
+    /**
+     * Streams one byte range of an S3 object with a ranged GET; nothing is downloaded to disk.
+     * The object is renamed to _processed.jl by whichever worker completes the last range.
+     */
+    private void processClaimedS3Range(S3Client s3, String bucket, S3Object obj, ByteRange range) {
+        String key = obj.key();
+        String baseKey = s3ClaimKey(bucket, obj);
+        String claimKey = baseKey + range.suffix();
+        String threadName = Thread.currentThread().getName();
+        String sourceName = "s3://" + bucket + "/" + key + range.suffix();
+        logger.info("[{}] Claimed S3 range {} ({}/{}) as node {}", threadName, sourceName, range.index() + 1, range.total(), workClaimService.getNodeId());
+        long from = range.start() == 0 ? 0 : range.start() - 1;
+        GetObjectRequest getReq = GetObjectRequest.builder().bucket(bucket).key(key).ifMatch(obj.eTag())
+                .range("bytes=" + from + "-").build();
+        try {
+            Path rejectedTempFile = tempDir().resolve("s3jl_" + UUID.randomUUID() + "_rejected.jl");
+            ImportSummary summary;
+            try (software.amazon.awssdk.core.ResponseInputStream<software.amazon.awssdk.services.s3.model.GetObjectResponse> s3is = s3.getObject(getReq)) {
+                summary = importLines(new RangeLineReader(s3is, range), sourceName, rejectedTempFile);
+                // Stop the transfer instead of draining the rest of the object
+                s3is.abort();
+            }
+            uploadRejected(s3, bucket, rejectedTempFile, range.rejectedName(key));
+            requireComplete(summary);
+            workClaimService.complete(claimKey);
+        } catch (Exception e) {
+            logger.error("[{}] Error processing S3 range {}: {}", threadName, sourceName, e.getMessage());
+            workClaimService.fail(claimKey);
+            return;
+        }
+        List<String> rangeKeys = ByteRange.split(obj.size(), splitConfig.getRangeBytes()).stream()
+                .map(r -> baseKey + r.suffix()).toList();
+        workClaimService.finalizeWhenDone(rangeKeys, baseKey + "@finalize", () -> markS3Processed(s3, bucket, key));
+    }
+
+    /**
+     * Fails the caller's file or claim when lines of the source could not be written, so it
+     * is not marked processed; the lines that were lost are in its rejected file.
+     */
+    private static void requireComplete(ImportSummary summary) {
+        if (!summary.isComplete()) {
+            throw new IllegalStateException("Import of " + summary.getSource() + " incomplete: " + summary.getFailure());
+        }
+    }
+
+    private void uploadRejected(S3Client s3, String bucket, Path rejectedTempFile, String rejectedKey) throws java.io.IOException {
+        if (!Files.exists(rejectedTempFile)) return;
+        s3.putObject(PutObjectRequest.builder().bucket(bucket).key(rejectedKey).build(), RequestBody.fromFile(rejectedTempFile));
+        logger.info("Uploaded rejected lines to S3 key {}", rejectedKey);
+        Files.deleteIfExists(rejectedTempFile);
+    }
+
+    private void markS3Processed(S3Client s3, String bucket, String key) {
+        // Rename/move in S3 to _processed.jl
+        String processedKey = key.replaceFirst("\\.jl$", "_processed.jl");
+        CopyObjectRequest copyToProcessed = CopyObjectRequest.builder()
+            .sourceBucket(bucket)
+            .sourceKey(key)
+            .destinationBucket(bucket)
+            .destinationKey(processedKey)
+            .build();
+        s3.copyObject(copyToProcessed);
+        s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+        logger.info("Renamed S3 file {} to {} after processing", key, processedKey);
+    }
+
+    private Path tempDir() throws java.io.IOException {
+        return tempDir(folderConfig);
+    }
+
+    static Path tempDir(JLImportFolderConfig folderConfig) throws java.io.IOException {
+        String tempDirPath = folderConfig.getTempDir();
+        if (tempDirPath == null || tempDirPath.isBlank()) {
+            return Paths.get(System.getProperty("java.io.tmpdir"));
+        }
+        return Files.createDirectories(Paths.get(tempDirPath));
+    }
+
     @Transactional
     public void processReviewLine(String line, int lineNumber) {
         try {
@@ -369,19 +781,8 @@ public class ReviewImportService {
     }
 
     private boolean validateRequiredFields(JsonNode root, int lineNumber) {
-        StringBuilder missing = new StringBuilder();
-        for (String field : requiredFieldsConfig.getTopLevel()) {
-            if (!root.hasNonNull(field)) missing.append(field).append(", ");
-        }
-        if (missing.length() > 0) {
-            logger.error("Line {}: Missing required fields: {} Skipping.", lineNumber, missing);
-            return false;
-        }
-        JsonNode comment = root.get("comment");
-        for (String field : requiredFieldsConfig.getComment()) {
-            if (!comment.hasNonNull(field)) missing.append("comment.").append(field).append(", ");
-        }
-        if (missing.length() > 0) {
+        String missing = recordMapper.missingRequiredFields(recordMapper.read(root));
+        if (missing != null) {
             logger.error("Line {}: Missing required fields: {} Skipping.", lineNumber, missing);
             return false;
         }
@@ -403,126 +804,189 @@ public class ReviewImportService {
     }
 
     private Reviewer upsertReviewer(JsonNode reviewerInfo) {
-        String displayName = reviewerInfo.hasNonNull("displayMemberName") ? reviewerInfo.get("displayMemberName").asText() : null;
-        String countryName = reviewerInfo.hasNonNull("countryName") ? reviewerInfo.get("countryName").asText() : null;
-        String flagName = reviewerInfo.hasNonNull("flagName") ? reviewerInfo.get("flagName").asText() : null;
-        String reviewGroupName = reviewerInfo.hasNonNull("reviewGroupName") ? reviewerInfo.get("reviewGroupName").asText() : null;
-        String roomTypeName = reviewerInfo.hasNonNull("roomTypeName") ? reviewerInfo.get("roomTypeName").asText() : null;
-        Integer countryId = reviewerInfo.hasNonNull("countryId") ? reviewerInfo.get("countryId").asInt() : null;
-        Integer lengthOfStay = reviewerInfo.hasNonNull("lengthOfStay") ? reviewerInfo.get("lengthOfStay").asInt() : null;
-        Integer reviewGroupId = reviewerInfo.hasNonNull("reviewGroupId") ? reviewerInfo.get("reviewGroupId").asInt() : null;
-        Integer roomTypeId = reviewerInfo.hasNonNull("roomTypeId") ? reviewerInfo.get("roomTypeId").asInt() : null;
-        Integer reviewedCount = reviewerInfo.hasNonNull("reviewerReviewedCount") ? reviewerInfo.get("reviewerReviewedCount").asInt() : null;
-        Boolean isExpertReviewer = reviewerInfo.hasNonNull("isExpertReviewer") ? reviewerInfo.get("isExpertReviewer").asBoolean() : null;
-        Boolean isShowGlobalIcon = reviewerInfo.hasNonNull("isShowGlobalIcon") ? reviewerInfo.get("isShowGlobalIcon").asBoolean() : null;
-        Boolean isShowReviewedCount = reviewerInfo.hasNonNull("isShowReviewedCount") ? reviewerInfo.get("isShowReviewedCount").asBoolean() : null;
-
-        // Try to find an existing reviewer by all unique fields (or just displayName/countryName if no id)
-        Optional<Reviewer> existing = reviewerRepository.findAll().stream()
-                .filter(r -> r.getDisplayName() != null && r.getDisplayName().equals(displayName)
-                        && r.getCountryName() != null && r.getCountryName().equals(countryName))
-                .findFirst();
-        if (existing.isPresent()) return existing.get();
-        Reviewer reviewer = Reviewer.builder()
-                .displayName(displayName)
-                .countryName(countryName)
-                .flagName(flagName)
-                .reviewGroupName(reviewGroupName)
-                .roomTypeName(roomTypeName)
-                .countryId(countryId)
-                .lengthOfStay(lengthOfStay)
-                .reviewGroupId(reviewGroupId)
-                .roomTypeId(roomTypeId)
-                .reviewedCount(reviewedCount)
-                .isExpertReviewer(isExpertReviewer)
-                .isShowGlobalIcon(isShowGlobalIcon)
-                .isShowReviewedCount(isShowReviewedCount)
-                .build();
-        return reviewerRepository.save(reviewer);
+        return upsertReviewer(recordMapper.mapReviewer(reviewerInfo));
+    }
+
+    private Reviewer upsertReviewer(Reviewer candidate) {
+        String displayName = candidate.getDisplayName();
+        String countryName = candidate.getCountryName();
+        // Reviewers have no source id; displayName + countryName is the natural key (idx_reviewer_natural_key)
+        if (displayName != null && countryName != null) {
+            Optional<Reviewer> existing = reviewerRepository.findFirstByDisplayNameAndCountryName(displayName, countryName);
+            if (existing.isPresent()) return existing.get();
+        }
+        return reviewerRepository.save(candidate);
     }
 
     private Review mapReview(JsonNode comment, Long reviewId, Hotel hotel, Provider provider, Reviewer reviewer) {
-        return Review.builder()
-                .id(reviewId)
-                .hotel(hotel)
-                .provider(provider)
-                .reviewer(reviewer)
-                .rating(comment.hasNonNull("rating") ? comment.get("rating").asDouble() : null)
-                .checkInMonthYear(comment.hasNonNull("checkInDateMonthAndYear") ? comment.get("checkInDateMonthAndYear").asText() : null)
-                .encryptedReviewData(comment.hasNonNull("encryptedReviewData") ? comment.get("encryptedReviewData").asText() : null)
-                .formattedRating(comment.hasNonNull("formattedRating") ? comment.get("formattedRating").asText() : null)
-                .formattedReviewDate(comment.hasNonNull("formattedReviewDate") ? comment.get("formattedReviewDate").asText() : null)
-                .ratingText(comment.hasNonNull("ratingText") ? comment.get("ratingText").asText() : null)
-                .responderName(comment.hasNonNull("responderName") ? comment.get("responderName").asText() : null)
-                .responseDateText(comment.hasNonNull("responseDateText") ? comment.get("responseDateText").asText() : null)
-                .responseTranslateSource(comment.hasNonNull("responseTranslateSource") ? comment.get("responseTranslateSource").asText() : null)
-                .reviewComments(comment.hasNonNull("reviewComments") ? comment.get("reviewComments").asText() : null)
-                .reviewNegatives(comment.hasNonNull("reviewNegatives") ? comment.get("reviewNegatives").asText() : null)
-                .reviewPositives(comment.hasNonNull("reviewPositives") ? comment.get("reviewPositives").asText() : null)
-                .reviewProviderLogo(comment.hasNonNull("reviewProviderLogo") ? comment.get("reviewProviderLogo").asText() : null)
-                .reviewProviderText(comment.hasNonNull("reviewProviderText") ? comment.get("reviewProviderText").asText() : null)
-                .reviewTitle(comment.hasNonNull("reviewTitle") ? comment.get("reviewTitle").asText() : null)
-                .translateSource(comment.hasNonNull("translateSource") ? comment.get("translateSource").asText() : null)
-                .translateTarget(comment.hasNonNull("translateTarget") ? comment.get("translateTarget").asText() : null)
-                .reviewDate(comment.hasNonNull("reviewDate") ? parseDate(comment.get("reviewDate").asText()) : null)
-                .originalTitle(comment.hasNonNull("originalTitle") ? comment.get("originalTitle").asText() : null)
-                .originalComment(comment.hasNonNull("originalComment") ? comment.get("originalComment").asText() : null)
-                .formattedResponseDate(comment.hasNonNull("formattedResponseDate") ? comment.get("formattedResponseDate").asText() : null)
-                .isShowReviewResponse(comment.hasNonNull("isShowReviewResponse") ? comment.get("isShowReviewResponse").asBoolean() : null)
-                .build();
+        return recordMapper.mapReview(comment, reviewId, hotel, provider, reviewer);
     }
 
-    private LocalDateTime parseDate(String dateStr) {
+    /**
+     * Rewrites changed reviews. Their grade and overall-by-provider rows are replaced
+     * first and the review rows, which carry the new content hash, last: a review whose
+     * row fails keeps its old hash and is rewritten by its next import.
+     */
+    private void flushUpdates(ReviewBatch updates, DeadLetterSink deadLetters, int lane) {
+        if (updates.isEmpty()) return;
+        List<ReviewGrades> writtenGrades = updates.allGrades();
+        List<ReviewGrades> removedGrades = new java.util.ArrayList<>();
+        boolean derivedReplaced = false;
         try {
-            return LocalDateTime.parse(dateStr, ISO_DATE_TIME);
-        } catch (Exception e) {
-            logger.warn("Failed to parse date: {}", dateStr);
-            return null;
+            try {
+                removedGrades.addAll(replaceDerived(lane, updates.replaced, updates.reviews, writtenGrades,
+                        updates.allOverallByProviders()));
+                derivedReplaced = true;
+                writerLanes.retryOnLockFailure(lane, () -> reviewRepository.saveAll(updates.reviews));
+                deadLetters.getSummary().recordUpdated(updates.size());
+                afterUpdate(updates.replaced, updates.reviews, removedGrades, writtenGrades);
+            } catch (Exception batchEx) {
+                logger.error("Batch update failed for {} reviews, retrying individually: {}", updates.size(), batchEx.getMessage());
+                List<Review> before = new java.util.ArrayList<>();
+                List<Review> after = new java.util.ArrayList<>();
+                if (!derivedReplaced) writtenGrades = new java.util.ArrayList<>();
+                for (int i = 0; i < updates.size(); i++) {
+                    Review review = updates.reviews.get(i);
+                    try {
+                        if (!derivedReplaced) {
+                            removedGrades.addAll(replaceDerived(lane, List.of(updates.replaced.get(i)), List.of(review),
+                                    updates.grades.get(i), updates.overallByProviders.get(i)));
+                            writtenGrades.addAll(updates.grades.get(i));
+                        }
+                        reviewRepository.save(review);
+                    } catch (Exception ex) {
+                        deadLetters.reject(updates.lineNumbers.get(i), updates.rawLines.get(i), "review_update_failed", String.valueOf(ex.getMessage()));
+                        continue;
+                    }
+                    before.add(updates.replaced.get(i));
+                    after.add(review);
+                }
+                deadLetters.getSummary().recordUpdated(after.size());
+                afterUpdate(before, after, removedGrades, writtenGrades);
+            }
+        } finally {
+            memoryBudget.release(updates.reservedBytes);
+            updates.clear();
         }
     }
 
-    private void saveBatchWithRetry(List<Review> reviewBatch, List<List<ReviewGrades>> gradesBatch, List<OverallByProvider> obpBatch) {
-        logger.info("Attempting batch insert for {} reviews...", reviewBatch.size());
+    private void flush(ReviewBatch batch, DeadLetterSink deadLetters, int lane) {
+        if (batch.isEmpty()) return;
         try {
-            reviewRepository.saveAll(reviewBatch);
-            // Flatten and save grades
-            List<ReviewGrades> allGrades = new java.util.ArrayList<>();
-            for (List<ReviewGrades> grades : gradesBatch) {
-                allGrades.addAll(grades);
-            }
-            if (!allGrades.isEmpty()) reviewGradesRepository.saveAll(allGrades);
-            if (!obpBatch.isEmpty()) overallByProviderRepository.saveAll(obpBatch);
-            logger.info("Batch insert successful for {} reviews.", reviewBatch.size());
+            saveBatchWithRetry(batch, deadLetters, lane);
+        } finally {
+            memoryBudget.release(batch.reservedBytes);
+            batch.clear();
+        }
+    }
+
+    private void saveBatchWithRetry(ReviewBatch batch, DeadLetterSink deadLetters, int lane) {
+        logger.debug("Attempting batch insert for {} reviews...", batch.size());
+        try {
+            // Reviews, grades and OBP rows each commit on their own; a deadlock only rolls back, and retries, that one.
+            // The batch sizer is told how long the statements took, not the backoff or the work after them
+            List<WriterLanes.Attempt> attempts = new java.util.ArrayList<>(3);
+            attempts.add(writerLanes.retryOnLockFailure(lane, () -> reviewRepository.saveAll(batch.reviews)));
+            List<ReviewGrades> allGrades = batch.allGrades();
+            if (!allGrades.isEmpty()) attempts.add(writerLanes.retryOnLockFailure(lane, () -> reviewGradesRepository.insertAll(allGrades)));
+            List<OverallByProvider> allObps = batch.allOverallByProviders();
+            if (!allObps.isEmpty()) attempts.add(writerLanes.retryOnLockFailure(lane, () -> overallByProviderRepository.insertAll(allObps)));
+            batchSizer.recordSuccess(batch.size(), batch.payloadBytes,
+                    attempts.stream().mapToLong(WriterLanes.Attempt::elapsedNanos).sum(),
+                    attempts.stream().mapToInt(WriterLanes.Attempt::lockRetries).sum());
+            afterWrite(batch.reviews, allGrades);
+            deadLetters.getSummary().recordAccepted(batch.size());
+            logger.info("Batch insert successful for {} reviews.", batch.size());
         } catch (Exception batchEx) {
-            logger.error("Batch insert failed for {} reviews, retrying individually: {}", reviewBatch.size(), batchEx.getMessage());
-            for (int i = 0; i < reviewBatch.size(); i++) {
-                Review review = reviewBatch.get(i);
+            logger.error("Batch insert failed for {} reviews, retrying individually: {}", batch.size(), batchEx.getMessage());
+            batchSizer.recordFailure(batch.size());
+            List<Review> saved = new java.util.ArrayList<>();
+            List<ReviewGrades> savedGrades = new java.util.ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                Review review = batch.reviews.get(i);
+                int lineNumber = batch.lineNumbers.get(i);
+                String rawLine = batch.rawLines.get(i);
                 try {
+                    // Merge: another writer may have stored the review since the chunk was sorted
+                    review.setNewEntity(false);
                     reviewRepository.save(review);
                 } catch (Exception ex) {
-                    logger.error("Failed to insert review {}: {}", review.getId(), ex.getMessage());
+                    deadLetters.reject(lineNumber, rawLine, "review_insert_failed", String.valueOf(ex.getMessage()));
                     continue;
                 }
+                deadLetters.getSummary().recordAccepted(1);
+                saved.add(review);
                 // Save grades for this review
-                List<ReviewGrades> grades = gradesBatch.get(i);
-                for (ReviewGrades grade : grades) {
+                for (ReviewGrades grade : batch.grades.get(i)) {
                     try {
                         reviewGradesRepository.save(grade);
+                        savedGrades.add(grade);
                     } catch (Exception ex) {
-                        logger.error("Failed to insert grade for review {}: {}", review.getId(), ex.getMessage());
+                        deadLetters.reject(lineNumber, rawLine, "grade_insert_failed", String.valueOf(ex.getMessage()));
                     }
                 }
                 // Save OBP for this review
-                for (OverallByProvider obp : obpBatch) {
-                    if (obp.getReview().equals(review)) {
-                        try {
-                            overallByProviderRepository.save(obp);
-                        } catch (Exception ex) {
-                            logger.error("Failed to insert OBP for review {}: {}", review.getId(), ex.getMessage());
-                        }
+                for (OverallByProvider obp : batch.overallByProviders.get(i)) {
+                    try {
+                        overallByProviderRepository.save(obp);
+                    } catch (Exception ex) {
+                        deadLetters.reject(lineNumber, rawLine, "obp_insert_failed", String.valueOf(ex.getMessage()));
                     }
                 }
             }
+            afterWrite(saved, savedGrades);
+        }
+    }
+
+    /**
+     * Replaces the grade and overall-by-provider rows of updated reviews and returns the
+     * grades it removed, each attached to its entry in {@code stored} (index-aligned with
+     * {@code reviews}) so the rollups can take it out of the stored review's bucket.
+     */
+    private List<ReviewGrades> replaceDerived(int lane, List<Review> stored, List<Review> reviews, List<ReviewGrades> grades,
+                                              List<OverallByProvider> obps) {
+        List<Long> ids = reviews.stream().map(Review::getId).toList();
+        List<ReviewGrades> removed = new java.util.ArrayList<>();
+        writerLanes.retryOnLockFailure(lane, () -> {
+            removed.clear();
+            removed.addAll(reviewGradesRepository.replaceAll(ids, grades));
+        });
+        writerLanes.retryOnLockFailure(lane, () -> overallByProviderRepository.replaceAll(ids, obps));
+        Map<Long, Review> storedById = new java.util.HashMap<>();
+        for (Review review : stored) storedById.put(review.getId(), review);
+        for (ReviewGrades grade : removed) grade.setReview(storedById.get(grade.getReview().getId()));
+        return removed;
+    }
+
+    private void afterUpdate(List<Review> before, List<Review> after, List<ReviewGrades> gradesBefore,
+                             List<ReviewGrades> gradesAfter) {
+        try {
+            ratingRollupService.recordChanged(before, after, gradesBefore, gradesAfter);
+        } catch (Exception e) {
+            logger.error("Failed to update rating rollups for {} updated reviews: {}", after.size(), e.getMessage());
+        }
+        leaderboardService.recordChanged(before, after, gradesBefore, gradesAfter);
+        try {
+            entityVersionService.recordWritten(after);
+        } catch (Exception e) {
+            logger.error("Failed to bump entity versions for {} updated reviews: {}", after.size(), e.getMessage());
+        }
+    }
+
+    private void afterWrite(List<Review> written, List<ReviewGrades> writtenGrades) {
+        // Rollups first, so a client revalidating on the new hotel version also sees the new buckets
+        try {
+            ratingRollupService.recordWritten(written, writtenGrades);
+        } catch (Exception e) {
+            // Rollups drift until the next --rebuild-rating-rollups; the reviews themselves are saved
+            logger.error("Failed to update rating rollups for {} reviews: {}", written.size(), e.getMessage());
+        }
+        leaderboardService.recordWritten(written, writtenGrades);
+        try {
+            entityVersionService.recordWritten(written);
+        } catch (Exception e) {
+            // The rows are already committed; a missed bump only delays cache invalidation until the next write
+            logger.error("Failed to bump entity versions for {} reviews: {}", written.size(), e.getMessage());
         }
     }
 } 
\ No newline at end of file
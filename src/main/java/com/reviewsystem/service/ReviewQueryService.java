@@ -0,0 +1,87 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.dto.OverallByProviderDTO;
+import com.reviewsystem.dto.ReviewDetailDTO;
+import com.reviewsystem.dto.ReviewWithGradesDTO;
+import com.reviewsystem.model.ReviewGrades;
+import com.reviewsystem.repository.OverallByProviderRepository;
+import com.reviewsystem.repository.ProviderScoreRow;
+import com.reviewsystem.repository.ReviewGradesRepository;
+import com.reviewsystem.repository.ReviewRepository;
+import com.reviewsystem.repository.ReviewSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read side for reviews and scores. Lists are built from {@link ReviewSummary} projections plus
+ * one grades query per chunk of reviews, so the LONGTEXT columns other than the
+ * comment are never read for a list; the detail view loads them on demand.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ReviewQueryService {
+    // Keeps the IN list of the grades query well below driver/packet limits
+    static final int GRADES_CHUNK_SIZE = 1000;
+
+    private final ReviewRepository reviewRepository;
+    private final ReviewGradesRepository reviewGradesRepository;
+    private final OverallByProviderRepository overallByProviderRepository;
+
+    public List<ReviewWithGradesDTO> findByReviewer(Long reviewerId) {
+        return withGrades(reviewRepository.findSummariesByReviewerId(reviewerId));
+    }
+
+    public List<ReviewWithGradesDTO> findByHotel(Long hotelId) {
+        return withGrades(reviewRepository.findSummariesByHotelId(hotelId));
+    }
+
+    public Optional<ReviewDetailDTO> findDetail(Long reviewId) {
+        // LONGTEXT columns and grades are fetched lazily while the DTO is built
+        return reviewRepository.findById(reviewId).map(ReviewDetailDTO::new);
+    }
+
+    /**
+     * Latest score per provider for each hotel, keyed in request order; hotels without
+     * scores map to an empty list. One query regardless of the number of hotels.
+     */
+    public Map<Long, List<OverallByProviderDTO>> latestOverallByProvider(Collection<Long> hotelIds) {
+        Map<Long, List<OverallByProviderDTO>> byHotel = new LinkedHashMap<>();
+        for (Long hotelId : hotelIds) {
+            if (hotelId != null) byHotel.putIfAbsent(hotelId, new ArrayList<>());
+        }
+        if (byHotel.isEmpty()) return byHotel;
+        for (ProviderScoreRow row : overallByProviderRepository.findLatestByHotelIds(byHotel.keySet())) {
+            byHotel.get(row.getHotelId()).add(new OverallByProviderDTO(row));
+        }
+        return byHotel;
+    }
+
+    private List<ReviewWithGradesDTO> withGrades(List<ReviewSummary> summaries) {
+        List<Long> ids = new ArrayList<>(summaries.size());
+        for (ReviewSummary s : summaries) ids.add(s.getReviewId());
+
+        Map<Long, List<ReviewGrades>> gradesByReview = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += GRADES_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + GRADES_CHUNK_SIZE));
+            for (ReviewGrades g : reviewGradesRepository.findByReview_IdIn(chunk)) {
+                gradesByReview.computeIfAbsent(g.getReview().getId(), k -> new ArrayList<>()).add(g);
+            }
+        }
+
+        List<ReviewWithGradesDTO> dtos = new ArrayList<>(summaries.size());
+        for (ReviewSummary s : summaries) {
+            dtos.add(new ReviewWithGradesDTO(s, gradesByReview.getOrDefault(s.getReviewId(), new ArrayList<>())));
+        }
+        return dtos;
+    }
+}
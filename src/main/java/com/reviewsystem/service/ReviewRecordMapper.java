@@ -0,0 +1,433 @@
+package com.reviewsystem.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.reviewsystem.config.JLImportRequiredFieldsConfig;
+import com.reviewsystem.config.JLImportTextCompressionConfig;
+import com.reviewsystem.model.Hotel;
+import com.reviewsystem.model.Provider;
+import com.reviewsystem.model.Review;
+import com.reviewsystem.model.Reviewer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import net.jpountz.xxhash.XXHash64;
+import net.jpountz.xxhash.XXHashFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.text.ParsePosition;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps JL records to entities through accessors compiled once at startup. Every JSON
+ * object (top level, comment, reviewerInfo) is read in a single pass into a slot array
+ * indexed by the fields we know about; required-field checks and entity mapping then
+ * use fixed slot indices instead of looking field names up again on every line.
+ * Low-cardinality text fields are canonicalized through {@link StringCanonicalizer}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReviewRecordMapper {
+    private static final Logger logger = LogManager.getLogger(ReviewRecordMapper.class);
+    private static final DateTimeFormatter ISO_DATE_TIME = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+    private static final XXHash64 XX_HASH = XXHashFactory.fastestInstance().hash64();
+    // Changing the seed makes every stored hash stale
+    private static final long CONTENT_HASH_SEED = 0;
+
+    private static final List<FieldMapping<Review.ReviewBuilder>> REVIEW_FIELDS = List.of(
+            new FieldMapping<>("rating", (b, v, s) -> b.rating(v.asDouble())),
+            new FieldMapping<>("checkInDateMonthAndYear", (b, v, s) -> b.checkInMonthYear(v.asText())),
+            new FieldMapping<>("encryptedReviewData", (b, v, s) -> b.encryptedReviewData(v.asText())),
+            new FieldMapping<>("formattedRating", (b, v, s) -> b.formattedRating(v.asText())),
+            new FieldMapping<>("formattedReviewDate", (b, v, s) -> b.formattedReviewDate(v.asText())),
+            new FieldMapping<>("ratingText", (b, v, s) -> b.ratingText(s.canonical(v.asText()))),
+            new FieldMapping<>("responderName", (b, v, s) -> b.responderName(v.asText())),
+            new FieldMapping<>("responseDateText", (b, v, s) -> b.responseDateText(v.asText())),
+            new FieldMapping<>("responseTranslateSource", (b, v, s) -> b.responseTranslateSource(v.asText())),
+            new FieldMapping<>("reviewComments", (b, v, s) -> b.reviewComments(v.asText())),
+            new FieldMapping<>("reviewNegatives", (b, v, s) -> b.reviewNegatives(v.asText())),
+            new FieldMapping<>("reviewPositives", (b, v, s) -> b.reviewPositives(v.asText())),
+            new FieldMapping<>("reviewProviderLogo", (b, v, s) -> b.reviewProviderLogo(s.canonical(v.asText()))),
+            new FieldMapping<>("reviewProviderText", (b, v, s) -> b.reviewProviderText(s.canonical(v.asText()))),
+            new FieldMapping<>("reviewTitle", (b, v, s) -> b.reviewTitle(v.asText())),
+            new FieldMapping<>("translateSource", (b, v, s) -> b.translateSource(s.canonical(v.asText()))),
+            new FieldMapping<>("translateTarget", (b, v, s) -> b.translateTarget(s.canonical(v.asText()))),
+            new FieldMapping<>("reviewDate", (b, v, s) -> b.reviewDate(parseDate(v.asText()))),
+            new FieldMapping<>("originalTitle", (b, v, s) -> b.originalTitle(v.asText())),
+            new FieldMapping<>("originalComment", (b, v, s) -> b.originalComment(v.asText())),
+            new FieldMapping<>("formattedResponseDate", (b, v, s) -> b.formattedResponseDate(v.asText())),
+            new FieldMapping<>("isShowReviewResponse", (b, v, s) -> b.isShowReviewResponse(v.asBoolean())));
+
+    private static final List<FieldMapping<Reviewer.ReviewerBuilder>> REVIEWER_FIELDS = List.of(
+            new FieldMapping<>("displayMemberName", (b, v, s) -> b.displayName(v.asText())),
+            new FieldMapping<>("countryName", (b, v, s) -> b.countryName(s.canonical(v.asText()))),
+            new FieldMapping<>("flagName", (b, v, s) -> b.flagName(s.canonical(v.asText()))),
+            new FieldMapping<>("reviewGroupName", (b, v, s) -> b.reviewGroupName(v.asText())),
+            new FieldMapping<>("roomTypeName", (b, v, s) -> b.roomTypeName(s.canonical(v.asText()))),
+            new FieldMapping<>("countryId", (b, v, s) -> b.countryId(v.asInt())),
+            new FieldMapping<>("lengthOfStay", (b, v, s) -> b.lengthOfStay(v.asInt())),
+            new FieldMapping<>("reviewGroupId", (b, v, s) -> b.reviewGroupId(v.asInt())),
+            new FieldMapping<>("roomTypeId", (b, v, s) -> b.roomTypeId(v.asInt())),
+            new FieldMapping<>("reviewerReviewedCount", (b, v, s) -> b.reviewedCount(v.asInt())),
+            new FieldMapping<>("isExpertReviewer", (b, v, s) -> b.isExpertReviewer(v.asBoolean())),
+            new FieldMapping<>("isShowGlobalIcon", (b, v, s) -> b.isShowGlobalIcon(v.asBoolean())),
+            new FieldMapping<>("isShowReviewedCount", (b, v, s) -> b.isShowReviewedCount(v.asBoolean())));
+
+    private final JLImportRequiredFieldsConfig requiredFieldsConfig;
+    private final StringCanonicalizer strings;
+    private final JLImportTextCompressionConfig compressionConfig;
+
+    private FieldIndex topLevel;
+    private FieldIndex comment;
+    private FieldIndex reviewerInfo;
+    private int[] reviewSlots;
+    private int[] reviewerSlots;
+    private String[] requiredTopLevel;
+    private int[] requiredTopLevelSlots;
+    private String[] requiredComment;
+    private int[] requiredCommentSlots;
+    private int hotelIdSlot;
+    private int hotelNameSlot;
+    private int commentSlot;
+    private int overallByProvidersSlot;
+    private int hotelReviewIdSlot;
+    private int providerIdSlot;
+    private int providerTextSlot;
+    private int reviewerInfoSlot;
+    private int reviewDateSlot;
+
+    private record FieldMapping<B>(String field, FieldSetter<B> setter) {}
+
+    @FunctionalInterface
+    private interface FieldSetter<B> {
+        void set(B builder, JsonNode value, StringCanonicalizer strings);
+    }
+
+    /**
+     * Field values of one JL line, by slot. A null slot means the field was absent.
+     */
+    public static final class Record {
+        final JsonNode[] top;
+        final JsonNode[] comment;
+
+        private Record(JsonNode[] top, JsonNode[] comment) {
+            this.top = top;
+            this.comment = comment;
+        }
+    }
+
+    @PostConstruct
+    public void compile() {
+        topLevel = new FieldIndex();
+        hotelIdSlot = topLevel.slot("hotelId");
+        hotelNameSlot = topLevel.slot("hotelName");
+        commentSlot = topLevel.slot("comment");
+        overallByProvidersSlot = topLevel.slot("overallByProviders");
+        requiredTopLevel = requiredFieldsConfig.getTopLevel().toArray(new String[0]);
+        requiredTopLevelSlots = topLevel.slots(requiredTopLevel);
+
+        comment = new FieldIndex();
+        hotelReviewIdSlot = comment.slot("hotelReviewId");
+        providerIdSlot = comment.slot("providerId");
+        providerTextSlot = comment.slot("reviewProviderText");
+        reviewerInfoSlot = comment.slot("reviewerInfo");
+        reviewDateSlot = comment.slot("reviewDate");
+        reviewSlots = comment.slots(REVIEW_FIELDS.stream().map(FieldMapping::field).toArray(String[]::new));
+        requiredComment = requiredFieldsConfig.getComment().toArray(new String[0]);
+        requiredCommentSlots = comment.slots(requiredComment);
+
+        reviewerInfo = new FieldIndex();
+        reviewerSlots = reviewerInfo.slots(REVIEWER_FIELDS.stream().map(FieldMapping::field).toArray(String[]::new));
+        logger.info("Compiled record mapper: {} top-level, {} comment, {} reviewer slots",
+                topLevel.size(), comment.size(), reviewerInfo.size());
+    }
+
+    public Record read(JsonNode root) {
+        JsonNode[] top = topLevel.read(root);
+        JsonNode commentNode = top[commentSlot];
+        return new Record(top, commentNode != null && commentNode.isObject() ? comment.read(commentNode) : null);
+    }
+
+    /**
+     * Comma separated list of missing required fields (same format as before), or null when complete.
+     */
+    public String missingRequiredFields(Record record) {
+        StringBuilder missing = null;
+        for (int i = 0; i < requiredTopLevelSlots.length; i++) {
+            if (!present(record.top[requiredTopLevelSlots[i]])) {
+                if (missing == null) missing = new StringBuilder();
+                missing.append(requiredTopLevel[i]).append(", ");
+            }
+        }
+        if (missing != null) {
+            return missing.toString();
+        }
+        if (record.comment == null) {
+            return "comment, ";
+        }
+        for (int i = 0; i < requiredCommentSlots.length; i++) {
+            if (!present(record.comment[requiredCommentSlots[i]])) {
+                if (missing == null) missing = new StringBuilder();
+                missing.append("comment.").append(requiredComment[i]).append(", ");
+            }
+        }
+        return missing == null ? null : missing.toString();
+    }
+
+    public long hotelId(Record record) {
+        return require(record.top, hotelIdSlot, "hotelId").asLong();
+    }
+
+    public String hotelName(Record record) {
+        JsonNode name = require(record.top, hotelNameSlot, "hotelName");
+        return name.isNull() ? null : name.asText();
+    }
+
+    public long reviewId(Record record) {
+        return require(record.comment, hotelReviewIdSlot, "comment.hotelReviewId").asLong();
+    }
+
+    public long providerId(Record record) {
+        return require(record.comment, providerIdSlot, "comment.providerId").asLong();
+    }
+
+    public String providerName(Record record) {
+        return require(record.comment, providerTextSlot, "comment.reviewProviderText").asText();
+    }
+
+    /**
+     * Raw comment.reviewDate text, or null when absent.
+     */
+    public String reviewDate(Record record) {
+        JsonNode date = record.comment == null ? null : record.comment[reviewDateSlot];
+        return present(date) ? date.asText() : null;
+    }
+
+    /**
+     * 64-bit hash of everything the import stores for the review: hotel, provider, the
+     * mapped comment and reviewer fields, absent fields included, and the
+     * overall-by-provider rows with their grades in line order.
+     */
+    public long contentHash(Record record) {
+        StringBuilder content = new StringBuilder(512);
+        content.append(hotelId(record)).append('\u0000').append(providerId(record));
+        for (int slot : reviewSlots) {
+            appendField(content, record.comment[slot]);
+        }
+        JsonNode reviewerNode = record.comment[reviewerInfoSlot];
+        if (reviewerNode != null) {
+            JsonNode[] reviewer = reviewerInfo.read(reviewerNode);
+            for (int slot : reviewerSlots) {
+                appendField(content, reviewer[slot]);
+            }
+        }
+        JsonNode overallByProviders = overallByProviders(record);
+        if (overallByProviders != null) {
+            for (JsonNode overall : overallByProviders) {
+                content.append('\u0002');
+                appendField(content, overall.get("providerId"));
+                appendField(content, overall.get("provider"));
+                appendField(content, overall.get("overallScore"));
+                appendField(content, overall.get("reviewCount"));
+                Iterator<Map.Entry<String, JsonNode>> grades = overall.path("grades").fields();
+                while (grades.hasNext()) {
+                    Map.Entry<String, JsonNode> grade = grades.next();
+                    content.append('\u0003').append(grade.getKey());
+                    appendField(content, grade.getValue());
+                }
+            }
+        }
+        byte[] bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+        return XX_HASH.hash(bytes, 0, bytes.length, CONTENT_HASH_SEED);
+    }
+
+    private static void appendField(StringBuilder content, JsonNode value) {
+        // \u0001 marks an absent field, so a missing and an empty value differ
+        content.append('\u0000').append(present(value) ? value.asText() : "\u0001");
+    }
+
+    public String canonical(String value) {
+        return strings.canonical(value);
+    }
+
+    /**
+     * Estimated heap a pending record keeps alive: its slot arrays and the JSON subtrees of
+     * the mapped top-level fields (the comment slots point into the comment subtree).
+     */
+    public long retainedBytes(Record record) {
+        long bytes = MemoryBudget.arrayBytes(record.top.length)
+                + (record.comment == null ? 0 : MemoryBudget.arrayBytes(record.comment.length));
+        for (JsonNode value : record.top) {
+            if (value != null) bytes += MemoryBudget.treeBytes(value);
+        }
+        return bytes;
+    }
+
+    public JsonNode overallByProviders(Record record) {
+        return record.top[overallByProvidersSlot];
+    }
+
+    public Reviewer mapReviewer(Record record) {
+        return mapReviewer(require(record.comment, reviewerInfoSlot, "comment.reviewerInfo"));
+    }
+
+    public Reviewer mapReviewer(JsonNode reviewerInfoNode) {
+        JsonNode[] values = reviewerInfo.read(reviewerInfoNode);
+        Reviewer.ReviewerBuilder builder = Reviewer.builder();
+        for (int i = 0; i < reviewerSlots.length; i++) {
+            JsonNode value = values[reviewerSlots[i]];
+            if (present(value)) REVIEWER_FIELDS.get(i).setter().set(builder, value, strings);
+        }
+        return builder.build();
+    }
+
+    public Review mapReview(Record record, Long reviewId, Hotel hotel, Provider provider, Reviewer reviewer) {
+        return mapReview(record.comment, reviewId, hotel, provider, reviewer);
+    }
+
+    public Review mapReview(JsonNode commentNode, Long reviewId, Hotel hotel, Provider provider, Reviewer reviewer) {
+        return mapReview(comment.read(commentNode), reviewId, hotel, provider, reviewer);
+    }
+
+    private Review mapReview(JsonNode[] values, Long reviewId, Hotel hotel, Provider provider, Reviewer reviewer) {
+        Review.ReviewBuilder builder = Review.builder()
+                .id(reviewId)
+                .hotel(hotel)
+                .provider(provider)
+                .reviewer(reviewer)
+                .textFormat(compressionConfig.isEnabled() ? Review.TEXT_LZ4 : Review.TEXT_PLAIN);
+        for (int i = 0; i < reviewSlots.length; i++) {
+            JsonNode value = values[reviewSlots[i]];
+            if (present(value)) REVIEW_FIELDS.get(i).setter().set(builder, value, strings);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Parses an ISO offset date-time to its local date-time, or null when invalid.
+     * The common {@code yyyy-MM-ddTHH:mm:ss(Z|+HH:MM)} shape is parsed by hand; other
+     * shapes are checked with a non-throwing parse before the full formatter runs.
+     */
+    public static LocalDateTime parseDate(String dateStr) {
+        LocalDateTime parsed = tryParseDate(dateStr);
+        if (parsed == null) {
+            logger.warn("Failed to parse date: {}", dateStr);
+        }
+        return parsed;
+    }
+
+    /**
+     * {@link #parseDate(String)} without the warning, for callers that count failures themselves.
+     */
+    public static LocalDateTime tryParseDate(String dateStr) {
+        LocalDateTime fast = parseFixedOffsetDateTime(dateStr);
+        if (fast != null) {
+            return fast;
+        }
+        ParsePosition position = new ParsePosition(0);
+        if (ISO_DATE_TIME.parseUnresolved(dateStr, position) == null || position.getIndex() != dateStr.length()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(dateStr, ISO_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static LocalDateTime parseFixedOffsetDateTime(String s) {
+        int length = s.length();
+        if (length != 20 && length != 25) return null;
+        if (s.charAt(4) != '-' || s.charAt(7) != '-' || s.charAt(10) != 'T' || s.charAt(13) != ':' || s.charAt(16) != ':') {
+            return null;
+        }
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 2);
+        int day = digits(s, 8, 2);
+        int hour = digits(s, 11, 2);
+        int minute = digits(s, 14, 2);
+        int second = digits(s, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return null;
+        }
+        if (day > Month.of(month).length(Year.isLeap(year))) return null;
+        char sign = s.charAt(19);
+        if (length == 20) {
+            if (sign != 'Z') return null;
+        } else {
+            if ((sign != '+' && sign != '-') || s.charAt(22) != ':') return null;
+            int offsetHours = digits(s, 20, 2);
+            int offsetMinutes = digits(s, 23, 2);
+            if (offsetHours < 0 || offsetHours > 18 || offsetMinutes < 0 || offsetMinutes > 59
+                    || (offsetHours == 18 && offsetMinutes != 0)) {
+                return null;
+            }
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second);
+    }
+
+    private static int digits(String s, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean present(JsonNode value) {
+        return value != null && !value.isNull();
+    }
+
+    private static JsonNode require(JsonNode[] values, int slot, String field) {
+        JsonNode value = values == null ? null : values[slot];
+        if (value == null) {
+            throw new IllegalArgumentException("Missing field " + field);
+        }
+        return value;
+    }
+
+    /**
+     * Field name to slot index for one JSON object level. Built during {@link #compile()},
+     * read-only afterwards.
+     */
+    private static final class FieldIndex {
+        private final Map<String, Integer> slots = new HashMap<>();
+
+        int slot(String field) {
+            return slots.computeIfAbsent(field, f -> slots.size());
+        }
+
+        int[] slots(String[] fields) {
+            int[] result = new int[fields.length];
+            for (int i = 0; i < fields.length; i++) result[i] = slot(fields[i]);
+            return result;
+        }
+
+        int size() {
+            return slots.size();
+        }
+
+        JsonNode[] read(JsonNode node) {
+            JsonNode[] values = new JsonNode[slots.size()];
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                Integer slot = slots.get(field.getKey());
+                if (slot != null) values[slot] = field.getValue();
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.config.JLImportTextCompressionConfig;
+import com.reviewsystem.model.CompressedTextConverter;
+import com.reviewsystem.model.Review;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rewrites the review text columns of existing rows into the storage format selected
+ * by {@code jlimport.text-compression.enabled}: compresses plain rows when enabled,
+ * decompresses LZ4 rows when disabled (the rollback path).
+ * Rows are converted in id order, one batch per transaction, and selected by their
+ * {@code text_format} flag, so the migration can be stopped and rerun at any time
+ * and runs safely next to the import.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReviewTextMigrationService {
+    private static final Logger logger = LogManager.getLogger(ReviewTextMigrationService.class);
+    static final String[] TEXT_COLUMNS = {
+            "review_comments", "review_negatives", "review_positives", "original_title", "original_comment"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JLImportTextCompressionConfig compressionConfig;
+
+    /**
+     * Converts every row not yet in the configured format and returns the number of rows converted.
+     */
+    public long migrate() {
+        byte target = compressionConfig.isEnabled() ? Review.TEXT_LZ4 : Review.TEXT_PLAIN;
+        String select = "SELECT id, " + String.join(", ", TEXT_COLUMNS)
+                + ", text_format FROM review WHERE text_format <> ? AND id > ? ORDER BY id LIMIT ?";
+        String update = "UPDATE review SET " + String.join(" = ?, ", TEXT_COLUMNS)
+                + " = ?, text_format = ? WHERE id = ? AND text_format <> ?";
+
+        logger.info("Converting review text to format {} in batches of {}", target, compressionConfig.getMigrationBatchSize());
+        long converted = 0;
+        long lastId = Long.MIN_VALUE;
+        while (true) {
+            long afterId = lastId;
+            List<Object[]> rows = jdbcTemplate.query(select, (rs, i) -> {
+                Object[] row = new Object[TEXT_COLUMNS.length + 3];
+                byte from = rs.getByte(TEXT_COLUMNS.length + 2);
+                for (int c = 0; c < TEXT_COLUMNS.length; c++) {
+                    row[c] = convert(rs.getBytes(c + 2), from, target, compressionConfig.getMinBytes());
+                }
+                row[TEXT_COLUMNS.length] = target;
+                row[TEXT_COLUMNS.length + 1] = rs.getLong(1);
+                row[TEXT_COLUMNS.length + 2] = target;
+                return row;
+            }, target, afterId, compressionConfig.getMigrationBatchSize());
+            if (rows.isEmpty()) break;
+
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(update, rows));
+            converted += rows.size();
+            lastId = (Long) rows.get(rows.size() - 1)[TEXT_COLUMNS.length + 1];
+            logger.info("Converted {} review rows (last id {})", converted, lastId);
+            if (!pause()) break;
+        }
+        logger.info("Review text conversion finished: {} rows converted", converted);
+        return converted;
+    }
+
+    static byte[] convert(byte[] stored, byte from, byte target, int minBytes) {
+        if (stored == null) return null;
+        return CompressedTextConverter.encode(CompressedTextConverter.decode(stored, from), target == Review.TEXT_LZ4, minBytes);
+    }
+
+    private boolean pause() {
+        if (compressionConfig.getMigrationPauseMillis() <= 0) return true;
+        try {
+            Thread.sleep(compressionConfig.getMigrationPauseMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
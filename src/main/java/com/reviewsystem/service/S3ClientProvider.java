@@ -0,0 +1,54 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.config.JLImportS3Config;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+/**
+ * One S3 client for the whole process, built on first use rather than at startup,
+ * so a worker (or a folder-source instance that never talks to S3) does not pay for
+ * the SDK's HTTP client and credential setup before it can start importing.
+ */
+@Component
+@RequiredArgsConstructor
+public class S3ClientProvider {
+    private static final Logger logger = LogManager.getLogger(S3ClientProvider.class);
+
+    private final JLImportS3Config s3Config;
+
+    private volatile S3Client client;
+
+    public S3Client get() {
+        S3Client s3 = client;
+        if (s3 == null) {
+            synchronized (this) {
+                s3 = client;
+                if (s3 == null) {
+                    long start = System.nanoTime();
+                    s3 = S3Client.builder()
+                            .region(Region.of(s3Config.getRegion()))
+                            .credentialsProvider(StaticCredentialsProvider.create(
+                                    AwsBasicCredentials.create(s3Config.getAccessKey(), s3Config.getSecretKey())
+                            ))
+                            .build();
+                    client = s3;
+                    logger.info("S3 client for region {} created in {} ms", s3Config.getRegion(), (System.nanoTime() - start) / 1_000_000);
+                }
+            }
+        }
+        return s3;
+    }
+
+    @PreDestroy
+    void close() {
+        S3Client s3 = client;
+        if (s3 != null) s3.close();
+    }
+}
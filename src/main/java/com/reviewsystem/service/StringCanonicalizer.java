@@ -0,0 +1,66 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.config.JLImportStringDedupConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, concurrent canonicalization table for low-cardinality strings (language
+ * codes, rating texts, provider names, countries, room types, grade categories).
+ * Batches then share one instance per distinct value instead of a copy per review.
+ */
+@Component
+@RequiredArgsConstructor
+public class StringCanonicalizer {
+    private final JLImportStringDedupConfig dedupConfig;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, String> table = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        FunctionCounter.builder("jlimport.string.dedup.hits", hits, LongAdder::sum)
+                .description("Strings replaced by an existing canonical instance")
+                .register(meterRegistry);
+        FunctionCounter.builder("jlimport.string.dedup.misses", misses, LongAdder::sum)
+                .description("Strings not found in the canonicalization table")
+                .register(meterRegistry);
+        Gauge.builder("jlimport.string.dedup.size", table, ConcurrentHashMap::size)
+                .description("Distinct strings in the canonicalization table")
+                .register(meterRegistry);
+    }
+
+    public String canonical(String value) {
+        if (value == null || !dedupConfig.isEnabled() || value.length() > dedupConfig.getMaxLength()) {
+            return value;
+        }
+        String existing = table.get(value);
+        if (existing != null) {
+            hits.increment();
+            return existing;
+        }
+        misses.increment();
+        if (table.size() >= dedupConfig.getMaxEntries()) {
+            return value;
+        }
+        existing = table.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,158 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.config.JLImportLeaseConfig;
+import com.reviewsystem.model.WorkClaim;
+import com.reviewsystem.repository.WorkClaimRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Database-backed leases that decide which node owns a unit of work (an S3 object
+ * or a byte range of a large file).
+ * A claim is an insert into work_claim; a lease that is not renewed by its owner's
+ * heartbeat expires and can be stolen by another node. Finished work stays in the
+ * table as DONE so it is never picked up twice.
+ */
+@Service
+@RequiredArgsConstructor
+public class WorkClaimService {
+    private static final Logger logger = LogManager.getLogger(WorkClaimService.class);
+
+    private final WorkClaimRepository workClaimRepository;
+    private final JLImportLeaseConfig leaseConfig;
+
+    private final Set<String> held = ConcurrentHashMap.newKeySet();
+    private String nodeId;
+
+    @PostConstruct
+    void init() {
+        nodeId = leaseConfig.getNodeId();
+        if (nodeId == null || nodeId.isBlank()) {
+            String host;
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                host = "node";
+            }
+            nodeId = host + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+        logger.info("Work claims will be taken as node {}", nodeId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Claims the key for this node, stealing it if the previous owner's lease expired.
+     */
+    @Transactional
+    public boolean tryClaim(String claimKey) {
+        return claim(claimKey, false);
+    }
+
+    /**
+     * Like {@link #tryClaim}, but also takes back a key left FAILED, for work that is
+     * safe to redo (e.g. a resumed backfill run). DONE keys are never claimed again.
+     */
+    @Transactional
+    public boolean tryClaimOrRetry(String claimKey) {
+        return claim(claimKey, true);
+    }
+
+    private boolean claim(String claimKey, boolean retryFailed) {
+        int leaseSeconds = leaseConfig.getLeaseSeconds();
+        byte[] keyHash = WorkClaim.keyHash(claimKey);
+        boolean claimed = workClaimRepository.insertClaim(keyHash, claimKey, nodeId, leaseSeconds) == 1;
+        if (!claimed && workClaimRepository.stealExpired(keyHash, nodeId, leaseSeconds) == 1) {
+            logger.warn("Stole expired claim {}", claimKey);
+            claimed = true;
+        }
+        if (!claimed && retryFailed && workClaimRepository.retryFailed(keyHash, nodeId, leaseSeconds) == 1) {
+            logger.info("Retrying failed claim {}", claimKey);
+            claimed = true;
+        }
+        if (claimed) {
+            held.add(claimKey);
+        }
+        return claimed;
+    }
+
+    @Transactional
+    public void complete(String claimKey) {
+        finish(claimKey, WorkClaim.DONE);
+    }
+
+    /**
+     * Marks the claim failed; it is not retried automatically. Delete the row to requeue it.
+     */
+    @Transactional
+    public void fail(String claimKey) {
+        finish(claimKey, WorkClaim.FAILED);
+    }
+
+    /**
+     * Runs {@code finalizer} exactly once across all nodes, after every key in
+     * {@code partKeys} is DONE. Called by each worker that completes a part; only the
+     * one that sees all parts done and wins {@code finalizeKey} runs it.
+     */
+    public void finalizeWhenDone(Collection<String> partKeys, String finalizeKey, Runnable finalizer) {
+        finalizeWhenDone(partKeys, finalizeKey, false, finalizer);
+    }
+
+    /**
+     * As above; with {@code retryFailed}, a finalizer that failed earlier runs again.
+     */
+    public void finalizeWhenDone(Collection<String> partKeys, String finalizeKey, boolean retryFailed, Runnable finalizer) {
+        if (!partKeys.isEmpty() && workClaimRepository.countByKeyHashInAndStatus(keyHashes(partKeys), WorkClaim.DONE) < partKeys.size()) {
+            return;
+        }
+        if (!claim(finalizeKey, retryFailed)) {
+            return;
+        }
+        try {
+            finalizer.run();
+            complete(finalizeKey);
+        } catch (Exception e) {
+            logger.error("Finalizing {} failed: {}", finalizeKey, e.getMessage());
+            fail(finalizeKey);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jlimport.lease.heartbeat-millis:60000}")
+    @Transactional
+    public void heartbeat() {
+        if (held.isEmpty()) return;
+        List<byte[]> keys = keyHashes(held);
+        int renewed = workClaimRepository.heartbeat(keys, nodeId, leaseConfig.getLeaseSeconds());
+        if (renewed < keys.size()) {
+            logger.warn("Renewed {} of {} held claims; the others were stolen or finished", renewed, keys.size());
+        }
+    }
+
+    private static List<byte[]> keyHashes(Collection<String> claimKeys) {
+        List<byte[]> hashes = new ArrayList<>(claimKeys.size());
+        for (String claimKey : claimKeys) hashes.add(WorkClaim.keyHash(claimKey));
+        return hashes;
+    }
+
+    private void finish(String claimKey, String status) {
+        held.remove(claimKey);
+        if (workClaimRepository.finish(WorkClaim.keyHash(claimKey), nodeId, status) == 0) {
+            logger.warn("Claim {} was no longer owned by {} when marking it {}", claimKey, nodeId, status);
+        }
+    }
+}
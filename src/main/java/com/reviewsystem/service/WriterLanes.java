@@ -0,0 +1,160 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.config.JLImportWriterLanesConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hotel-affinity lanes for the import's write stage. Every hotel maps to one lane by
+ * consistent hashing, and the batches of one lane are written one at a time on this
+ * node, so concurrent imports never lock the same hotel's review, grade and
+ * overall-by-provider rows against each other. Batches of different lanes still run
+ * in parallel. Statements that lose a deadlock anyway (other nodes, readers) are
+ * retried here before the caller falls back to per-row writes.
+ */
+@Component
+@RequiredArgsConstructor
+public class WriterLanes {
+    private static final Logger logger = LogManager.getLogger(WriterLanes.class);
+    // MySQL: lock wait timeout, deadlock
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int ER_LOCK_DEADLOCK = 1213;
+
+    private final JLImportWriterLanesConfig lanesConfig;
+    private final MeterRegistry meterRegistry;
+
+    private Lane[] lanes;
+
+    private static final class Lane {
+        final ReentrantLock lock = new ReentrantLock(true);
+        Timer wait;
+        Timer write;
+        Counter lockRetries;
+    }
+
+    @PostConstruct
+    void init() {
+        int count = lanesConfig.isEnabled() ? Math.max(1, lanesConfig.getLanes()) : 1;
+        lanes = new Lane[count];
+        for (int i = 0; i < count; i++) {
+            Lane lane = new Lane();
+            String tag = String.valueOf(i);
+            lane.wait = Timer.builder("jlimport.lane.wait")
+                    .description("Time import threads waited for a writer lane")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            lane.write = Timer.builder("jlimport.lane.write")
+                    .description("Time a writer lane was held to write one batch")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            lane.lockRetries = Counter.builder("jlimport.lane.lock.retries")
+                    .description("Statements retried after a deadlock or lock wait timeout")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            Gauge.builder("jlimport.lane.waiting", lane.lock, ReentrantLock::getQueueLength)
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            lanes[i] = lane;
+        }
+        logger.info("Import writes use {} writer lanes (enabled: {})", count, lanesConfig.isEnabled());
+    }
+
+    public int size() {
+        return lanes.length;
+    }
+
+    public int laneOf(long hotelId) {
+        return lane(hotelId, lanes.length);
+    }
+
+    /**
+     * Jump consistent hash (Lamping and Veach): changing the lane count from n to n + 1
+     * moves only 1/(n + 1) of the hotels to another lane.
+     */
+    static int lane(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    /**
+     * Runs {@code write} holding the lane. With lanes disabled nothing is locked.
+     */
+    void write(int lane, Runnable write) {
+        Lane l = lanes[lane];
+        if (!lanesConfig.isEnabled()) {
+            l.write.record(write);
+            return;
+        }
+        long start = System.nanoTime();
+        l.lock.lock();
+        try {
+            l.wait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            l.write.record(write);
+        } finally {
+            l.lock.unlock();
+        }
+    }
+
+    /**
+     * The run of a statement that succeeded: its own duration, without the failed
+     * attempts and pauses before it, and the number of lock failures retried first.
+     */
+    record Attempt(long elapsedNanos, int lockRetries) {}
+
+    /**
+     * Runs one statement, running it again with a growing pause when it was rolled back
+     * as a deadlock victim or after a lock wait timeout. Other failures, and the last
+     * lock failure, are thrown to the caller.
+     */
+    Attempt retryOnLockFailure(int lane, Runnable statement) {
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                statement.run();
+                return new Attempt(System.nanoTime() - start, attempt - 1);
+            } catch (RuntimeException e) {
+                if (attempt > lanesConfig.getDeadlockRetries() || !isLockFailure(e)) {
+                    throw e;
+                }
+                lanes[lane].lockRetries.increment();
+                logger.warn("Lane {}: lock conflict, retrying ({}/{}): {}", lane, attempt, lanesConfig.getDeadlockRetries(), e.getMessage());
+                try {
+                    Thread.sleep(lanesConfig.getDeadlockBackoffMillis() * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    static boolean isLockFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof PessimisticLockingFailureException) return true;
+            if (t instanceof SQLException sql && ("40001".equals(sql.getSQLState())
+                    || sql.getErrorCode() == ER_LOCK_DEADLOCK || sql.getErrorCode() == ER_LOCK_WAIT_TIMEOUT)) {
+                return true;
+            }
+            if (t.getCause() == t) break;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,18 @@
+-- Review text is now decoded by the row's text_format instead of by looking at the value.
+-- Values of LZ4 rows (text_format = 1) start with a tag byte: 0 for plain UTF-8, 1 for the
+-- uncompressed length and an LZ4 block. Values written before had a 0x00 0x01 header when
+-- compressed and no header when plain; this converts them once. Plain rows (text_format = 0)
+-- are not touched.
+UPDATE review SET
+    review_comments = IF(LENGTH(review_comments) >= 6 AND LEFT(review_comments, 2) = X'0001',
+                         SUBSTRING(review_comments, 2), CONCAT(X'00', review_comments)),
+    review_negatives = IF(LENGTH(review_negatives) >= 6 AND LEFT(review_negatives, 2) = X'0001',
+                          SUBSTRING(review_negatives, 2), CONCAT(X'00', review_negatives)),
+    review_positives = IF(LENGTH(review_positives) >= 6 AND LEFT(review_positives, 2) = X'0001',
+                          SUBSTRING(review_positives, 2), CONCAT(X'00', review_positives)),
+    original_title = IF(LENGTH(original_title) >= 6 AND LEFT(original_title, 2) = X'0001',
+                        SUBSTRING(original_title, 2), CONCAT(X'00', original_title)),
+    original_comment = IF(LENGTH(original_comment) >= 6 AND LEFT(original_comment, 2) = X'0001',
+                          SUBSTRING(original_comment, 2), CONCAT(X'00', original_comment)),
+    updated_at = updated_at
+WHERE text_format = 1;
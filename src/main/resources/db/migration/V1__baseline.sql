@@ -1,5 +1,5 @@
-CREATE DATABASE IF NOT EXISTS reviewsystem DEFAULT CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci;
-USE reviewsystem;
+-- Baseline: the schema.sql tables as first deployed. Existing databases are baselined at
+-- this version (spring.flyway.baseline-on-migrate) and continue with V2.
 
 -- Hotel Table
 CREATE TABLE hotel (
@@ -96,4 +96,4 @@ CREATE TABLE overall_by_provider (
     FOREIGN KEY (review_id) REFERENCES review(id),
     FOREIGN KEY (provider_id) REFERENCES provider(id),
     INDEX idx_overall_by_provider_review_date (created_at)
-); 
\ No newline at end of file
+);
@@ -0,0 +1,13 @@
+-- Work Claim Table (leases that coordinate which node imports which S3 object)
+CREATE TABLE IF NOT EXISTS work_claim (
+    claim_key VARCHAR(768) PRIMARY KEY,
+    owner_node VARCHAR(100),
+    status VARCHAR(20),
+    attempts INT,
+    claimed_at DATETIME,
+    heartbeat_at DATETIME,
+    expires_at DATETIME,
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_work_claim_status_expires (status, expires_at)
+);
@@ -0,0 +1,20 @@
+-- Review text is stored as LONGBLOB: plain UTF-8, or LZ4 compressed when
+-- jlimport.text-compression.enabled is set. Existing text is kept byte for byte;
+-- run the application with --migrate-review-text to compress existing rows.
+ALTER TABLE review
+    MODIFY review_comments LONGBLOB,
+    MODIFY review_negatives LONGBLOB,
+    MODIFY review_positives LONGBLOB,
+    MODIFY original_title LONGBLOB,
+    MODIFY original_comment LONGBLOB;
+
+-- text_format: 0 plain UTF-8 text, 1 written with LZ4 compression enabled.
+-- Databases that ran with ddl-auto: update may already have the column.
+SET @text_format_ddl = IF(
+    (SELECT COUNT(*) FROM information_schema.columns
+     WHERE table_schema = DATABASE() AND table_name = 'review' AND column_name = 'text_format') = 0,
+    'ALTER TABLE review ADD COLUMN text_format TINYINT NOT NULL DEFAULT 0',
+    'ALTER TABLE review MODIFY text_format TINYINT NOT NULL DEFAULT 0');
+PREPARE text_format_stmt FROM @text_format_ddl;
+EXECUTE text_format_stmt;
+DEALLOCATE PREPARE text_format_stmt;
@@ -0,0 +1,21 @@
+-- Composite indexes matched to the repository queries. QueryPlanTest asserts that the
+-- planner uses them, so keep both in sync when a query or an index changes.
+
+-- ReviewRepository.findSummariesByHotelId / findByHotelId, newest reviews of a hotel
+CREATE INDEX idx_review_hotel_date ON review (hotel_id, review_date);
+
+-- ReviewRepository.findSummariesByReviewerId / findByReviewerId
+CREATE INDEX idx_review_reviewer_date ON review (reviewer_id, review_date);
+
+-- ReviewGradesRepository.findByReview_IdIn; category and score make it covering for grade reads
+CREATE INDEX idx_review_grades_review_category ON review_grades (review_id, category, score);
+
+-- OverallByProviderRepository.findByReview_Hotel_IdOrderByProviderIdAscCreatedAtDesc,
+-- joined from review by review_id and ordered by provider and recency
+CREATE INDEX idx_obp_review_provider_created ON overall_by_provider (review_id, provider_id, created_at);
+
+-- Latest scores of one provider across hotels
+CREATE INDEX idx_obp_provider_created ON overall_by_provider (provider_id, created_at);
+
+-- ReviewerRepository.findFirstByDisplayNameAndCountryName, the reviewer natural key used by the import
+CREATE INDEX idx_reviewer_natural_key ON reviewer (display_name, country_name);
@@ -0,0 +1,9 @@
+-- Change counters for conditional GETs: the import bumps a row every time a batch
+-- writes reviews of that hotel or reviewer, and the API serves the value as the ETag.
+CREATE TABLE IF NOT EXISTS entity_version (
+    entity_type VARCHAR(16) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    version BIGINT NOT NULL,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (entity_type, entity_id)
+);
@@ -0,0 +1,17 @@
+-- Pre-aggregated rating trends. One row per (hotel, granularity, bucket, provider, category):
+-- granularity 'M' buckets start on the first day of the month, 'W' on the Monday of the
+-- ISO week. Category 'rating' is the review's own rating, the others are review_grades
+-- categories. The import adds every written review to its buckets, keyed by review_date,
+-- so late-arriving reviews land in the right (older) bucket.
+CREATE TABLE IF NOT EXISTS rating_rollup (
+    hotel_id BIGINT NOT NULL,
+    granularity CHAR(1) NOT NULL,
+    bucket_start DATE NOT NULL,
+    provider_id BIGINT NOT NULL,
+    category VARCHAR(100) NOT NULL,
+    review_count BIGINT NOT NULL,
+    score_sum DECIMAL(16,1) NOT NULL,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    -- RatingRollupService.trend: one hotel and granularity over a bucket range
+    PRIMARY KEY (hotel_id, granularity, bucket_start, provider_id, category)
+);
@@ -0,0 +1,4 @@
+-- 64-bit xxHash of the review's stored content (ReviewRecordMapper.contentHash). A re-imported
+-- review is only rewritten when its hash differs; rows imported before this migration have
+-- NULL and are rewritten once, the first time they are seen again.
+ALTER TABLE review ADD COLUMN content_hash BIGINT NULL;
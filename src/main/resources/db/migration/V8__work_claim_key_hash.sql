@@ -0,0 +1,11 @@
+-- Claim keys (s3://bucket/key#etag@start-end, backfill:<run>:...) can be longer than an index
+-- allows, and INSERT IGNORE truncated them silently, so long keys collided. The primary key is
+-- now the SHA-256 of the full key (WorkClaim.keyHash); the key itself is kept for reading.
+-- Rows whose key was already truncated keep it and simply no longer match a new claim.
+ALTER TABLE work_claim ADD COLUMN key_hash BINARY(32) NULL FIRST;
+UPDATE work_claim SET key_hash = UNHEX(SHA2(claim_key, 256));
+ALTER TABLE work_claim
+    DROP PRIMARY KEY,
+    MODIFY key_hash BINARY(32) NOT NULL,
+    MODIFY claim_key TEXT NOT NULL,
+    ADD PRIMARY KEY (key_hash);
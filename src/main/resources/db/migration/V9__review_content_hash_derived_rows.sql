@@ -0,0 +1,5 @@
+-- ReviewRecordMapper.contentHash now also covers the reviewer and the overall-by-provider
+-- rows with their grades, so hashes written before no longer match any line. Cleared
+-- hashes are recorded again, without rewriting the review, the next time a review is
+-- imported; updated_at keeps its value.
+UPDATE review SET content_hash = NULL, updated_at = updated_at WHERE content_hash IS NOT NULL;
@@ -0,0 +1,100 @@
+package com.reviewsystem;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures how long a worker takes from JVM-level startup to its first imported review:
+ * application.yml plus the "worker" profile as shipped (schema validation included)
+ * against a migrated MySQL, with one JL file waiting in the import folder.
+ * The budget is for a plain JVM on a CI machine; the Docker image adds AOT and AppCDS
+ * on top. Override it with {@code -Dworker.startup.budget-millis}. Skipped when Docker
+ * is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class WorkerStartupTest {
+    private static final Logger logger = LogManager.getLogger(WorkerStartupTest.class);
+    private static final long BUDGET_MILLIS = Long.getLong("worker.startup.budget-millis", 10000);
+
+    @Container
+    static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @TempDir Path folder;
+    @TempDir Path tempDir;
+
+    @BeforeAll
+    static void migrate() {
+        // Workers never migrate; the API deployment does it first
+        Flyway.configure()
+                .dataSource(mysql.getJdbcUrl(), mysql.getUsername(), mysql.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+    }
+
+    @Test
+    void worker_importsItsFirstLineWithinBudget() throws Exception {
+        Path file = Files.copy(Path.of("files/agoda_com_2025-04-10_processed.jl"), folder.resolve("agoda.jl"));
+        // Older than the scan's quiet period
+        assertTrue(file.toFile().setLastModified(System.currentTimeMillis() - 60_000));
+
+        long start = System.nanoTime();
+        CompletableFuture<Long> firstLine = CompletableFuture.supplyAsync(() -> waitForFirstReview(start));
+        long readyMillis;
+        try (ConfigurableApplicationContext context = SpringApplication.run(ReviewSystemApplication.class,
+                "--spring.profiles.active=worker",
+                "--spring.datasource.url=" + mysql.getJdbcUrl(),
+                "--spring.datasource.username=" + mysql.getUsername(),
+                "--spring.datasource.password=" + mysql.getPassword(),
+                "--server.port=0",
+                "--jlimport.schedule-enabled=false",
+                "--jlimport.source-aws=false",
+                "--jlimport.folder-path=" + folder,
+                "--jlimport.temp-dir=" + tempDir)) {
+            readyMillis = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(context.isActive());
+        }
+        long firstLineMillis = firstLine.get(BUDGET_MILLIS * 2, TimeUnit.MILLISECONDS);
+        logger.info("Worker ready in {} ms, first review imported after {} ms (budget {} ms)",
+                readyMillis, firstLineMillis, BUDGET_MILLIS);
+        assertTrue(firstLineMillis < BUDGET_MILLIS, "First review imported after " + firstLineMillis + " ms");
+    }
+
+    private static long waitForFirstReview(long start) {
+        try (Connection c = DriverManager.getConnection(mysql.getJdbcUrl(), mysql.getUsername(), mysql.getPassword());
+             Statement st = c.createStatement()) {
+            while (true) {
+                try (ResultSet rs = st.executeQuery("SELECT 1 FROM review LIMIT 1")) {
+                    if (rs.next()) return (System.nanoTime() - start) / 1_000_000;
+                }
+                Thread.sleep(20);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.reviewsystem.controller;
+
+import com.reviewsystem.config.JLImportFolderConfig;
+import com.reviewsystem.config.JLImportIngestConfig;
+import com.reviewsystem.config.LeaderboardConfig;
+import com.reviewsystem.config.ReviewApiConfig;
+import com.reviewsystem.service.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ReviewImportControllerTest {
+    @TempDir Path tempDir;
+
+    private ReviewImportService reviewImportService;
+    private JLImportIngestConfig ingestConfig;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        reviewImportService = mock(ReviewImportService.class);
+        JLImportFolderConfig folderConfig = new JLImportFolderConfig();
+        folderConfig.setTempDir(tempDir.toString());
+        ingestConfig = new JLImportIngestConfig();
+        ingestConfig.setMaxConcurrentRequests(1);
+        ReviewImportController controller = new ReviewImportController(reviewImportService, mock(ReviewQueryService.class),
+                mock(EntityVersionService.class), mock(DryRunService.class), mock(RatingRollupService.class),
+                mock(LeaderboardService.class), ingestConfig, new ReviewApiConfig(), new LeaderboardConfig(),
+                new IngestRejectedFiles(folderConfig, ingestConfig));
+        controller.init();
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void ingest_acceptedLinesAreCountedWithoutRejectedFile() throws Exception {
+        when(reviewImportService.importStream(any(), anyString(), any())).thenAnswer(inv -> {
+            ImportSummary summary = new ImportSummary(inv.getArgument(1));
+            summary.recordAccepted(2);
+            return summary;
+        });
+
+        mockMvc.perform(post("/api/reviews/ingest").contentType("application/x-ndjson").content("{}\n{}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(0))
+                .andExpect(jsonPath("$.rejectedLines").doesNotExist());
+    }
+
+    @Test
+    void ingest_linksToRejectedLinesForDownload() throws Exception {
+        when(reviewImportService.importStream(any(), anyString(), any())).thenAnswer(inv -> {
+            ImportSummary summary = new ImportSummary(inv.getArgument(1));
+            summary.recordAccepted(1);
+            summary.recordRejected("invalid_json");
+            Files.writeString(inv.getArgument(2), "{\"line\":2,\"reason\":\"invalid_json\",\"raw\":\"{\"}\n");
+            return summary;
+        });
+
+        MvcResult result = mockMvc.perform(post("/api/reviews/ingest").contentType("application/x-ndjson").content("{}\n{\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rejectedByReason.invalid_json").value(1))
+                .andExpect(jsonPath("$.rejectedLines", startsWith("/api/reviews/ingest/rejected/http-")))
+                .andReturn();
+        String link = com.jayway.jsonpath.JsonPath.read(result.getResponse().getContentAsString(), "$.rejectedLines");
+
+        mockMvc.perform(get(link))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"reason\":\"invalid_json\"")));
+    }
+
+    @Test
+    void ingestRejectedLines_onlyServesIngestRejectedFiles() throws Exception {
+        Files.writeString(tempDir.resolve("other.jl"), "secret\n");
+        mockMvc.perform(get("/api/reviews/ingest/rejected/other.jl")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/reviews/ingest/rejected/http-00000000-0000-0000-0000-000000000000_rejected.jl"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void ingest_incompleteImportAnswers500WithFailure() throws Exception {
+        when(reviewImportService.importStream(any(), anyString(), any())).thenAnswer(inv -> {
+            ImportSummary summary = new ImportSummary(inv.getArgument(1));
+            summary.recordRejected("chunk_write_failed");
+            summary.recordFailure("chunk write failed");
+            return summary;
+        });
+
+        mockMvc.perform(post("/api/reviews/ingest").contentType("application/x-ndjson").content("{}\n"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.failure").value("chunk write failed"));
+    }
+
+    @Test
+    void ingest_beyondConcurrentRequestsAnswers429() throws Exception {
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(reviewImportService.importStream(any(InputStream.class), anyString(), any())).thenAnswer(inv -> {
+            inside.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new ImportSummary(inv.getArgument(1));
+        });
+        CompletableFuture<MvcResult> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return mockMvc.perform(post("/api/reviews/ingest").contentType("application/x-ndjson").content("{}\n")).andReturn();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+        mockMvc.perform(post("/api/reviews/ingest").contentType("application/x-ndjson").content("{}\n"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "5"));
+
+        release.countDown();
+        assertEquals(200, first.get(5, TimeUnit.SECONDS).getResponse().getStatus());
+        verify(reviewImportService, times(1)).importStream(any(), anyString(), any());
+    }
+}
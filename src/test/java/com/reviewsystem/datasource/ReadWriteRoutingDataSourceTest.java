@@ -0,0 +1,73 @@
+package com.reviewsystem.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReadWriteRoutingDataSourceTest {
+    private final Connection importConnection = mock(Connection.class);
+    private final Connection apiConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private SimpleMeterRegistry meterRegistry;
+    private ReadWriteRoutingDataSource.Replica replica;
+    private ReadWriteRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        DataSource importPool = mock(DataSource.class);
+        when(importPool.getConnection()).thenReturn(importConnection);
+        DataSource apiPool = mock(DataSource.class);
+        when(apiPool.getConnection()).thenReturn(apiConnection);
+        DataSource replicaDataSource = mock(DataSource.class);
+        when(replicaDataSource.getConnection()).thenReturn(replicaConnection);
+        replica = new ReadWriteRoutingDataSource.Replica("replica1", replicaDataSource);
+        replica.healthy = true;
+        meterRegistry = new SimpleMeterRegistry();
+        routing = new ReadWriteRoutingDataSource(importPool, apiPool, List.of(replica), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadWriteRoutingDataSource.clearApiRequest();
+    }
+
+    @Test
+    void readOnlyApiTransaction_usesHealthyReplica() throws Exception {
+        ReadWriteRoutingDataSource.markApiRequest();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(replicaConnection, routing.getConnection());
+        assertEquals(1.0, meterRegistry.get("datasource.route.connections").tag("route", "replica1").counter().count());
+    }
+
+    @Test
+    void apiWriteTransaction_usesApiPool() throws Exception {
+        ReadWriteRoutingDataSource.markApiRequest();
+        assertSame(apiConnection, routing.getConnection());
+    }
+
+    @Test
+    void importWork_usesImportPoolForReadsAndWrites() throws Exception {
+        assertSame(importConnection, routing.getConnection());
+        // Import reads must see the import's own writes
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(importConnection, routing.getConnection());
+    }
+
+    @Test
+    void unhealthyReplica_fallsBackToApiPool() throws Exception {
+        replica.healthy = false;
+        ReadWriteRoutingDataSource.markApiRequest();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(apiConnection, routing.getConnection());
+    }
+}
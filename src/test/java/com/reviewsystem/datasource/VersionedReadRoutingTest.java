@@ -0,0 +1,112 @@
+package com.reviewsystem.datasource;
+
+import com.reviewsystem.service.EntityVersionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * An ETag read from one replica and a body read from another, more lagged one would be
+ * cached by clients as current. Both reads must use one replica connection.
+ */
+class VersionedReadRoutingTest {
+    private static final DataSource replica1 = replicaPool();
+    private static final DataSource replica2 = replicaPool();
+
+    private AnnotationConfigApplicationContext context;
+
+    @Configuration
+    @EnableTransactionManagement(proxyTargetClass = true)
+    static class Config {
+        @Bean
+        DataSource dataSource() throws Exception {
+            ReadWriteRoutingDataSource.Replica first = new ReadWriteRoutingDataSource.Replica("replica1", replica1);
+            ReadWriteRoutingDataSource.Replica second = new ReadWriteRoutingDataSource.Replica("replica2", replica2);
+            first.healthy = true;
+            second.healthy = true;
+            ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(replicaPool(), replicaPool(),
+                    List.of(first, second), new SimpleMeterRegistry());
+            LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(routing);
+            proxy.setDefaultAutoCommit(true);
+            proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            return proxy;
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        EntityVersionService entityVersionService(JdbcTemplate jdbcTemplate) {
+            return new EntityVersionService(jdbcTemplate);
+        }
+    }
+
+    private static DataSource replicaPool() {
+        try {
+            ResultSet rs = mock(ResultSet.class);
+            PreparedStatement statement = mock(PreparedStatement.class);
+            when(statement.executeQuery()).thenReturn(rs);
+            Connection connection = mock(Connection.class);
+            when(connection.prepareStatement(anyString())).thenReturn(statement);
+            when(connection.getAutoCommit()).thenReturn(true);
+            DataSource dataSource = mock(DataSource.class);
+            when(dataSource.getConnection()).thenReturn(connection);
+            return dataSource;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(Config.class);
+        ReadWriteRoutingDataSource.markApiRequest();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadWriteRoutingDataSource.clearApiRequest();
+        context.close();
+    }
+
+    @Test
+    void versionAndBody_areReadOverOneReplicaConnection() throws Exception {
+        EntityVersionService versions = context.getBean(EntityVersionService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        clearInvocations(replica1, replica2);
+
+        EntityVersionService.Versioned<List<?>> read = versions.readVersioned(EntityVersionService.HOTEL, 42L, etag -> false,
+                () -> jdbcTemplate.queryForList("SELECT id FROM review WHERE hotel_id = ?", 42L));
+
+        assertFalse(read.notModified());
+        assertEquals("\"hotel-42-v0\"", read.etag());
+        int connections = mockingDetails(replica1).getInvocations().size() + mockingDetails(replica2).getInvocations().size();
+        assertEquals(1, connections, "ETag and body were read over different replica connections");
+    }
+}
@@ -0,0 +1,119 @@
+package com.reviewsystem.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares plain and LZ4 storage of the review text in the sample file.
+ * Not part of the normal build; run with
+ * {@code mvn test -Dgroups=benchmark -DexcludedGroups=none -Dtest=CompressedTextBenchmarkTest}.
+ * Set {@code -Dbenchmark.jdbc-url=jdbc:mysql://...&user=...&password=...} to also measure
+ * insert throughput and read latency against a MySQL scratch table.
+ */
+@Tag("benchmark")
+class CompressedTextBenchmarkTest {
+    private static final String[] TEXT_FIELDS = {"reviewComments", "reviewNegatives", "reviewPositives", "originalTitle", "originalComment"};
+    private static final int ROUNDS = 50;
+    private static final int MIN_BYTES = 128;
+
+    private static final List<byte[]> texts = new ArrayList<>();
+
+    @BeforeAll
+    static void loadSample() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (String line : Files.readAllLines(Path.of("files/agoda_com_2025-04-10_processed.jl"))) {
+            JsonNode comment = objectMapper.readTree(line).path("comment");
+            for (String field : TEXT_FIELDS) {
+                if (comment.hasNonNull(field)) texts.add(comment.get(field).asText().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    void codec() {
+        int warmup = 2;
+        // First pass warms up the JIT, the second one is reported
+        for (boolean compress : new boolean[]{false, true, false, true}) {
+            long storedBytes = 0, rawBytes = 0, encodeNanos = 0, decodeNanos = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                for (byte[] text : texts) {
+                    long start = System.nanoTime();
+                    byte[] stored = CompressedTextConverter.encode(text, compress, MIN_BYTES);
+                    long encoded = System.nanoTime();
+                    CompressedTextConverter.decode(stored, compress ? Review.TEXT_LZ4 : Review.TEXT_PLAIN);
+                    decodeNanos += System.nanoTime() - encoded;
+                    encodeNanos += encoded - start;
+                    if (round == 0) {
+                        storedBytes += stored.length;
+                        rawBytes += text.length;
+                    }
+                }
+            }
+            long values = (long) texts.size() * ROUNDS;
+            if (warmup-- > 0) continue;
+            System.out.printf("%s: %d of %d bytes stored (%.1f%%), encode %.0f ns/value, decode %.0f ns/value%n",
+                    compress ? "lz4" : "plain", storedBytes, rawBytes, 100.0 * storedBytes / rawBytes,
+                    (double) encodeNanos / values, (double) decodeNanos / values);
+        }
+    }
+
+    @Test
+    void mysqlInsertAndRead() throws Exception {
+        String url = System.getProperty("benchmark.jdbc-url");
+        Assumptions.assumeTrue(url != null, "benchmark.jdbc-url not set");
+        try (Connection connection = DriverManager.getConnection(url)) {
+            for (boolean compress : new boolean[]{false, true}) {
+                try (Statement st = connection.createStatement()) {
+                    st.execute("DROP TABLE IF EXISTS review_text_benchmark");
+                    st.execute("CREATE TABLE review_text_benchmark (id BIGINT PRIMARY KEY, body LONGBLOB)");
+                }
+                long start = System.nanoTime();
+                int id = 0;
+                try (PreparedStatement insert = connection.prepareStatement("INSERT INTO review_text_benchmark VALUES (?, ?)")) {
+                    for (int round = 0; round < ROUNDS; round++) {
+                        for (byte[] text : texts) {
+                            insert.setLong(1, id++);
+                            insert.setBytes(2, CompressedTextConverter.encode(text, compress, MIN_BYTES));
+                            insert.addBatch();
+                        }
+                        insert.executeBatch();
+                    }
+                }
+                double insertSeconds = (System.nanoTime() - start) / 1e9;
+
+                long readNanos = 0;
+                try (PreparedStatement read = connection.prepareStatement("SELECT body FROM review_text_benchmark WHERE id = ?")) {
+                    for (int i = 0; i < id; i += 7) {
+                        long readStart = System.nanoTime();
+                        read.setLong(1, i);
+                        try (ResultSet rs = read.executeQuery()) {
+                            rs.next();
+                            CompressedTextConverter.decode(rs.getBytes(1), compress ? Review.TEXT_LZ4 : Review.TEXT_PLAIN);
+                        }
+                        readNanos += System.nanoTime() - readStart;
+                    }
+                }
+                System.out.printf("%s: %.0f rows/s inserted, %.1f us per read%n",
+                        compress ? "lz4" : "plain", id / insertSeconds, readNanos / 1e3 / ((id + 6) / 7));
+            }
+            try (Statement st = connection.createStatement()) {
+                st.execute("DROP TABLE review_text_benchmark");
+            }
+        }
+    }
+}
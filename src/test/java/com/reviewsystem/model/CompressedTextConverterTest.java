@@ -0,0 +1,77 @@
+package com.reviewsystem.model;
+
+import com.reviewsystem.config.JLImportTextCompressionConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedTextConverterTest {
+    private static final String LONG_TEXT = "The room was clean and the staff were very friendly. ".repeat(20) + "Überall sauber — 很好";
+
+    private JLImportTextCompressionConfig config;
+    private CompressedTextConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        config = new JLImportTextCompressionConfig();
+        converter = new CompressedTextConverter(config);
+    }
+
+    @Test
+    void disabled_storesPlainUtf8() {
+        byte[] stored = converter.convertToDatabaseColumn(LONG_TEXT);
+        assertArrayEquals(LONG_TEXT.getBytes(StandardCharsets.UTF_8), stored);
+        assertEquals(LONG_TEXT, converter.convertToEntityAttribute(read(Review.TEXT_PLAIN, stored)));
+    }
+
+    @Test
+    void enabled_compressesLongTextAndRoundTrips() {
+        config.setEnabled(true);
+        byte[] stored = converter.convertToDatabaseColumn(LONG_TEXT);
+        assertEquals(CompressedTextConverter.TAG_LZ4, stored[0]);
+        assertTrue(stored.length < LONG_TEXT.getBytes(StandardCharsets.UTF_8).length / 2);
+        assertEquals(LONG_TEXT, converter.convertToEntityAttribute(read(Review.TEXT_LZ4, stored)));
+    }
+
+    @Test
+    void enabled_tagsShortTextAsPlain() {
+        config.setEnabled(true);
+        byte[] stored = converter.convertToDatabaseColumn("Good");
+        assertArrayEquals(new byte[]{CompressedTextConverter.TAG_PLAIN, 'G', 'o', 'o', 'd'}, stored);
+        assertEquals("Good", converter.convertToEntityAttribute(read(Review.TEXT_LZ4, stored)));
+        assertEquals("", converter.convertToEntityAttribute(read(Review.TEXT_LZ4, converter.convertToDatabaseColumn(""))));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    void rowsOfBothFormats_readableWhateverCompressionIsSetTo() {
+        config.setEnabled(true);
+        byte[] compressed = converter.convertToDatabaseColumn(LONG_TEXT);
+        config.setEnabled(false);
+        byte[] plain = converter.convertToDatabaseColumn(LONG_TEXT);
+        assertEquals(LONG_TEXT, converter.convertToEntityAttribute(read(Review.TEXT_LZ4, compressed)));
+        assertEquals(LONG_TEXT, converter.convertToEntityAttribute(read(Review.TEXT_PLAIN, plain)));
+    }
+
+    @Test
+    void plainRows_areNeverTakenForCompressed() {
+        // Bytes that look like an LZ4 value are still text in a plain row
+        byte[] lookalike = CompressedTextConverter.encode(LONG_TEXT.getBytes(StandardCharsets.UTF_8), true, 0);
+        assertArrayEquals(lookalike, CompressedTextConverter.decode(lookalike, Review.TEXT_PLAIN));
+        assertThrows(IllegalArgumentException.class, () -> CompressedTextConverter.decode(new byte[]{7, 1, 2}, Review.TEXT_LZ4));
+    }
+
+    /**
+     * What the column read expression returns: the row's text_format, then the stored value.
+     */
+    private static byte[] read(byte textFormat, byte[] stored) {
+        byte[] read = new byte[stored.length + 1];
+        read[0] = textFormat;
+        System.arraycopy(stored, 0, read, 1, stored.length);
+        return read;
+    }
+}
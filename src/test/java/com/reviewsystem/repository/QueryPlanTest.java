@@ -0,0 +1,162 @@
+package com.reviewsystem.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Applies the Flyway migrations to a real MySQL and checks that the SQL behind the
+ * repository methods is planned on the V4 indexes rather than full scans.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanTest {
+    @Container
+    static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException {
+        Flyway.configure()
+                .dataSource(mysql.getJdbcUrl(), mysql.getUsername(), mysql.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        try (Connection c = connect()) {
+            c.setAutoCommit(false);
+            try (Statement st = c.createStatement()) {
+                st.execute("INSERT INTO provider (id, name) VALUES (332, 'Agoda'), (3038, 'Booking.com')");
+            }
+            batch(c, "INSERT INTO hotel (id, name) VALUES (?, ?)", 100, (ps, i) -> {
+                ps.setLong(1, i);
+                ps.setString(2, "Hotel " + i);
+            });
+            batch(c, "INSERT INTO reviewer (display_name, country_name) VALUES (?, ?)", 500, (ps, i) -> {
+                ps.setString(1, "Guest " + i);
+                ps.setString(2, "Country " + (i % 40));
+            });
+            batch(c, "INSERT INTO review (id, hotel_id, provider_id, reviewer_id, rating, review_comments, review_date) "
+                    + "VALUES (?, ?, 332, ?, 8.0, 'ok', NOW() - INTERVAL ? DAY)", 5000, (ps, i) -> {
+                ps.setLong(1, i);
+                ps.setLong(2, i % 100);
+                ps.setLong(3, i % 500 + 1);
+                ps.setInt(4, i % 365);
+            });
+            batch(c, "INSERT INTO review_grades (review_id, category, score) VALUES (?, ?, 8.0)", 15000, (ps, i) -> {
+                ps.setLong(1, i / 3);
+                ps.setString(2, "Category " + i % 3);
+            });
+            batch(c, "INSERT INTO overall_by_provider (review_id, provider_id, overall_score, review_count) "
+                    + "VALUES (?, ?, 8.0, 10)", 10000, (ps, i) -> {
+                ps.setLong(1, i / 2);
+                ps.setLong(2, i % 2 == 0 ? 332 : 3038);
+            });
+            c.commit();
+            try (Statement st = c.createStatement()) {
+                st.execute("ANALYZE TABLE hotel, reviewer, review, review_grades, overall_by_provider");
+            }
+        }
+    }
+
+    @Test
+    void reviewSummariesByHotel_useHotelIndex() throws SQLException {
+        Map<String, Plan> plan = explain("SELECT r.id, h.id, h.name, rv.id, rv.display_name, r.rating, r.review_comments, r.review_date "
+                + "FROM review r LEFT JOIN hotel h ON h.id = r.hotel_id LEFT JOIN reviewer rv ON rv.id = r.reviewer_id "
+                + "WHERE h.id = 42");
+        assertEquals("idx_review_hotel_date", plan.get("r").key());
+        assertNoFullScan(plan);
+    }
+
+    @Test
+    void reviewSummariesByReviewer_useReviewerIndex() throws SQLException {
+        Map<String, Plan> plan = explain("SELECT r.id, h.id, h.name, rv.id, rv.display_name, r.rating, r.review_comments, r.review_date "
+                + "FROM review r LEFT JOIN hotel h ON h.id = r.hotel_id LEFT JOIN reviewer rv ON rv.id = r.reviewer_id "
+                + "WHERE rv.id = 42");
+        assertEquals("idx_review_reviewer_date", plan.get("r").key());
+        assertNoFullScan(plan);
+    }
+
+    @Test
+    void gradesByReviewIds_useReviewIndex() throws SQLException {
+        Map<String, Plan> plan = explain("SELECT g.id, g.category, g.score, g.created_at, g.updated_at, g.review_id "
+                + "FROM review_grades g WHERE g.review_id IN (1, 2, 3, 4, 5)");
+        assertEquals("idx_review_grades_review_category", plan.get("g").key());
+        assertNoFullScan(plan);
+    }
+
+    @Test
+    void latestOverallByProviderForHotel_useReviewAndObpIndexes() throws SQLException {
+        Map<String, Plan> plan = explain("SELECT o.id, o.overall_score, o.provider_id, o.review_count, o.created_at "
+                + "FROM overall_by_provider o LEFT JOIN review r ON r.id = o.review_id "
+                + "WHERE r.hotel_id = 42 ORDER BY o.provider_id, o.created_at DESC");
+        assertEquals("idx_review_hotel_date", plan.get("r").key());
+        assertEquals("idx_obp_review_provider_created", plan.get("o").key());
+        assertNoFullScan(plan);
+    }
+
+    @Test
+    void latestOverallByProviderForHotels_useReviewAndObpIndexes() throws SQLException {
+        Map<String, Plan> plan = explain("SELECT r.hotel_id, o.id, o.review_id, p.id, p.name, o.overall_score "
+                + "FROM overall_by_provider o JOIN review r ON r.id = o.review_id JOIN provider p ON p.id = o.provider_id "
+                + "WHERE o.id IN (SELECT MAX(o2.id) FROM overall_by_provider o2 JOIN review r2 ON r2.id = o2.review_id "
+                + "WHERE r2.hotel_id IN (1, 2, 3, 42) GROUP BY r2.hotel_id, o2.provider_id) ORDER BY r.hotel_id, p.id");
+        assertEquals("idx_review_hotel_date", plan.get("r2").key());
+        assertEquals("idx_obp_review_provider_created", plan.get("o2").key());
+        assertNoFullScan(plan);
+    }
+
+    @Test
+    void reviewerByNaturalKey_usesNaturalKeyIndex() throws SQLException {
+        Map<String, Plan> plan = explain("SELECT rv.id FROM reviewer rv "
+                + "WHERE rv.display_name = 'Guest 7' AND rv.country_name = 'Country 7' LIMIT 1");
+        assertEquals("idx_reviewer_natural_key", plan.get("rv").key());
+        assertNoFullScan(plan);
+    }
+
+    private record Plan(String type, String key) {}
+
+    private interface RowBinder {
+        void bind(PreparedStatement ps, int i) throws SQLException;
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(mysql.getJdbcUrl(), mysql.getUsername(), mysql.getPassword());
+    }
+
+    private static void batch(Connection c, String sql, int rows, RowBinder binder) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            for (int i = 0; i < rows; i++) {
+                binder.bind(ps, i);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static Map<String, Plan> explain(String sql) throws SQLException {
+        Map<String, Plan> plan = new HashMap<>();
+        try (Connection c = connect(); Statement st = c.createStatement(); ResultSet rs = st.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                plan.put(rs.getString("table"), new Plan(rs.getString("type"), rs.getString("key")));
+            }
+        }
+        return plan;
+    }
+
+    private static void assertNoFullScan(Map<String, Plan> plan) {
+        plan.forEach((table, p) -> assertNotEquals("ALL", p.type(), "full scan of " + table + ": " + plan));
+    }
+}
@@ -0,0 +1,58 @@
+package com.reviewsystem.repository;
+
+import com.reviewsystem.model.Review;
+import com.reviewsystem.model.ReviewGrades;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReviewGradesRepositoryImplTest {
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ReviewGradesRepositoryImpl repository = new ReviewGradesRepositoryImpl(jdbcTemplate);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void insertAll_sendsOneJdbcBatchAndStampsTheRows() throws Exception {
+        Review review = Review.builder().id(7L).build();
+        List<ReviewGrades> grades = List.of(
+                ReviewGrades.builder().review(review).category("Cleanliness").score(7.7).build(),
+                ReviewGrades.builder().review(review).category("Location").score(9.1).build());
+
+        repository.insertAll(grades);
+
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<ReviewGrades>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO review_grades"), eq(grades), anyInt(), setter.capture());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps, grades.get(1));
+        verify(ps).setLong(1, 7L);
+        verify(ps).setString(2, "Location");
+        verify(ps).setObject(3, 9.1);
+        assertNotNull(grades.get(1).getCreatedAt());
+        assertNull(grades.get(1).getId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void replaceAll_returnsTheDeletedRowsAndInsertsTheNewOnes() {
+        ReviewGrades old = ReviewGrades.builder().review(Review.builder().id(7L).build()).category("Location").score(8.0).build();
+        when(jdbcTemplate.query(startsWith("SELECT review_id, category, score FROM review_grades"),
+                any(org.springframework.jdbc.core.RowMapper.class), eq(7L), eq(8L))).thenReturn(List.of(old));
+        List<ReviewGrades> grades = List.of(ReviewGrades.builder().review(Review.builder().id(7L).build())
+                .category("Location").score(9.0).build());
+
+        assertEquals(List.of(old), repository.replaceAll(List.of(7L, 8L), grades));
+
+        verify(jdbcTemplate).update("DELETE FROM review_grades WHERE review_id IN (?, ?)", 7L, 8L);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO review_grades"), eq(grades), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+}
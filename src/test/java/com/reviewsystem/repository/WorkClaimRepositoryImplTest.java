@@ -0,0 +1,35 @@
+package com.reviewsystem.repository;
+
+import com.reviewsystem.model.WorkClaim;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WorkClaimRepositoryImplTest {
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final WorkClaimRepositoryImpl repository = new WorkClaimRepositoryImpl(jdbcTemplate);
+
+    @Test
+    void insertClaim_returnsZeroOnlyForAnExistingKey() {
+        byte[] hash = WorkClaim.keyHash("s3://bucket/a.jl#etag");
+        when(jdbcTemplate.update(startsWith("INSERT INTO work_claim"), any(Object[].class))).thenReturn(1);
+        assertEquals(1, repository.insertClaim(hash, "s3://bucket/a.jl#etag", "node-a", 300));
+
+        when(jdbcTemplate.update(startsWith("INSERT INTO work_claim"), any(Object[].class)))
+                .thenThrow(new DuplicateKeyException("Duplicate entry"));
+        assertEquals(0, repository.insertClaim(hash, "s3://bucket/a.jl#etag", "node-a", 300));
+    }
+
+    @Test
+    void insertClaim_doesNotSwallowOtherErrors() {
+        when(jdbcTemplate.update(startsWith("INSERT INTO work_claim"), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("Communications link failure"));
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> repository.insertClaim(WorkClaim.keyHash("k"), "k", "node-a", 300));
+    }
+}
@@ -0,0 +1,89 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.config.JLImportBatchConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveBatchSizerTest {
+    private JLImportBatchConfig config;
+    private SimpleMeterRegistry registry;
+    private AdaptiveBatchSizer sizer;
+
+    @BeforeEach
+    void setUp() {
+        config = new JLImportBatchConfig();
+        config.setMinSize(1);
+        config.setMaxSize(400);
+        config.setTargetFlushMillis(100);
+        config.setTargetPayloadBytes(1_000_000);
+        registry = new SimpleMeterRegistry();
+        sizer = new AdaptiveBatchSizer(config, registry);
+        ReflectionTestUtils.setField(sizer, "initialBatchSize", 25);
+        sizer.init();
+    }
+
+    @Test
+    void fastFlushes_growSizeGraduallyUpToMax() {
+        // 25 rows in 1 ms -> ideal far above max
+        sizer.recordSuccess(25, 25_000, TimeUnit.MILLISECONDS.toNanos(1), 0);
+        assertEquals(50, sizer.currentSize());
+        for (int i = 0; i < 20; i++) {
+            sizer.recordSuccess(sizer.currentSize(), sizer.currentSize() * 1000L, TimeUnit.MILLISECONDS.toNanos(1), 0);
+        }
+        assertEquals(400, sizer.currentSize());
+    }
+
+    @Test
+    void slowFlush_shrinksImmediatelyToLatencyTarget() {
+        // 25 rows in 250 ms -> 10 ms per row -> 10 rows fit in 100 ms
+        sizer.recordSuccess(25, 25_000, TimeUnit.MILLISECONDS.toNanos(250), 0);
+        assertEquals(10, sizer.currentSize());
+    }
+
+    @Test
+    void flushWithLockRetries_doesNotGrowButCountsThem() {
+        sizer.recordSuccess(25, 25_000, TimeUnit.MILLISECONDS.toNanos(1), 2);
+        assertEquals(25, sizer.currentSize());
+        assertEquals(2d, registry.get("jlimport.batch.lock.retries").counter().count());
+        // A slow flush still shrinks the size
+        sizer.recordSuccess(25, 25_000, TimeUnit.MILLISECONDS.toNanos(250), 1);
+        assertEquals(10, sizer.currentSize());
+    }
+
+    @Test
+    void largePayload_capsSizeByBytes() {
+        // 100 KB per row -> 10 rows per 1 MB target
+        sizer.recordSuccess(25, 2_500_000, TimeUnit.MILLISECONDS.toNanos(1), 0);
+        assertEquals(10, sizer.currentSize());
+    }
+
+    @Test
+    void failures_halveThenFallBackToPerRow() {
+        sizer.recordFailure(25);
+        assertEquals(12, sizer.currentSize());
+        sizer.recordFailure(12);
+        assertEquals(6, sizer.currentSize());
+        sizer.recordFailure(6);
+        assertEquals(1, sizer.currentSize());
+    }
+
+    @Test
+    void disabled_keepsConfiguredSize() {
+        config.setEnabled(false);
+        sizer.recordSuccess(25, 25_000, TimeUnit.MILLISECONDS.toNanos(1), 0);
+        sizer.recordFailure(25);
+        assertEquals(25, sizer.currentSize());
+        assertEquals(Long.MAX_VALUE, sizer.targetPayloadBytes());
+    }
+
+    @Test
+    void currentSize_isExposedAsGauge() {
+        assertEquals(25d, registry.get("jlimport.batch.size").gauge().value());
+    }
+}
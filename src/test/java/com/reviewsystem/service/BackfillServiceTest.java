@@ -0,0 +1,104 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.config.JLImportBackfillConfig;
+import com.reviewsystem.config.JLImportRequiredFieldsConfig;
+import com.reviewsystem.config.JLImportStringDedupConfig;
+import com.reviewsystem.config.JLImportTextCompressionConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BackfillServiceTest {
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final EntityVersionService entityVersionService = mock(EntityVersionService.class);
+    private BackfillService service;
+    private BackfillService.Run run;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        JLImportRequiredFieldsConfig requiredFields = new JLImportRequiredFieldsConfig();
+        requiredFields.setTopLevel(List.of("hotelId", "comment"));
+        requiredFields.setComment(List.of("hotelReviewId", "providerId"));
+        ReviewRecordMapper mapper = new ReviewRecordMapper(requiredFields,
+                new StringCanonicalizer(new JLImportStringDedupConfig(), new SimpleMeterRegistry()),
+                new JLImportTextCompressionConfig());
+        mapper.compile();
+        JLImportBackfillConfig config = new JLImportBackfillConfig();
+        config.setThreads(1);
+        config.setMaxReviewsPerSecond(0);
+        service = new BackfillService(mapper, jdbcTemplate, transactionTemplate, mock(WorkClaimService.class),
+                entityVersionService, mock(RatingRollupService.class), mock(LeaderboardService.class),
+                mock(S3ClientProvider.class), config);
+        run = service.new Run("test", EnumSet.of(BackfillService.Target.GRADES, BackfillService.Target.OBP));
+
+        // Only review 1 was imported (hotel 7, reviewer 9)
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(1L);
+        when(rs.getObject(2, Long.class)).thenReturn(7L);
+        when(rs.getObject(3, Long.class)).thenReturn(9L);
+        doAnswer(inv -> {
+            ((RowCallbackHandler) inv.getArgument(1)).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT id, hotel_id, reviewer_id FROM review"), any(RowCallbackHandler.class), any(Object[].class));
+        doAnswer(inv -> {
+            ((Consumer<Object>) inv.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        run.pool.shutdownNow();
+    }
+
+    private static String line(long reviewId, double cleanliness) {
+        return "{\"hotelId\":7,\"comment\":{\"hotelReviewId\":" + reviewId + ",\"providerId\":332},"
+                + "\"overallByProviders\":[{\"providerId\":332,\"provider\":\"Agoda\",\"overallScore\":8.5,\"reviewCount\":40,"
+                + "\"grades\":{\"Cleanliness\":" + cleanliness + ",\"Location\":9.0}}]}";
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void backfillLines_replacesDerivedRowsOfImportedReviewsOnly() throws Exception {
+        // Review 1 appears twice (last line wins), review 2 was never imported
+        Iterator<String> lines = List.of(line(1, 7.0), line(2, 8.0), line(1, 9.5), "{broken").iterator();
+        service.backfillLines(() -> lines.hasNext() ? lines.next() : null, run);
+
+        verify(jdbcTemplate).update(eq("DELETE FROM review_grades WHERE review_id IN (?)"), eq(1L));
+        verify(jdbcTemplate).update(eq("DELETE FROM overall_by_provider WHERE review_id IN (?)"), eq(1L));
+        ArgumentCaptor<List<Object[]>> grades = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO review_grades"), grades.capture());
+        assertEquals(2, grades.getValue().size());
+        assertArrayEquals(new Object[]{1L, "Cleanliness", 9.5}, grades.getValue().get(0));
+        ArgumentCaptor<List<Object[]>> obps = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO overall_by_provider"), obps.capture());
+        assertArrayEquals(new Object[]{1L, 332L, 8.5, 40}, obps.getValue().get(0));
+        verify(entityVersionService).bump(List.of(7L), List.of(9L));
+
+        BackfillReport report = run.report;
+        assertEquals(4, report.getLines());
+        assertEquals(1, report.getReviews());
+        assertEquals(1, report.getMissingReviews());
+        assertEquals(2, report.getGrades());
+        assertEquals(1, report.getOverallByProviders());
+        assertEquals(Map.of("malformed_json", 1L), report.getRejectedByReason());
+    }
+}
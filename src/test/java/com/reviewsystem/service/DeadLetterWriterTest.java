@@ -0,0 +1,80 @@
+package com.reviewsystem.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewsystem.config.JLImportDeadLetterConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadLetterWriterTest {
+    @TempDir Path tempDir;
+
+    private JLImportDeadLetterConfig config;
+    private DeadLetterWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        config = new JLImportDeadLetterConfig();
+        config.setFlushBatchSize(2);
+        writer = new DeadLetterWriter(config);
+        writer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        writer.stop();
+    }
+
+    @Test
+    void rejectedName_mapsAllSourceNamesToSibling() {
+        assertEquals("files/agoda_rejected.jl", DeadLetterWriter.rejectedName("files/agoda.jl"));
+        assertEquals("/data/agoda_rejected.jl", DeadLetterWriter.rejectedName("/data/agoda_processed.jl.processing"));
+    }
+
+    @Test
+    void reject_writesRawLinesWithReasonAndSummary() throws Exception {
+        Path target = tempDir.resolve("agoda_rejected.jl");
+        ImportSummary summary = new ImportSummary("agoda.jl");
+        try (DeadLetterSink sink = writer.open(target, summary)) {
+            sink.reject(3, "{broken", "malformed_json", "Unexpected end-of-input");
+            sink.reject(7, "{\"hotelId\":1}", "missing_required_fields", "comment, ");
+            sink.reject(9, "{\"hotelId\":2}", "missing_required_fields", "comment, ");
+        }
+        List<String> lines = Files.readAllLines(target);
+        assertEquals(3, lines.size());
+        JsonNode first = new ObjectMapper().readTree(lines.get(0));
+        assertEquals("agoda.jl", first.get("source").asText());
+        assertEquals(3, first.get("line").asInt());
+        assertEquals("malformed_json", first.get("reason").asText());
+        assertEquals("{broken", first.get("raw").asText());
+        assertEquals(3, summary.getRejected());
+        assertEquals(2L, summary.getRejectedByReason().get("missing_required_fields"));
+    }
+
+    @Test
+    void noRejections_createNoFile() {
+        Path target = tempDir.resolve("clean_rejected.jl");
+        writer.open(target, new ImportSummary("clean.jl")).close();
+        assertFalse(Files.exists(target));
+    }
+
+    @Test
+    void disabled_onlyCounts() {
+        config.setEnabled(false);
+        Path target = tempDir.resolve("off_rejected.jl");
+        ImportSummary summary = new ImportSummary("off.jl");
+        try (DeadLetterSink sink = writer.open(target, summary)) {
+            sink.reject(1, "x", "malformed_json", "x");
+        }
+        assertFalse(Files.exists(target));
+        assertEquals(1, summary.getRejected());
+    }
+}
@@ -0,0 +1,103 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.config.JLImportDryRunConfig;
+import com.reviewsystem.config.JLImportRequiredFieldsConfig;
+import com.reviewsystem.config.JLImportStringDedupConfig;
+import com.reviewsystem.config.JLImportTextCompressionConfig;
+import com.reviewsystem.repository.ProviderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DryRunServiceTest {
+    @TempDir Path tempDir;
+
+    private DryRunService service;
+    private JLImportDryRunConfig config;
+
+    @BeforeEach
+    void setUp() {
+        JLImportRequiredFieldsConfig requiredFields = new JLImportRequiredFieldsConfig();
+        requiredFields.setTopLevel(List.of("hotelId", "hotelName", "comment"));
+        requiredFields.setComment(List.of("hotelReviewId", "providerId", "rating", "reviewDate"));
+        ReviewRecordMapper mapper = new ReviewRecordMapper(requiredFields,
+                new StringCanonicalizer(new JLImportStringDedupConfig(), new SimpleMeterRegistry()),
+                new JLImportTextCompressionConfig());
+        mapper.compile();
+        ProviderRepository providers = mock(ProviderRepository.class);
+        when(providers.findAllIds()).thenReturn(List.of(332L));
+        config = new JLImportDryRunConfig();
+        config.setThreads(4);
+        config.setRangeBytes(300);
+        config.setChunkLines(7);
+        service = new DryRunService(mapper, providers, config);
+    }
+
+    private static String line(long reviewId, long providerId, String date) {
+        return "{\"hotelId\":1,\"hotelName\":\"H\",\"comment\":{\"hotelReviewId\":" + reviewId
+                + ",\"providerId\":" + providerId + ",\"reviewProviderText\":\"P\",\"rating\":8.0,\"reviewDate\":\"" + date + "\"}}";
+    }
+
+    private static List<String> sample() {
+        List<String> lines = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) lines.add(line(id, 332, "2025-04-10T05:37:00+07:00"));
+        lines.add(line(5, 332, "2025-04-10T05:37:00+07:00"));          // duplicate
+        lines.add(line(5, 332, "2025-04-10T05:37:00+07:00"));          // duplicate
+        lines.add(line(200, 999, "2025-04-10T05:37:00+07:00"));        // unknown provider
+        lines.add(line(201, 332, "10/04/2025"));                       // bad date
+        lines.add("{\"hotelId\":1,\"hotelName\":\"H\",\"comment\":{\"hotelReviewId\":300,\"providerId\":332}}");
+        lines.add("{broken");
+        return lines;
+    }
+
+    private static void assertSampleReport(DryRunReport report) {
+        assertEquals(106, report.getLines());
+        assertEquals(102, report.getValid());
+        assertEquals(2, report.getDuplicates());
+        assertEquals(1, report.getBadDates());
+        assertEquals(2, report.getRejected());
+        assertEquals(Map.of("malformed_json", 1L, "missing_required_fields", 1L), report.getRejectedByReason());
+        assertEquals(Map.of("comment.rating", 1L, "comment.reviewDate", 1L), report.getMissingFields());
+        assertEquals(Map.of(999L, 1L), report.getUnknownProviders());
+    }
+
+    @Test
+    void validateFiles_countsEveryLineOnceAcrossParallelRanges() throws Exception {
+        Path file = tempDir.resolve("feed.jl");
+        Files.write(file, sample(), StandardCharsets.UTF_8);
+
+        List<DryRunReport> reports = service.validateFiles(List.of(tempDir));
+
+        assertEquals(1, reports.size());
+        assertEquals(Files.size(file), reports.get(0).getBytes());
+        assertSampleReport(reports.get(0));
+    }
+
+    @Test
+    void validateStream_matchesFileResults() throws Exception {
+        byte[] body = String.join("\n", sample()).getBytes(StandardCharsets.UTF_8);
+        DryRunReport report = service.validateStream(new ByteArrayInputStream(body), "body");
+        assertEquals(body.length, report.getBytes());
+        assertSampleReport(report);
+    }
+
+    @Test
+    void concurrentLongSet_detectsRepeatsAcrossResizes() {
+        ConcurrentLongSet set = new ConcurrentLongSet();
+        for (long id = 0; id < 100_000; id++) assertTrue(set.add(id * 31));
+        for (long id = 0; id < 100_000; id += 997) assertFalse(set.add(id * 31));
+        assertEquals(100_000, set.size());
+    }
+}
@@ -0,0 +1,59 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.model.Hotel;
+import com.reviewsystem.model.Review;
+import com.reviewsystem.model.Reviewer;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EntityVersionServiceTest {
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final EntityVersionService service = new EntityVersionService(jdbcTemplate);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordWritten_bumpsEachHotelAndReviewerOnceInIdOrder() {
+        Hotel h1 = Hotel.builder().id(9L).build();
+        Hotel h2 = Hotel.builder().id(3L).build();
+        Reviewer r = Reviewer.builder().id(5L).build();
+        service.recordWritten(List.of(
+                Review.builder().id(1L).hotel(h1).reviewer(r).build(),
+                Review.builder().id(2L).hotel(h2).reviewer(r).build(),
+                Review.builder().id(3L).hotel(h1).build()));
+
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), args.capture());
+        assertEquals(3, args.getValue().size());
+        assertArrayEquals(new Object[]{"hotel", 3L}, args.getValue().get(0));
+        assertArrayEquals(new Object[]{"hotel", 9L}, args.getValue().get(1));
+        assertArrayEquals(new Object[]{"reviewer", 5L}, args.getValue().get(2));
+    }
+
+    @Test
+    void etag_isStrongAndZeroBeforeFirstImport() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("hotel"), eq(42L)))
+                .thenThrow(new EmptyResultDataAccessException(1));
+        assertEquals("\"hotel-42-v0\"", service.etag(EntityVersionService.HOTEL, 42L));
+
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("hotel"), eq(42L))).thenReturn(7L);
+        assertEquals("\"hotel-42-v7\"", service.etag(EntityVersionService.HOTEL, 42L));
+    }
+
+    @Test
+    void readVersioned_variantIsPartOfTheEtag() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("hotel"), eq(42L))).thenReturn(7L);
+        EntityVersionService.Versioned<String> read = service.readVersioned(EntityVersionService.HOTEL, 42L,
+                "week-2020-01-01-2020-12-31", "\"hotel-42-v7\""::equals, () -> "body");
+        assertFalse(read.notModified());
+        assertEquals("\"hotel-42-v7-week-2020-01-01-2020-12-31\"", read.etag());
+        assertEquals("body", read.body());
+    }
+}
@@ -0,0 +1,96 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.config.JLImportFolderConfig;
+import com.reviewsystem.config.JLImportWatchConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class FolderWatchServiceTest {
+    @TempDir Path dir;
+
+    private ReviewImportService reviewImportService;
+    private ImportExecutor importExecutor;
+    private FolderWatchService watcher;
+    private final Runnable task = () -> { };
+
+    @BeforeEach
+    void setUp() {
+        reviewImportService = mock(ReviewImportService.class);
+        importExecutor = mock(ImportExecutor.class);
+        when(reviewImportService.localFileTasks(any(File.class))).thenReturn(List.of(task));
+        when(importExecutor.trySubmit(any())).thenReturn(Optional.of(CompletableFuture.completedFuture(null)));
+        JLImportWatchConfig watchConfig = new JLImportWatchConfig();
+        watchConfig.setStableMillis(100);
+        watcher = new FolderWatchService(reviewImportService, new JLImportFolderConfig(), watchConfig, importExecutor);
+    }
+
+    @Test
+    void dispatch_waitsUntilSizeAndMtimeAreUnchangedForTheQuietPeriod() throws Exception {
+        Path file = Files.writeString(dir.resolve("a.jl"), "{}\n");
+        watcher.track(file);
+
+        watcher.dispatchStableFiles();
+        watcher.dispatchStableFiles();
+        verify(importExecutor, never()).trySubmit(any());
+
+        Thread.sleep(150);
+        // Still being written: the quiet period starts over
+        Files.writeString(file, "{}\n{}\n");
+        watcher.dispatchStableFiles();
+        verify(importExecutor, never()).trySubmit(any());
+
+        Thread.sleep(150);
+        watcher.dispatchStableFiles();
+        verify(importExecutor).trySubmit(task);
+
+        // Imported files are no longer tracked
+        Thread.sleep(150);
+        watcher.dispatchStableFiles();
+        verify(importExecutor).trySubmit(task);
+    }
+
+    @Test
+    void dispatch_forgetsFilesThatWereMovedAway() throws Exception {
+        Path file = Files.writeString(dir.resolve("a.jl"), "{}\n");
+        watcher.track(file);
+        watcher.dispatchStableFiles();
+        Files.move(file, dir.resolve("a_processed.jl.processing"));
+
+        Thread.sleep(150);
+        watcher.dispatchStableFiles();
+        verify(importExecutor, never()).trySubmit(any());
+    }
+
+    @Test
+    void dispatch_tracksShedFilesAgain() throws Exception {
+        when(importExecutor.trySubmit(any())).thenReturn(Optional.empty(), Optional.of(CompletableFuture.completedFuture(null)));
+        Path file = Files.writeString(dir.resolve("a.jl"), "{}\n");
+        watcher.track(file);
+        watcher.dispatchStableFiles();
+        Thread.sleep(150);
+        watcher.dispatchStableFiles();
+        verify(importExecutor, times(1)).trySubmit(task);
+
+        // The retry waits for another quiet period
+        watcher.dispatchStableFiles();
+        verify(importExecutor, times(1)).trySubmit(task);
+        Thread.sleep(150);
+        watcher.dispatchStableFiles();
+        verify(importExecutor, times(2)).trySubmit(task);
+
+        Thread.sleep(150);
+        watcher.dispatchStableFiles();
+        verify(importExecutor, times(2)).trySubmit(task);
+    }
+}
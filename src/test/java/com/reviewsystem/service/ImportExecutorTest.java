@@ -0,0 +1,54 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.config.JLImportBulkheadConfig;
+import com.reviewsystem.config.JLImportFolderConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportExecutorTest {
+    private SimpleMeterRegistry meterRegistry;
+    private ImportExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        JLImportFolderConfig folderConfig = new JLImportFolderConfig();
+        folderConfig.setConcurrentThreads(1);
+        JLImportBulkheadConfig bulkheadConfig = new JLImportBulkheadConfig();
+        bulkheadConfig.setImportQueueCapacity(1);
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new ImportExecutor(folderConfig, bulkheadConfig, meterRegistry);
+        executor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.stop();
+    }
+
+    @Test
+    void tasksBeyondWorkersAndQueue_areShed() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        assertTrue(executor.trySubmit(() -> {
+            running.countDown();
+            try { release.await(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }).isPresent());
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        var queued = executor.trySubmit(() -> {});
+        assertTrue(queued.isPresent());
+        assertTrue(executor.trySubmit(() -> {}).isEmpty());
+        assertEquals(1.0, meterRegistry.get("jlimport.import.shed").counter().count());
+
+        release.countDown();
+        queued.get().get(5, TimeUnit.SECONDS);
+        assertEquals(2, meterRegistry.get("jlimport.import.queue.wait").timer().count());
+    }
+}
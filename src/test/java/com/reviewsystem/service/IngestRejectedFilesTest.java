@@ -0,0 +1,55 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.config.JLImportFolderConfig;
+import com.reviewsystem.config.JLImportIngestConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestRejectedFilesTest {
+    @TempDir Path tempDir;
+    private IngestRejectedFiles files;
+
+    @BeforeEach
+    void setUp() {
+        JLImportFolderConfig folderConfig = new JLImportFolderConfig();
+        folderConfig.setTempDir(tempDir.toString());
+        JLImportIngestConfig ingestConfig = new JLImportIngestConfig();
+        ingestConfig.setRejectedRetentionHours(24);
+        files = new IngestRejectedFiles(folderConfig, ingestConfig);
+    }
+
+    @Test
+    void find_resolvesOnlyRejectedFilesOfRequests() throws Exception {
+        Path rejected = Files.writeString(files.pathFor(IngestRejectedFiles.newSourceName()), "{}\n");
+        Files.writeString(tempDir.resolve("s3jl_1.jl"), "{}\n");
+
+        assertEquals(rejected, files.find(rejected.getFileName().toString()).orElseThrow());
+        assertTrue(files.find("s3jl_1.jl").isEmpty());
+        assertTrue(files.find("../" + rejected.getFileName()).isEmpty());
+    }
+
+    @Test
+    void purgeExpired_deletesOldRejectedFilesOnly() throws Exception {
+        FileTime old = FileTime.from(Instant.now().minus(Duration.ofHours(25)));
+        Path expired = Files.writeString(files.pathFor(IngestRejectedFiles.newSourceName()), "{}\n");
+        Files.setLastModifiedTime(expired, old);
+        Path recent = Files.writeString(files.pathFor(IngestRejectedFiles.newSourceName()), "{}\n");
+        Path download = Files.writeString(tempDir.resolve("s3jl_1.jl"), "{}\n");
+        Files.setLastModifiedTime(download, old);
+
+        files.purgeExpired();
+
+        assertFalse(Files.exists(expired));
+        assertTrue(Files.exists(recent));
+        assertTrue(Files.exists(download));
+    }
+}
@@ -0,0 +1,71 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.config.LeaderboardConfig;
+import com.reviewsystem.dto.LeaderboardEntryDTO;
+import com.reviewsystem.model.Hotel;
+import com.reviewsystem.model.Provider;
+import com.reviewsystem.model.Review;
+import com.reviewsystem.model.ReviewGrades;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LeaderboardServiceTest {
+    private static final Provider AGODA = Provider.builder().id(332L).build();
+
+    private final LeaderboardConfig config = new LeaderboardConfig();
+    private final LeaderboardService service = new LeaderboardService(mock(JdbcTemplate.class), config);
+
+    @Test
+    void recordWritten_ranksByAverageAndMovesHotelsOnUpdate() {
+        config.setMinReviews(2);
+        service.recordWritten(reviews(1L, 8.0, 8.0), List.of());
+        service.recordWritten(reviews(2L, 9.0, 9.0), List.of());
+        service.recordWritten(reviews(3L, 10.0), List.of());
+
+        assertEquals(List.of(2L, 1L), hotelIds(service.page(332L, "rating", 0, 10)));
+
+        // Hotel 1 reaches a 9.2 average; hotel 3 now has enough reviews to be ranked
+        service.recordWritten(reviews(1L, 10.0, 10.0, 10.0), List.of());
+        service.recordWritten(reviews(3L, 6.0), List.of());
+        List<LeaderboardEntryDTO> page = service.page(332L, "rating", 0, 10);
+        assertEquals(List.of(1L, 2L, 3L), hotelIds(page));
+        assertEquals(1, page.get(0).rank);
+        assertEquals(5, page.get(0).reviewCount);
+
+        List<LeaderboardEntryDTO> second = service.page(332L, "rating", 1, 1);
+        assertEquals(List.of(2L), hotelIds(second));
+        assertEquals(2, second.get(0).rank);
+    }
+
+    @Test
+    void recordWritten_gradesGoToTheirCategoryBoard() {
+        config.setMinReviews(1);
+        Review review = reviews(5L, 7.0).get(0);
+        service.recordWritten(List.of(review), List.of(ReviewGrades.builder().review(review).category("Cleanliness").score(9.5).build()));
+
+        List<LeaderboardEntryDTO> page = service.page(332L, "Cleanliness", 0, 10);
+        assertEquals(1, page.size());
+        assertEquals(9.5, page.get(0).averageScore);
+        assertTrue(service.page(3038L, "Cleanliness", 0, 10).isEmpty());
+    }
+
+    private static List<Review> reviews(long hotelId, double... ratings) {
+        List<Review> reviews = new ArrayList<>();
+        for (double rating : ratings) {
+            reviews.add(Review.builder().hotel(Hotel.builder().id(hotelId).build()).provider(AGODA)
+                    .rating(rating).reviewDate(LocalDateTime.of(2024, 1, 1, 0, 0)).build());
+        }
+        return reviews;
+    }
+
+    private static List<Long> hotelIds(List<LeaderboardEntryDTO> page) {
+        return page.stream().map(e -> e.hotelId).toList();
+    }
+}
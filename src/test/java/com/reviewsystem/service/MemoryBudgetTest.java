@@ -0,0 +1,96 @@
+package com.reviewsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewsystem.config.JLImportMemoryConfig;
+import com.reviewsystem.config.JLImportRequiredFieldsConfig;
+import com.reviewsystem.config.JLImportStringDedupConfig;
+import com.reviewsystem.config.JLImportTextCompressionConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryBudgetTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private MemoryBudget budget;
+
+    @BeforeEach
+    void setUp() {
+        JLImportMemoryConfig config = new JLImportMemoryConfig();
+        config.setBudgetBytes(1000);
+        budget = new MemoryBudget(config, registry);
+        budget.init();
+    }
+
+    @Test
+    void acquire_waitsUntilReleased() throws Exception {
+        assertTrue(budget.tryAcquire(600));
+        assertFalse(budget.tryAcquire(600));
+
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(() -> budget.acquire(600));
+        assertThrows(TimeoutException.class, () -> waiting.get(200, TimeUnit.MILLISECONDS));
+        budget.release(600);
+        waiting.get(5, TimeUnit.SECONDS);
+        assertEquals(600, budget.getInFlight());
+        assertEquals(600.0, registry.get("jlimport.memory.in-flight.bytes").gauge().value());
+    }
+
+    /**
+     * Holds what importLines keeps per pending line (the raw line and the mapped record with
+     * the JSON it points to) until the budget is full, and compares the heap this retains
+     * with the budget.
+     */
+    @Test
+    void realisticLines_retainNoMoreHeapThanReserved() throws Exception {
+        JLImportMemoryConfig config = new JLImportMemoryConfig();
+        config.setBudgetBytes(32L * 1024 * 1024);
+        MemoryBudget full = new MemoryBudget(config, new SimpleMeterRegistry());
+        full.init();
+        JLImportRequiredFieldsConfig fields = new JLImportRequiredFieldsConfig();
+        fields.setTopLevel(List.of("hotelId", "hotelName", "comment"));
+        fields.setComment(List.of("hotelReviewId", "providerId", "rating", "reviewComments", "reviewDate", "reviewerInfo"));
+        ReviewRecordMapper mapper = new ReviewRecordMapper(fields,
+                new StringCanonicalizer(new JLImportStringDedupConfig(), new SimpleMeterRegistry()), new JLImportTextCompressionConfig());
+        mapper.compile();
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> lines = Files.readAllLines(Paths.get("files/agoda_com_2025-04-10_processed.jl"), StandardCharsets.UTF_8);
+
+        List<Object[]> held = new ArrayList<>();
+        long before = usedHeap();
+        for (int i = 0; ; i++) {
+            // A fresh copy, as if read from the source
+            String line = String.valueOf(lines.get(i % lines.size()).toCharArray());
+            ReviewRecordMapper.Record record = mapper.read(objectMapper.readTree(line));
+            if (!full.tryAcquire(MemoryBudget.estimate(line, mapper.retainedBytes(record), 0))) break;
+            held.add(new Object[]{line, record});
+        }
+        long retained = usedHeap() - before;
+
+        assertTrue(held.size() > 1000);
+        assertTrue(retained <= full.getInFlight(), "retained " + retained + " bytes for " + full.getInFlight() + " reserved");
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Test
+    void recordLargerThanBudget_passesWhenNothingElseIsReserved() {
+        assertTrue(budget.tryAcquire(5000));
+        assertFalse(budget.tryAcquire(1));
+        budget.release(5000);
+        assertEquals(0, budget.getInFlight());
+    }
+}
@@ -0,0 +1,83 @@
+package com.reviewsystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RangeLineReaderTest {
+
+    private static final List<String> LINES = List.of(
+            "{\"hotelId\":1,\"comment\":\"first\"}",
+            "{\"hotelId\":2,\"comment\":\"zweite Zeile – ünïcödé\"}",
+            "",
+            "{\"hotelId\":3}",
+            "{\"hotelId\":4,\"comment\":\"a somewhat longer line to cross range boundaries\"}");
+
+    @Test
+    void everyLineIsReadExactlyOnce_forAnyRangeSize() throws Exception {
+        byte[] content = (String.join("\n", LINES) + "\n").getBytes(StandardCharsets.UTF_8);
+        for (long rangeBytes = 1; rangeBytes <= content.length + 1; rangeBytes++) {
+            List<String> read = new ArrayList<>();
+            for (ByteRange range : ByteRange.split(content.length, rangeBytes)) {
+                read.addAll(readRange(content, range));
+            }
+            assertEquals(LINES, read, "range size " + rangeBytes);
+        }
+    }
+
+    @Test
+    void lastLineWithoutNewline_andCrLf_areHandled() throws Exception {
+        byte[] content = "a\r\nbb\r\nccc".getBytes(StandardCharsets.UTF_8);
+        for (long rangeBytes = 1; rangeBytes <= content.length; rangeBytes++) {
+            List<String> read = new ArrayList<>();
+            for (ByteRange range : ByteRange.split(content.length, rangeBytes)) {
+                read.addAll(readRange(content, range));
+            }
+            assertEquals(List.of("a", "bb", "ccc"), read, "range size " + rangeBytes);
+        }
+    }
+
+    @Test
+    void linesSpanningBufferBlocks_areJoined() throws Exception {
+        byte[] content = (String.join("\r\n", LINES) + "\n").getBytes(StandardCharsets.UTF_8);
+        for (int bufferSize = 1; bufferSize <= content.length + 1; bufferSize++) {
+            for (long rangeBytes : new long[]{7, 40, content.length}) {
+                List<String> read = new ArrayList<>();
+                for (ByteRange range : ByteRange.split(content.length, rangeBytes)) {
+                    read.addAll(readRange(content, range, bufferSize));
+                }
+                assertEquals(LINES, read, "buffer " + bufferSize + ", range size " + rangeBytes);
+            }
+        }
+    }
+
+    @Test
+    void split_coversWholeFile() {
+        List<ByteRange> ranges = ByteRange.split(250, 100);
+        assertEquals(3, ranges.size());
+        assertEquals(0, ranges.get(0).start());
+        assertEquals(200, ranges.get(2).start());
+        assertEquals(250, ranges.get(2).end());
+        assertEquals("agoda_part002_rejected.jl", ranges.get(2).rejectedName("agoda.jl"));
+    }
+
+    private List<String> readRange(byte[] content, ByteRange range) throws Exception {
+        return readRange(content, range, 64 * 1024);
+    }
+
+    private List<String> readRange(byte[] content, ByteRange range, int bufferSize) throws Exception {
+        int from = (int) (range.start() == 0 ? 0 : range.start() - 1);
+        InputStream in = new ByteArrayInputStream(content, from, content.length - from);
+        RangeLineReader reader = new RangeLineReader(in, range, bufferSize);
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) lines.add(line);
+        return lines;
+    }
+}
@@ -0,0 +1,110 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.model.Hotel;
+import com.reviewsystem.model.Provider;
+import com.reviewsystem.model.Review;
+import com.reviewsystem.model.ReviewGrades;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RatingRollupServiceTest {
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final EntityVersionService entityVersionService = mock(EntityVersionService.class);
+    private final RatingRollupService service = new RatingRollupService(jdbcTemplate, transactionTemplate, entityVersionService);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuild_bumpsTheVersionOfEachRebuiltHotel() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class))).thenReturn(List.of(3L, 9L));
+        doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        assertEquals(2, service.rebuild());
+
+        verify(entityVersionService).bump(List.of(3L), List.of());
+        verify(entityVersionService).bump(List.of(9L), List.of());
+    }
+
+    @Test
+    void bucketStart_monthAndMondayWeek() {
+        LocalDate sunday = LocalDate.of(2024, 3, 3);
+        assertEquals(LocalDate.of(2024, 3, 1), RatingRollupService.Granularity.MONTH.bucketStart(sunday));
+        assertEquals(LocalDate.of(2024, 2, 26), RatingRollupService.Granularity.WEEK.bucketStart(sunday));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordWritten_aggregatesByReviewDateBucket() {
+        Hotel hotel = Hotel.builder().id(7L).build();
+        Provider provider = Provider.builder().id(2L).build();
+        Review late = Review.builder().id(1L).hotel(hotel).provider(provider).rating(8.0)
+                .reviewDate(LocalDateTime.of(2019, 5, 14, 10, 0)).build();
+        Review sameMonth = Review.builder().id(2L).hotel(hotel).provider(provider).rating(6.5)
+                .reviewDate(LocalDateTime.of(2019, 5, 30, 10, 0)).build();
+        Review undated = Review.builder().id(3L).hotel(hotel).provider(provider).rating(9.0).build();
+        ReviewGrades cleanliness = ReviewGrades.builder().review(late).category("Cleanliness").score(9.0).build();
+
+        service.recordWritten(List.of(late, sameMonth, undated), List.of(cleanliness));
+
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), args.capture());
+        List<Object[]> rows = args.getValue();
+        // Month: one rating bucket for both reviews plus Cleanliness; week: two rating buckets plus Cleanliness
+        assertEquals(5, rows.size());
+        assertArrayEquals(new Object[]{7L, "M", Date.valueOf("2019-05-01"), 2L, "Cleanliness", 1L, new BigDecimal("9.0")}, rows.get(0));
+        assertArrayEquals(new Object[]{7L, "M", Date.valueOf("2019-05-01"), 2L, "rating", 2L, new BigDecimal("14.5")}, rows.get(1));
+        assertArrayEquals(new Object[]{7L, "W", Date.valueOf("2019-05-13"), 2L, "rating", 1L, new BigDecimal("8.0")}, rows.get(3));
+        assertArrayEquals(new Object[]{7L, "W", Date.valueOf("2019-05-27"), 2L, "rating", 1L, new BigDecimal("6.5")}, rows.get(4));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordChanged_movesRatingAndGradesBetweenBucketsAndCancelsUnchanged() {
+        Hotel hotel = Hotel.builder().id(7L).build();
+        Provider provider = Provider.builder().id(2L).build();
+        Review before = Review.builder().id(1L).hotel(hotel).provider(provider).rating(6.0)
+                .reviewDate(LocalDateTime.of(2019, 5, 14, 10, 0)).build();
+        Review after = Review.builder().id(1L).hotel(hotel).provider(provider).rating(9.0)
+                .reviewDate(LocalDateTime.of(2019, 5, 15, 10, 0)).build();
+        Review untouched = Review.builder().id(2L).hotel(hotel).provider(provider).rating(7.0)
+                .reviewDate(LocalDateTime.of(2020, 1, 1, 0, 0)).build();
+
+        service.recordChanged(List.of(before, untouched), List.of(after, untouched),
+                List.of(ReviewGrades.builder().review(before).category("Cleanliness").score(7.0).build(),
+                        ReviewGrades.builder().review(untouched).category("Service").score(8.0).build()),
+                List.of(ReviewGrades.builder().review(after).category("Cleanliness").score(8.0).build(),
+                        ReviewGrades.builder().review(untouched).category("Service").score(8.0).build()));
+
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), args.capture());
+        // Same month and week: only the scores move
+        assertEquals(4, args.getValue().size());
+        assertArrayEquals(new Object[]{7L, "M", Date.valueOf("2019-05-01"), 2L, "Cleanliness", 0L, new BigDecimal("1.0")}, args.getValue().get(0));
+        assertArrayEquals(new Object[]{7L, "M", Date.valueOf("2019-05-01"), 2L, "rating", 0L, new BigDecimal("3.0")}, args.getValue().get(1));
+        assertArrayEquals(new Object[]{7L, "W", Date.valueOf("2019-05-13"), 2L, "Cleanliness", 0L, new BigDecimal("1.0")}, args.getValue().get(2));
+        assertArrayEquals(new Object[]{7L, "W", Date.valueOf("2019-05-13"), 2L, "rating", 0L, new BigDecimal("3.0")}, args.getValue().get(3));
+    }
+
+    @Test
+    void recordWritten_nothingBucketed_skipsWrite() {
+        service.recordWritten(List.of(Review.builder().id(1L).rating(5.0).build()), List.of());
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,28 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.model.Review;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReviewBatchTest {
+
+    @Test
+    void utf8Length_matchesEncodedLength() {
+        for (String s : List.of("", "plain ascii", "café", "ホテルのレビュー", "emoji 😀 pair", "mixé ホ 🏨")) {
+            assertEquals(s.getBytes(StandardCharsets.UTF_8).length, ReviewBatch.utf8Length(s), s);
+        }
+    }
+
+    @Test
+    void add_countsPayloadInUtf8Bytes() {
+        ReviewBatch batch = new ReviewBatch();
+        batch.add(new Review(), List.of(), List.of(), "{\"t\":\"ホテル\"}", 1, 0);
+        assertEquals(17, batch.payloadBytes);
+        batch.clear();
+        assertEquals(0, batch.payloadBytes);
+    }
+}
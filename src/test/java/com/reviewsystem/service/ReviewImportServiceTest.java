@@ -5,15 +5,28 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.reviewsystem.config.JLImportRequiredFieldsConfig;
 import com.reviewsystem.config.JLImportS3Config;
 import com.reviewsystem.config.JLImportFolderConfig;
+import com.reviewsystem.config.JLImportDeadLetterConfig;
+import com.reviewsystem.config.JLImportMemoryConfig;
+import com.reviewsystem.config.JLImportWriterLanesConfig;
+import com.reviewsystem.config.JLImportSplitConfig;
+import com.reviewsystem.config.JLImportStringDedupConfig;
+import com.reviewsystem.config.JLImportTextCompressionConfig;
+import com.reviewsystem.config.JLImportWatchConfig;
 import com.reviewsystem.model.*;
 import com.reviewsystem.repository.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,6 +44,9 @@ class ReviewImportServiceTest {
     @Mock JLImportRequiredFieldsConfig requiredFieldsConfig;
     @Mock JLImportS3Config s3Config;
     @Mock JLImportFolderConfig folderConfig;
+    @Mock RatingRollupService ratingRollupService;
+    @Mock LeaderboardService leaderboardService;
+    @Mock EntityVersionService entityVersionService;
 
     @InjectMocks ReviewImportService service;
 
@@ -42,6 +58,12 @@ class ReviewImportServiceTest {
         when(requiredFieldsConfig.getComment()).thenReturn(List.of("hotelReviewId", "providerId", "rating", "reviewComments", "reviewDate", "reviewerInfo"));
         // Default folder path
         when(folderConfig.getFolderPath()).thenReturn("/tmp");
+        // Mapper is compiled from the required fields above
+        ReviewRecordMapper recordMapper = new ReviewRecordMapper(requiredFieldsConfig,
+                new StringCanonicalizer(new JLImportStringDedupConfig(), new SimpleMeterRegistry()),
+                new JLImportTextCompressionConfig());
+        recordMapper.compile();
+        ReflectionTestUtils.setField(service, "recordMapper", recordMapper);
     }
 
     @Test
@@ -107,7 +129,7 @@ class ReviewImportServiceTest {
 
     @Test
     void testUpsertReviewer_insertsIfNotExists() throws Exception {
-        when(reviewerRepository.findAll()).thenReturn(List.of());
+        when(reviewerRepository.findFirstByDisplayNameAndCountryName("A", "B")).thenReturn(Optional.empty());
         when(reviewerRepository.save(any())).thenReturn(new Reviewer());
         String json = "{\"displayMemberName\":\"A\",\"countryName\":\"B\"}";
         JsonNode node = new ObjectMapper().readTree(json);
@@ -119,7 +141,7 @@ class ReviewImportServiceTest {
     @Test
     void testUpsertReviewer_returnsExisting() throws Exception {
         Reviewer existing = Reviewer.builder().displayName("A").countryName("B").build();
-        when(reviewerRepository.findAll()).thenReturn(List.of(existing));
+        when(reviewerRepository.findFirstByDisplayNameAndCountryName("A", "B")).thenReturn(Optional.of(existing));
         String json = "{\"displayMemberName\":\"A\",\"countryName\":\"B\"}";
         JsonNode node = new ObjectMapper().readTree(json);
         Reviewer result = ReflectionTestUtils.invokeMethod(service, "upsertReviewer", node);
@@ -142,6 +164,160 @@ class ReviewImportServiceTest {
         assertEquals("Good", review.getReviewComments());
     }
 
+    @Test
+    void importLines_failedChunkIsDeadLetteredAndFailsTheSource(@TempDir Path dir) throws Exception {
+        DeadLetterWriter deadLetterWriter = useRealWriteStage();
+        MemoryBudget memoryBudget = (MemoryBudget) ReflectionTestUtils.getField(service, "memoryBudget");
+        when(reviewRepository.findStatesByIdIn(any())).thenThrow(new RuntimeException("Communications link failure"));
+
+        String lines = line(1, 11) + "\n" + line(2, 22) + "\n";
+        Path rejected = dir.resolve("t_rejected.jl");
+        ImportSummary summary = service.importLines(new BufferedReader(new StringReader(lines))::readLine, "t.jl", rejected);
+        deadLetterWriter.stop();
+
+        assertFalse(summary.isComplete());
+        assertEquals(2L, summary.getRejectedByReason().get("chunk_write_failed"));
+        assertEquals(2, Files.readAllLines(rejected).size());
+        assertEquals(0, memoryBudget.getInFlight());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importLines_persistsNewReviewsAsNewAndBatchesTheirRowsThroughJdbc(@TempDir Path dir) throws Exception {
+        DeadLetterWriter deadLetterWriter = useRealWriteStage();
+        when(reviewRepository.findStatesByIdIn(any())).thenReturn(List.of());
+        when(providerRepository.findById(any())).thenReturn(Optional.of(new Provider()));
+        when(hotelRepository.findById(any())).thenReturn(Optional.of(new Hotel()));
+        when(reviewerRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        // The batch list is cleared after the flush, so look at it while saveAll runs
+        List<Boolean> savedAsNew = new java.util.ArrayList<>();
+        when(reviewRepository.saveAll(any())).thenAnswer(inv -> {
+            for (Review r : (List<Review>) inv.getArgument(0)) savedAsNew.add(r.isNew());
+            return inv.getArgument(0);
+        });
+
+        String obp = ",\"overallByProviders\":[{\"providerId\":1,\"provider\":\"Agoda\",\"overallScore\":7.9,"
+                + "\"reviewCount\":10,\"grades\":{\"Cleanliness\":7.7,\"Location\":9.1}}]}";
+        String lines = withObp(line(1, 11), obp) + "\n" + withObp(line(2, 11), obp) + "\n";
+        ImportSummary summary = service.importLines(new BufferedReader(new StringReader(lines))::readLine, "t.jl",
+                dir.resolve("t_rejected.jl"));
+        deadLetterWriter.stop();
+
+        assertEquals(List.of(true, true), savedAsNew);
+        org.mockito.ArgumentCaptor<List<ReviewGrades>> grades = org.mockito.ArgumentCaptor.forClass(List.class);
+        verify(reviewGradesRepository).insertAll(grades.capture());
+        assertEquals(4, grades.getValue().size());
+        verify(overallByProviderRepository).insertAll(argThat(rows -> rows.size() == 2));
+        verify(reviewGradesRepository, never()).saveAll(any());
+        verify(overallByProviderRepository, never()).saveAll(any());
+        assertEquals(2, summary.getAccepted());
+    }
+
+    @Test
+    void importLines_reviewWithoutStoredHash_getsOnlyItsHashWritten(@TempDir Path dir) throws Exception {
+        DeadLetterWriter deadLetterWriter = useRealWriteStage();
+        ReviewStateRow stored = mock(ReviewStateRow.class);
+        when(stored.getId()).thenReturn(1L);
+        when(stored.getContentHash()).thenReturn(null);
+        when(reviewRepository.findStatesByIdIn(any())).thenReturn(List.of(stored));
+
+        ImportSummary summary = service.importLines(new BufferedReader(new StringReader(line(1, 11) + "\n"))::readLine, "t.jl",
+                dir.resolve("t_rejected.jl"));
+        deadLetterWriter.stop();
+
+        verify(reviewRepository).recordMissingContentHashes(argThat(hashes -> hashes.size() == 1 && hashes.get(1L) != null));
+        verify(reviewRepository, never()).saveAll(any());
+        verifyNoInteractions(ratingRollupService, leaderboardService, entityVersionService);
+        assertEquals(1, summary.getDuplicates());
+        assertEquals(0, summary.getUpdated());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importLines_changedReview_isRewrittenWithItsDerivedRowsFromItsLastLine(@TempDir Path dir) throws Exception {
+        DeadLetterWriter deadLetterWriter = useRealWriteStage();
+        ReviewStateRow stored = mock(ReviewStateRow.class);
+        when(stored.getId()).thenReturn(1L);
+        when(stored.getContentHash()).thenReturn(42L);
+        when(reviewRepository.findStatesByIdIn(any())).thenReturn(List.of(stored));
+        when(providerRepository.findById(any())).thenReturn(Optional.of(new Provider()));
+        when(hotelRepository.findById(any())).thenReturn(Optional.of(new Hotel()));
+        when(reviewerRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        List<Double> savedRatings = new java.util.ArrayList<>();
+        when(reviewRepository.saveAll(any())).thenAnswer(inv -> {
+            for (Review r : (List<Review>) inv.getArgument(0)) savedRatings.add(r.getRating());
+            return inv.getArgument(0);
+        });
+
+        String first = withObp(line(1, 11), ",\"overallByProviders\":[{\"providerId\":1,\"provider\":\"Agoda\","
+                + "\"overallScore\":7.9,\"reviewCount\":10,\"grades\":{\"Cleanliness\":7.7}}]}");
+        String last = withObp(line(1, 11), ",\"overallByProviders\":[{\"providerId\":1,\"provider\":\"Agoda\","
+                + "\"overallScore\":8.1,\"reviewCount\":11,\"grades\":{\"Cleanliness\":9.0,\"Location\":9.5}}]}")
+                .replace("\"rating\":5,", "\"rating\":8,");
+        ImportSummary summary = service.importLines(new BufferedReader(new StringReader(first + "\n" + last + "\n"))::readLine,
+                "t.jl", dir.resolve("t_rejected.jl"));
+        deadLetterWriter.stop();
+
+        assertEquals(List.of(8.0), savedRatings);
+        verify(reviewGradesRepository).replaceAll(eq(List.of(1L)), argThat(grades -> grades.size() == 2
+                && grades.stream().anyMatch(g -> g.getCategory().equals("Cleanliness") && g.getScore() == 9.0)));
+        verify(overallByProviderRepository).replaceAll(eq(List.of(1L)),
+                argThat(rows -> rows.size() == 1 && rows.get(0).getReviewCount() == 11));
+        verify(ratingRollupService).recordChanged(any(), any(), any(), argThat(grades -> grades.size() == 2));
+        verify(reviewGradesRepository, never()).insertAll(any());
+        assertEquals(1, summary.getUpdated());
+        assertEquals(1, summary.getDuplicates());
+    }
+
+    /**
+     * Replaces the mocked write stage with real lanes, memory budget and dead-letter writer.
+     */
+    private DeadLetterWriter useRealWriteStage() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        WriterLanes writerLanes = new WriterLanes(new JLImportWriterLanesConfig(), registry);
+        writerLanes.init();
+        MemoryBudget memoryBudget = new MemoryBudget(new JLImportMemoryConfig(), registry);
+        memoryBudget.init();
+        DeadLetterWriter deadLetterWriter = new DeadLetterWriter(new JLImportDeadLetterConfig());
+        deadLetterWriter.start();
+        AdaptiveBatchSizer batchSizer = mock(AdaptiveBatchSizer.class);
+        when(batchSizer.currentSize()).thenReturn(100);
+        when(batchSizer.targetPayloadBytes()).thenReturn(Long.MAX_VALUE);
+        ReflectionTestUtils.setField(service, "writerLanes", writerLanes);
+        ReflectionTestUtils.setField(service, "memoryBudget", memoryBudget);
+        ReflectionTestUtils.setField(service, "deadLetterWriter", deadLetterWriter);
+        ReflectionTestUtils.setField(service, "batchSizer", batchSizer);
+        return deadLetterWriter;
+    }
+
+    private static String withObp(String line, String obp) {
+        return line.replace("\"rating\":5,", "\"rating\":5,\"reviewProviderText\":\"Agoda\",").replaceFirst("}$", obp);
+    }
+
+    private static String line(long reviewId, long hotelId) {
+        return "{\"hotelId\":" + hotelId + ",\"hotelName\":\"Test\",\"comment\":{\"hotelReviewId\":" + reviewId
+                + ",\"providerId\":1,\"rating\":5,\"reviewComments\":\"Good\",\"reviewDate\":\"2025-01-01T00:00:00+00:00\",\"reviewerInfo\":{}}}";
+    }
+
+    @Test
+    void parseAndImportJLFolder_leavesRecentlyModifiedFilesForTheNextScan(@TempDir Path dir) throws Exception {
+        ImportExecutor importExecutor = mock(ImportExecutor.class);
+        JLImportWatchConfig watchConfig = new JLImportWatchConfig();
+        watchConfig.setStableMillis(60_000);
+        ReflectionTestUtils.setField(service, "importExecutor", importExecutor);
+        ReflectionTestUtils.setField(service, "watchConfig", watchConfig);
+        ReflectionTestUtils.setField(service, "splitConfig", new JLImportSplitConfig());
+        Path settled = Files.writeString(dir.resolve("settled.jl"), line(1, 10) + "\n");
+        assertTrue(settled.toFile().setLastModified(System.currentTimeMillis() - 120_000));
+        Files.writeString(dir.resolve("copying.jl"), line(2, 10) + "\n");
+
+        service.parseAndImportJLFolder(dir.toString());
+
+        // Only the settled file is submitted; the one still being copied keeps its name
+        verify(importExecutor, times(1)).trySubmit(any());
+        assertTrue(Files.exists(dir.resolve("copying.jl")));
+    }
+
     @Test
     void testImportJLFiles_usesS3OrLocalBasedOnFlag() {
         // S3 scenario
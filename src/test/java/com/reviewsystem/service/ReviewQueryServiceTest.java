@@ -0,0 +1,96 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.dto.OverallByProviderDTO;
+import com.reviewsystem.dto.ReviewWithGradesDTO;
+import com.reviewsystem.model.Review;
+import com.reviewsystem.model.ReviewGrades;
+import com.reviewsystem.repository.OverallByProviderRepository;
+import com.reviewsystem.repository.ProviderScoreRow;
+import com.reviewsystem.repository.ReviewGradesRepository;
+import com.reviewsystem.repository.ReviewRepository;
+import com.reviewsystem.repository.ReviewSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class ReviewQueryServiceTest {
+    @Mock ReviewRepository reviewRepository;
+    @Mock ReviewGradesRepository reviewGradesRepository;
+    @Mock OverallByProviderRepository overallByProviderRepository;
+
+    @InjectMocks ReviewQueryService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void findByHotel_attachesGradesFromChunkedBulkQueries() {
+        int reviews = ReviewQueryService.GRADES_CHUNK_SIZE + 1;
+        List<ReviewSummary> summaries = new ArrayList<>();
+        for (long id = 1; id <= reviews; id++) summaries.add(summary(id));
+        when(reviewRepository.findSummariesByHotelId(7L)).thenReturn(summaries);
+        when(reviewGradesRepository.findByReview_IdIn(anyCollection())).thenAnswer(inv -> {
+            List<ReviewGrades> grades = new ArrayList<>();
+            for (Long id : inv.<Collection<Long>>getArgument(0)) {
+                if (id % 2 == 0) continue;
+                grades.add(ReviewGrades.builder().review(Review.builder().id(id).build()).category("Cleanliness").score(9.0).build());
+            }
+            return grades;
+        });
+
+        List<ReviewWithGradesDTO> dtos = service.findByHotel(7L);
+
+        assertEquals(reviews, dtos.size());
+        assertEquals(1L, dtos.get(0).reviewId);
+        assertEquals("comment 1", dtos.get(0).reviewComments);
+        assertEquals(1, dtos.get(0).grades.size());
+        assertTrue(dtos.get(1).grades.isEmpty());
+        verify(reviewGradesRepository, times(2)).findByReview_IdIn(anyCollection());
+        verify(reviewRepository, never()).findByHotelId(any());
+    }
+
+    @Test
+    void latestOverallByProvider_groupsOneQueryByHotelInRequestOrder() {
+        List<ProviderScoreRow> rows = List.of(scoreRow(5L, 332L, 8.5), scoreRow(5L, 3038L, 9.0), scoreRow(2L, 332L, 7.0));
+        when(overallByProviderRepository.findLatestByHotelIds(anyCollection())).thenReturn(rows);
+
+        Map<Long, List<OverallByProviderDTO>> latest = service.latestOverallByProvider(List.of(5L, 9L, 2L, 5L));
+
+        assertEquals(List.of(5L, 9L, 2L), List.copyOf(latest.keySet()));
+        assertEquals(2, latest.get(5L).size());
+        assertEquals(9.0, latest.get(5L).get(1).overallScore);
+        assertTrue(latest.get(9L).isEmpty());
+        assertEquals(332L, latest.get(2L).get(0).providerId);
+        verify(overallByProviderRepository, times(1)).findLatestByHotelIds(anyCollection());
+    }
+
+    private static ProviderScoreRow scoreRow(long hotelId, long providerId, double score) {
+        ProviderScoreRow row = mock(ProviderScoreRow.class);
+        when(row.getHotelId()).thenReturn(hotelId);
+        when(row.getProviderId()).thenReturn(providerId);
+        when(row.getOverallScore()).thenReturn(score);
+        return row;
+    }
+
+    private static ReviewSummary summary(long id) {
+        ReviewSummary s = mock(ReviewSummary.class);
+        when(s.getReviewId()).thenReturn(id);
+        when(s.getHotelId()).thenReturn(7L);
+        when(s.getReviewComments()).thenReturn("comment " + id);
+        return s;
+    }
+}
@@ -0,0 +1,177 @@
+package com.reviewsystem.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.reviewsystem.config.JLImportRequiredFieldsConfig;
+import com.reviewsystem.config.JLImportStringDedupConfig;
+import com.reviewsystem.config.JLImportTextCompressionConfig;
+import com.reviewsystem.model.Review;
+import com.reviewsystem.model.Reviewer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReviewRecordMapperTest {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private ReviewRecordMapper mapper;
+    private StringCanonicalizer strings;
+
+    @BeforeEach
+    void setUp() {
+        JLImportRequiredFieldsConfig config = new JLImportRequiredFieldsConfig();
+        config.setTopLevel(List.of("hotelId", "hotelName", "comment", "platform"));
+        config.setComment(List.of("hotelReviewId", "providerId", "rating", "reviewComments", "reviewDate", "reviewerInfo"));
+        JLImportStringDedupConfig dedupConfig = new JLImportStringDedupConfig();
+        dedupConfig.setMaxEntries(3);
+        strings = new StringCanonicalizer(dedupConfig, new SimpleMeterRegistry());
+        mapper = new ReviewRecordMapper(config, strings, new JLImportTextCompressionConfig());
+        mapper.compile();
+    }
+
+    @Test
+    void sampleFile_mapsExactlyLikeFieldByFieldLookup() throws Exception {
+        List<String> lines = Files.readAllLines(Paths.get("files/agoda_com_2025-04-10_processed.jl"), StandardCharsets.UTF_8);
+        assertFalse(lines.isEmpty());
+        for (String line : lines) {
+            JsonNode root = objectMapper.readTree(line);
+            ReviewRecordMapper.Record record = mapper.read(root);
+            String expectedMissing = root.hasNonNull("hotelName") ? null : "hotelName, ";
+            assertEquals(expectedMissing, mapper.missingRequiredFields(record));
+            if (expectedMissing != null) continue;
+            JsonNode comment = root.get("comment");
+            Reviewer reviewer = mapper.mapReviewer(record);
+            Review review = mapper.mapReview(record, comment.get("hotelReviewId").asLong(), null, null, reviewer);
+            assertEquals(expectedReviewer(comment.get("reviewerInfo")), reviewer);
+            assertEquals(expectedReview(comment, reviewer), review);
+            assertEquals(root.get("hotelId").asLong(), mapper.hotelId(record));
+            assertEquals(comment.get("providerId").asLong(), mapper.providerId(record));
+        }
+    }
+
+    @Test
+    void contentHash_changesWithEveryStoredField() throws Exception {
+        String line = Files.readAllLines(Paths.get("files/agoda_com_2025-04-10_processed.jl"), StandardCharsets.UTF_8).get(0);
+        long hash = mapper.contentHash(mapper.read(objectMapper.readTree(line)));
+        assertEquals(hash, mapper.contentHash(mapper.read(objectMapper.readTree(line))));
+
+        ObjectNode responded = (ObjectNode) objectMapper.readTree(line);
+        ((ObjectNode) responded.get("comment")).put("responderName", "Hotel Manager");
+        assertNotEquals(hash, mapper.contentHash(mapper.read(responded)));
+
+        ObjectNode regraded = (ObjectNode) objectMapper.readTree(line);
+        ObjectNode grades = (ObjectNode) regraded.get("overallByProviders").get(0).get("grades");
+        grades.put(grades.fieldNames().next(), 1.0);
+        assertNotEquals(hash, mapper.contentHash(mapper.read(regraded)));
+
+        ObjectNode rescored = (ObjectNode) objectMapper.readTree(line);
+        ((ObjectNode) rescored.get("overallByProviders").get(0)).put("reviewCount", 1);
+        assertNotEquals(hash, mapper.contentHash(mapper.read(rescored)));
+
+        ObjectNode reviewer = (ObjectNode) objectMapper.readTree(line);
+        ((ObjectNode) reviewer.get("comment").get("reviewerInfo")).put("reviewerReviewedCount", 99);
+        assertNotEquals(hash, mapper.contentHash(mapper.read(reviewer)));
+
+        ObjectNode unmapped = (ObjectNode) objectMapper.readTree(line);
+        unmapped.put("platform", "Elsewhere");
+        assertEquals(hash, mapper.contentHash(mapper.read(unmapped)));
+    }
+
+    @Test
+    void lowCardinalityFields_shareOneInstanceUpToTableBound() throws Exception {
+        String line = "{\"hotelId\":1,\"hotelName\":\"H\",\"platform\":\"Agoda\",\"comment\":{\"hotelReviewId\":1,\"providerId\":1,"
+                + "\"translateSource\":\"en\",\"translateTarget\":\"de\",\"ratingText\":\"Good\",\"reviewProviderText\":\"Agoda\","
+                + "\"reviewerInfo\":{\"countryName\":\"India\"}}}";
+        Review first = mapper.mapReview(mapper.read(objectMapper.readTree(line)), 1L, null, null, null);
+        Review second = mapper.mapReview(mapper.read(objectMapper.readTree(line)), 2L, null, null, null);
+        assertSame(first.getRatingText(), second.getRatingText());
+        assertSame(first.getReviewProviderText(), second.getReviewProviderText());
+        assertSame(first.getTranslateSource(), second.getTranslateSource());
+        // Table holds 3 entries; the fourth distinct value passes through uncached
+        assertEquals("de", second.getTranslateTarget());
+        assertNotSame(first.getTranslateTarget(), second.getTranslateTarget());
+        assertEquals(3, strings.getHits());
+    }
+
+    @Test
+    void missingRequiredFields_listsFieldsInConfigOrder() throws Exception {
+        ReviewRecordMapper.Record topMissing = mapper.read(objectMapper.readTree("{\"hotelName\":null,\"comment\":{}}"));
+        assertEquals("hotelId, hotelName, platform, ", mapper.missingRequiredFields(topMissing));
+        ReviewRecordMapper.Record commentMissing = mapper.read(objectMapper.readTree(
+                "{\"hotelId\":1,\"hotelName\":\"H\",\"platform\":\"Agoda\",\"comment\":{\"providerId\":1,\"rating\":null}}"));
+        assertEquals("comment.hotelReviewId, comment.rating, comment.reviewComments, comment.reviewDate, comment.reviewerInfo, ",
+                mapper.missingRequiredFields(commentMissing));
+    }
+
+    @Test
+    void parseDate_matchesIsoOffsetFormatterWithoutThrowing() {
+        List<String> inputs = List.of("2025-04-10T05:37:00+07:00", "2025-04-10T05:37:00Z", "2024-02-29T23:59:59-05:30",
+                "2025-04-10T05:37:00.123+07:00", "2025-04-10T05:37+07:00", "2025-02-30T05:37:00+07:00",
+                "2025-13-10T05:37:00+07:00", "2025-04-10T05:37:00", "April 10, 2025", "", "2025-04-10T05:37:00+07:00x");
+        for (String input : inputs) {
+            LocalDateTime expected;
+            try {
+                expected = LocalDateTime.parse(input, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+            } catch (Exception e) {
+                expected = null;
+            }
+            assertEquals(expected, ReviewRecordMapper.parseDate(input), input);
+        }
+    }
+
+    private Reviewer expectedReviewer(JsonNode n) {
+        return Reviewer.builder()
+                .displayName(n.hasNonNull("displayMemberName") ? n.get("displayMemberName").asText() : null)
+                .countryName(n.hasNonNull("countryName") ? n.get("countryName").asText() : null)
+                .flagName(n.hasNonNull("flagName") ? n.get("flagName").asText() : null)
+                .reviewGroupName(n.hasNonNull("reviewGroupName") ? n.get("reviewGroupName").asText() : null)
+                .roomTypeName(n.hasNonNull("roomTypeName") ? n.get("roomTypeName").asText() : null)
+                .countryId(n.hasNonNull("countryId") ? n.get("countryId").asInt() : null)
+                .lengthOfStay(n.hasNonNull("lengthOfStay") ? n.get("lengthOfStay").asInt() : null)
+                .reviewGroupId(n.hasNonNull("reviewGroupId") ? n.get("reviewGroupId").asInt() : null)
+                .roomTypeId(n.hasNonNull("roomTypeId") ? n.get("roomTypeId").asInt() : null)
+                .reviewedCount(n.hasNonNull("reviewerReviewedCount") ? n.get("reviewerReviewedCount").asInt() : null)
+                .isExpertReviewer(n.hasNonNull("isExpertReviewer") ? n.get("isExpertReviewer").asBoolean() : null)
+                .isShowGlobalIcon(n.hasNonNull("isShowGlobalIcon") ? n.get("isShowGlobalIcon").asBoolean() : null)
+                .isShowReviewedCount(n.hasNonNull("isShowReviewedCount") ? n.get("isShowReviewedCount").asBoolean() : null)
+                .build();
+    }
+
+    private Review expectedReview(JsonNode c, Reviewer reviewer) {
+        return Review.builder()
+                .id(c.get("hotelReviewId").asLong())
+                .reviewer(reviewer)
+                .rating(c.hasNonNull("rating") ? c.get("rating").asDouble() : null)
+                .checkInMonthYear(c.hasNonNull("checkInDateMonthAndYear") ? c.get("checkInDateMonthAndYear").asText() : null)
+                .encryptedReviewData(c.hasNonNull("encryptedReviewData") ? c.get("encryptedReviewData").asText() : null)
+                .formattedRating(c.hasNonNull("formattedRating") ? c.get("formattedRating").asText() : null)
+                .formattedReviewDate(c.hasNonNull("formattedReviewDate") ? c.get("formattedReviewDate").asText() : null)
+                .ratingText(c.hasNonNull("ratingText") ? c.get("ratingText").asText() : null)
+                .responderName(c.hasNonNull("responderName") ? c.get("responderName").asText() : null)
+                .responseDateText(c.hasNonNull("responseDateText") ? c.get("responseDateText").asText() : null)
+                .responseTranslateSource(c.hasNonNull("responseTranslateSource") ? c.get("responseTranslateSource").asText() : null)
+                .reviewComments(c.hasNonNull("reviewComments") ? c.get("reviewComments").asText() : null)
+                .reviewNegatives(c.hasNonNull("reviewNegatives") ? c.get("reviewNegatives").asText() : null)
+                .reviewPositives(c.hasNonNull("reviewPositives") ? c.get("reviewPositives").asText() : null)
+                .reviewProviderLogo(c.hasNonNull("reviewProviderLogo") ? c.get("reviewProviderLogo").asText() : null)
+                .reviewProviderText(c.hasNonNull("reviewProviderText") ? c.get("reviewProviderText").asText() : null)
+                .reviewTitle(c.hasNonNull("reviewTitle") ? c.get("reviewTitle").asText() : null)
+                .translateSource(c.hasNonNull("translateSource") ? c.get("translateSource").asText() : null)
+                .translateTarget(c.hasNonNull("translateTarget") ? c.get("translateTarget").asText() : null)
+                .reviewDate(c.hasNonNull("reviewDate") ? LocalDateTime.parse(c.get("reviewDate").asText(), DateTimeFormatter.ISO_OFFSET_DATE_TIME) : null)
+                .originalTitle(c.hasNonNull("originalTitle") ? c.get("originalTitle").asText() : null)
+                .originalComment(c.hasNonNull("originalComment") ? c.get("originalComment").asText() : null)
+                .formattedResponseDate(c.hasNonNull("formattedResponseDate") ? c.get("formattedResponseDate").asText() : null)
+                .isShowReviewResponse(c.hasNonNull("isShowReviewResponse") ? c.get("isShowReviewResponse").asBoolean() : null)
+                .build();
+    }
+}
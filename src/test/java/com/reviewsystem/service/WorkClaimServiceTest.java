@@ -0,0 +1,135 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.config.JLImportLeaseConfig;
+import com.reviewsystem.model.WorkClaim;
+import com.reviewsystem.repository.WorkClaimRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WorkClaimServiceTest {
+    private WorkClaimRepository repository;
+    private WorkClaimService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(WorkClaimRepository.class);
+        JLImportLeaseConfig config = new JLImportLeaseConfig();
+        config.setNodeId("node-a");
+        config.setLeaseSeconds(300);
+        service = new WorkClaimService(repository, config);
+        service.init();
+    }
+
+    private static byte[] h(String claimKey) {
+        return WorkClaim.keyHash(claimKey);
+    }
+
+    @Test
+    void keyHash_isFixedWidthAndDistinguishesLongKeys() {
+        String prefix = "backfill:run-1:s3://bucket/" + "k".repeat(1024) + "#etag";
+        assertEquals(32, h(prefix + "@0-100").length);
+        assertFalse(Arrays.equals(h(prefix + "@0-100"), h(prefix + "@100-200")));
+    }
+
+    @Test
+    void tryClaim_insertsNewClaim() {
+        when(repository.insertClaim(h("k1"), "k1", "node-a", 300)).thenReturn(1);
+        assertTrue(service.tryClaim("k1"));
+        verify(repository, never()).stealExpired(any(), any(), anyInt());
+    }
+
+    @Test
+    void tryClaim_stealsOnlyExpiredClaims() {
+        when(repository.insertClaim(any(), any(), any(), anyInt())).thenReturn(0);
+        when(repository.stealExpired(h("expired"), "node-a", 300)).thenReturn(1);
+        when(repository.stealExpired(h("live"), "node-a", 300)).thenReturn(0);
+
+        assertTrue(service.tryClaim("expired"));
+        assertFalse(service.tryClaim("live"));
+    }
+
+    @Test
+    void tryClaimOrRetry_takesBackFailedClaims() {
+        when(repository.insertClaim(any(), any(), any(), anyInt())).thenReturn(0);
+        when(repository.stealExpired(any(), any(), anyInt())).thenReturn(0);
+        when(repository.retryFailed(h("failed"), "node-a", 300)).thenReturn(1);
+
+        assertFalse(service.tryClaim("failed"));
+        verify(repository, never()).retryFailed(any(), any(), anyInt());
+        assertTrue(service.tryClaimOrRetry("failed"));
+        // DONE or live claims are not matched by retryFailed
+        assertFalse(service.tryClaimOrRetry("done"));
+    }
+
+    @Test
+    void finalizeWhenDone_retriesFailedFinalizerWhenAsked() {
+        when(repository.insertClaim(h("f"), "f", "node-a", 300)).thenReturn(0);
+        when(repository.retryFailed(h("f"), "node-a", 300)).thenReturn(1);
+        when(repository.finish(any(), any(), any())).thenReturn(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        service.finalizeWhenDone(List.of(), "f", runs::incrementAndGet);
+        assertEquals(0, runs.get());
+        service.finalizeWhenDone(List.of(), "f", true, runs::incrementAndGet);
+        assertEquals(1, runs.get());
+        verify(repository).finish(h("f"), "node-a", WorkClaim.DONE);
+    }
+
+    @Test
+    void heartbeat_renewsHeldClaimsUntilFinished() {
+        when(repository.insertClaim(any(), any(), any(), anyInt())).thenReturn(1);
+        when(repository.finish(any(), any(), any())).thenReturn(1);
+        service.tryClaim("k1");
+        service.tryClaim("k2");
+
+        service.heartbeat();
+        verify(repository).heartbeat(argThat(keys -> keys.size() == 2 && keys.stream().anyMatch(k -> Arrays.equals(k, h("k1")))
+                && keys.stream().anyMatch(k -> Arrays.equals(k, h("k2")))), eq("node-a"), eq(300));
+
+        service.complete("k1");
+        service.fail("k2");
+        verify(repository).finish(h("k1"), "node-a", WorkClaim.DONE);
+        verify(repository).finish(h("k2"), "node-a", WorkClaim.FAILED);
+        clearInvocations(repository);
+        service.heartbeat();
+        verify(repository, never()).heartbeat(any(), any(), anyInt());
+    }
+
+    @Test
+    void finalizeWhenDone_runsOnceAllPartsAreDone() {
+        List<String> parts = List.of("p0", "p1");
+        AtomicInteger runs = new AtomicInteger();
+        when(repository.countByKeyHashInAndStatus(anyCollection(), eq(WorkClaim.DONE))).thenReturn(1L);
+        service.finalizeWhenDone(parts, "f", runs::incrementAndGet);
+        assertEquals(0, runs.get());
+        verify(repository, never()).insertClaim(eq(h("f")), eq("f"), any(), anyInt());
+
+        when(repository.countByKeyHashInAndStatus(anyCollection(), eq(WorkClaim.DONE))).thenReturn(2L);
+        when(repository.insertClaim(h("f"), "f", "node-a", 300)).thenReturn(1);
+        when(repository.finish(any(), any(), any())).thenReturn(1);
+        service.finalizeWhenDone(parts, "f", runs::incrementAndGet);
+        assertEquals(1, runs.get());
+        verify(repository).finish(h("f"), "node-a", WorkClaim.DONE);
+
+        // Another node already finalized
+        when(repository.insertClaim(h("f"), "f", "node-a", 300)).thenReturn(0);
+        service.finalizeWhenDone(parts, "f", runs::incrementAndGet);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void finalizeWhenDone_failingFinalizerMarksClaimFailed() {
+        when(repository.insertClaim(h("f"), "f", "node-a", 300)).thenReturn(1);
+        when(repository.finish(any(), any(), any())).thenReturn(1);
+        service.finalizeWhenDone(List.of(), "f", () -> { throw new IllegalStateException("rename failed"); });
+        verify(repository).finish(h("f"), "node-a", WorkClaim.FAILED);
+    }
+}
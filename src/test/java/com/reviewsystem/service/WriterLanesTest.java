@@ -0,0 +1,121 @@
+package com.reviewsystem.service;
+
+import com.reviewsystem.config.JLImportWriterLanesConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriterLanesTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private JLImportWriterLanesConfig config;
+    private WriterLanes lanes;
+
+    @BeforeEach
+    void setUp() {
+        config = new JLImportWriterLanesConfig();
+        config.setLanes(4);
+        config.setDeadlockBackoffMillis(1);
+        lanes = new WriterLanes(config, registry);
+        lanes.init();
+    }
+
+    @Test
+    void lane_isStableAndMovesFewHotelsWhenLanesAreAdded() {
+        int moved = 0;
+        int[] perLane = new int[8];
+        for (long hotelId = 1; hotelId <= 10_000; hotelId++) {
+            int lane = WriterLanes.lane(hotelId, 8);
+            assertEquals(lane, WriterLanes.lane(hotelId, 8));
+            perLane[lane]++;
+            int grown = WriterLanes.lane(hotelId, 9);
+            if (grown != lane) {
+                // A hotel only ever moves to the new lane
+                assertEquals(8, grown);
+                moved++;
+            }
+        }
+        for (int count : perLane) assertTrue(count > 1000, "uneven lanes: " + count);
+        assertTrue(moved < 10_000 / 9 * 1.2, "moved " + moved);
+    }
+
+    @Test
+    void write_runsOneBatchPerLaneAtATime() throws Exception {
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> lanes.write(1, () -> {
+            inside.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        inside.await(5, TimeUnit.SECONDS);
+
+        CompletableFuture<Void> sameLane = CompletableFuture.runAsync(() -> lanes.write(1, () -> { }));
+        CompletableFuture<Void> otherLane = CompletableFuture.runAsync(() -> lanes.write(2, () -> { }));
+        otherLane.get(5, TimeUnit.SECONDS);
+        assertThrows(TimeoutException.class, () -> sameLane.get(200, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        sameLane.get(5, TimeUnit.SECONDS);
+        assertEquals(2, registry.get("jlimport.lane.write").tag("lane", "1").timer().count());
+    }
+
+    @Test
+    void retryOnLockFailure_retriesDeadlocksOnly() {
+        config.setDeadlockBackoffMillis(20);
+        AtomicInteger attempts = new AtomicInteger();
+        WriterLanes.Attempt attempt = lanes.retryOnLockFailure(3, () -> {
+            if (attempts.incrementAndGet() < 3) throw new CannotAcquireLockException("Deadlock found");
+        });
+        assertEquals(3, attempts.get());
+        assertEquals(2, attempt.lockRetries());
+        // Only the successful run is timed, not the backoff pauses before it
+        assertTrue(attempt.elapsedNanos() < TimeUnit.MILLISECONDS.toNanos(config.getDeadlockBackoffMillis()));
+        assertEquals(2.0, registry.get("jlimport.lane.lock.retries").tag("lane", "3").counter().count());
+
+        attempts.set(0);
+        assertThrows(DataIntegrityViolationException.class, () -> lanes.retryOnLockFailure(3, () -> {
+            attempts.incrementAndGet();
+            throw new DataIntegrityViolationException("Duplicate entry");
+        }));
+        assertEquals(1, attempts.get());
+
+        attempts.set(0);
+        assertThrows(CannotAcquireLockException.class, () -> lanes.retryOnLockFailure(3, () -> {
+            attempts.incrementAndGet();
+            throw new CannotAcquireLockException("Deadlock found");
+        }));
+        assertEquals(1 + config.getDeadlockRetries(), attempts.get());
+    }
+
+    @Test
+    void isLockFailure_findsMySqlDeadlockInCauses() {
+        SQLException deadlock = new SQLException("Deadlock found when trying to get lock", "40001", 1213);
+        assertTrue(WriterLanes.isLockFailure(new RuntimeException("could not execute batch", deadlock)));
+        assertTrue(WriterLanes.isLockFailure(new RuntimeException(new SQLException("Lock wait timeout exceeded", "HY000", 1205))));
+        assertFalse(WriterLanes.isLockFailure(new RuntimeException(new SQLException("Duplicate entry", "23000", 1062))));
+    }
+
+    @Test
+    void disabled_usesOneLane() {
+        config.setEnabled(false);
+        WriterLanes single = new WriterLanes(config, new SimpleMeterRegistry());
+        single.init();
+        assertEquals(1, single.size());
+        assertEquals(0, single.laneOf(123456L));
+    }
+}